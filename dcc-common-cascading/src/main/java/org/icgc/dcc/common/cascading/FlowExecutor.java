@@ -18,16 +18,14 @@
 package org.icgc.dcc.common.cascading;
 
 import static cascading.flow.FlowDef.flowDef;
-import static cascading.flow.hadoop.util.HadoopUtil.serializeBase64;
-import static cascading.flow.hadoop.util.HadoopUtil.writeStateToDistCache;
-import static cascading.util.Util.createUniqueID;
 import static java.lang.Integer.MAX_VALUE;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.apache.hadoop.fs.CommonConfigurationKeysPublic.FS_DEFAULT_NAME_KEY;
+import static org.icgc.dcc.common.cascading.FlowExecutorJobState.writeState;
+import static org.icgc.dcc.common.cascading.FlowInstrumentation.LOGGING_PUBLISHER;
+import static org.icgc.dcc.common.cascading.FlowInstrumentation.instrument;
 import static org.icgc.dcc.common.cascading.FlowReporter.reportFlowFailure;
-import static org.icgc.dcc.common.hadoop.util.HadoopConstants.MR_JOBTRACKER_ADDRESS_KEY;
 
-import java.io.IOException;
 import java.net.URI;
 import java.util.Map;
 import java.util.concurrent.BlockingQueue;
@@ -39,19 +37,20 @@ import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import lombok.NonNull;
+import lombok.Setter;
 import lombok.SneakyThrows;
 import lombok.val;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.io.NullWritable;
 import org.apache.hadoop.mapred.JobConf;
+import org.icgc.dcc.common.cascading.FlowInstrumentation.FlowSummaryPublisher;
 import org.icgc.dcc.common.hadoop.io.NullInputFormat;
 import org.icgc.dcc.common.hadoop.io.NullOutputFormat;
 
 import cascading.flow.Flow;
 import cascading.flow.FlowException;
 import cascading.flow.hadoop.MapReduceFlow;
-import cascading.flow.hadoop.util.JavaObjectSerializer;
 import cascading.flow.local.LocalFlowConnector;
 import cascading.pipe.Each;
 import cascading.tap.Tap;
@@ -73,6 +72,13 @@ public class FlowExecutor extends ThreadPoolExecutor {
    */
   private final Map<Object, Object> properties;
 
+  /**
+   * Publishes the {@link FlowSummary} of every executed flow.
+   */
+  @Setter
+  @NonNull
+  private FlowSummaryPublisher publisher = LOGGING_PUBLISHER;
+
   public FlowExecutor(@NonNull Map<Object, Object> properties) {
     super(0, MAX_VALUE, 60L, SECONDS, new SynchronousQueue<Runnable>());
     this.properties = properties;
@@ -162,11 +168,9 @@ public class FlowExecutor extends ThreadPoolExecutor {
   }
 
   private Flow<?> createFlow(FlowExecutorJob job) {
-    if (isLocal()) {
-      return createLocalFlow(job);
-    } else {
-      return createHadoopFlow(job);
-    }
+    Flow<?> flow = isLocal() ? createLocalFlow(job) : createHadoopFlow(job);
+
+    return instrument(flow, publisher);
   }
 
   @SneakyThrows
@@ -217,7 +221,7 @@ public class FlowExecutor extends ThreadPoolExecutor {
     return flow;
   }
 
-  private JobConf createJobConf(FlowExecutorJob job) throws IOException {
+  private JobConf createJobConf(FlowExecutorJob job) {
     val jobConf = new JobConf();
     jobConf.setJarByClass(job.getClass());
     jobConf.setInputFormat(NullInputFormat.class);
@@ -236,22 +240,9 @@ public class FlowExecutor extends ThreadPoolExecutor {
     return jobConf;
   }
 
-  private void writeJob(FlowExecutorJob job, JobConf jobConf) throws IOException {
-    // Hadoop 20.2 doesn't like dist cache when using local mode
-    val executorState = serializeBase64(job, jobConf, true);
-    val maxSize = Short.MAX_VALUE;
-
-    jobConf.set(CASCADING_SERIALIZER_PROPERTY, JavaObjectSerializer.class.getName());
+  private void writeJob(FlowExecutorJob job, JobConf jobConf) {
     jobConf.set(JOB_NAME_PROPERTY, job.getClass().getName());
-    if (isHadoopLocalMode(jobConf) || executorState.length() < maxSize) {
-      jobConf.set(CASCADING_FLOW_STEP_PROPERTY, executorState);
-    } else {
-      jobConf.set(CASCADING_FLOW_STEP_PATH_PROPERTY, writeStateToDistCache(jobConf, getId(), executorState));
-    }
-  }
-
-  private boolean isHadoopLocalMode(JobConf conf) {
-    return "local".equals(conf.get(MR_JOBTRACKER_ADDRESS_KEY));
+    writeState(job, jobConf);
   }
 
   private void addProperties(JobConf jobConf) {
@@ -260,8 +251,4 @@ public class FlowExecutor extends ThreadPoolExecutor {
     }
   }
 
-  private String getId() {
-    return createUniqueID();
-  }
-
 }
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.cascading;
+
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.hash.Hashing.sha1;
+import static com.google.common.io.BaseEncoding.base64;
+import static lombok.AccessLevel.PRIVATE;
+import static org.icgc.dcc.common.cascading.FlowExecutor.CASCADING_FLOW_STEP_PATH_PROPERTY;
+import static org.icgc.dcc.common.cascading.FlowExecutor.CASCADING_FLOW_STEP_PROPERTY;
+import static org.icgc.dcc.common.cascading.FlowExecutor.CASCADING_SERIALIZER_PROPERTY;
+import static org.icgc.dcc.common.hadoop.util.HadoopConstants.MR_JOBTRACKER_ADDRESS_KEY;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Set;
+
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import lombok.SneakyThrows;
+import lombok.Value;
+import lombok.val;
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.hadoop.filecache.DistributedCache;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.IOUtils;
+import org.apache.hadoop.mapred.JobConf;
+
+import cascading.flow.hadoop.util.JavaObjectSerializer;
+
+import com.google.common.collect.Sets;
+import com.google.common.io.ByteStreams;
+
+/**
+ * Ships the serialized state of a {@link FlowExecutorJob} from the submitting client to the
+ * {@link FlowExecutorMapper}.
+ * <p>
+ * State is serialized and compressed on every submission, so later changes to a job are always shipped, and content
+ * addressed by its SHA-1 digest. Small states are inlined into the {@code JobConf} as Base64. Larger states are staged
+ * once per digest under {@link #STATE_DIR_PROPERTY} (by default below {@code hadoop.tmp.dir}) and always shipped
+ * through the distributed cache, so identical jobs reuse the already staged artifact and the {@code JobConf} stays
+ * small.
+ */
+@Slf4j
+@NoArgsConstructor(access = PRIVATE)
+public final class FlowExecutorJobState {
+
+  /**
+   * Constants.
+   */
+  public static final String STATE_PROPERTY = CASCADING_FLOW_STEP_PROPERTY;
+  public static final String STATE_NAME_PROPERTY = "org.icgc.dcc.flow.executor.state.name";
+  public static final String STATE_PATH_PROPERTY = CASCADING_FLOW_STEP_PATH_PROPERTY;
+  public static final String STATE_DIR_PROPERTY = "org.icgc.dcc.flow.executor.state.dir";
+  public static final String STATE_MAX_INLINE_SIZE_PROPERTY = "org.icgc.dcc.flow.executor.state.max.inline.size";
+
+  private static final String HADOOP_TMP_DIR_PROPERTY = "hadoop.tmp.dir";
+  private static final String DEFAULT_STATE_DIR_NAME = "dcc-flow-executor";
+  private static final int DEFAULT_MAX_INLINE_SIZE = 8 * 1024;
+  private static final String STATE_FILE_EXTENSION = ".state.gz";
+
+  /**
+   * Fully qualified paths of artifacts already staged by this process.
+   */
+  private static final Set<String> STAGED = Sets.newConcurrentHashSet();
+
+  /**
+   * Adds the state of {@code job} to {@code jobConf}, staging it to the distributed cache if required.
+   */
+  @SneakyThrows
+  public static void writeState(@NonNull FlowExecutorJob job, @NonNull JobConf jobConf) {
+    val state = getState(job);
+    val maxInlineSize = jobConf.getInt(STATE_MAX_INLINE_SIZE_PROPERTY, DEFAULT_MAX_INLINE_SIZE);
+
+    jobConf.set(CASCADING_SERIALIZER_PROPERTY, JavaObjectSerializer.class.getName());
+    // Hadoop 20.2 doesn't like dist cache when using local mode
+    if (isHadoopLocalMode(jobConf) || state.getBytes().length <= maxInlineSize) {
+      log.info("Inlining {} bytes of job state '{}'", state.getBytes().length, state.getDigest());
+      jobConf.set(STATE_PROPERTY, base64().encode(state.getBytes()));
+    } else {
+      val path = stageState(state, jobConf);
+      val name = path.getName();
+
+      log.info("Shipping {} bytes of job state '{}' from '{}'", state.getBytes().length, state.getDigest(), path);
+      DistributedCache.addCacheFile(new URI(path.toUri() + "#" + name), jobConf);
+      DistributedCache.createSymlink(jobConf);
+
+      jobConf.set(STATE_NAME_PROPERTY, name);
+      jobConf.set(STATE_PATH_PROPERTY, path.toString());
+    }
+  }
+
+  /**
+   * Reads the job state written by {@link #writeState(FlowExecutorJob, JobConf)}, preferring the local cached copy.
+   */
+  public static FlowExecutorJob readState(@NonNull JobConf jobConf, @NonNull Class<?> jobClass) throws IOException {
+    val bytes = readBytes(jobConf);
+
+    return (FlowExecutorJob) new JavaObjectSerializer().deserialize(bytes, jobClass, true);
+  }
+
+  private static byte[] readBytes(JobConf jobConf) throws IOException {
+    val inline = jobConf.getRaw(STATE_PROPERTY);
+    if (inline != null) {
+      return base64().decode(inline);
+    }
+
+    val name = jobConf.get(STATE_NAME_PROPERTY);
+    checkState(name != null, "No job state found in job configuration");
+
+    val localFiles = DistributedCache.getLocalCacheFiles(jobConf);
+    if (localFiles != null) {
+      for (val localFile : localFiles) {
+        if (localFile.getName().equals(name)) {
+          log.info("Reading job state from local cache file '{}'", localFile);
+          return readFile(FileSystem.getLocal(jobConf), localFile);
+        }
+      }
+    }
+
+    // Fallback when the cache was not localized (e.g. misconfigured task trackers)
+    val path = new Path(jobConf.get(STATE_PATH_PROPERTY));
+    log.warn("Job state '{}' not found in local cache. Reading from '{}'", name, path);
+
+    return readFile(path.getFileSystem(jobConf), path);
+  }
+
+  private static State getState(FlowExecutorJob job) throws IOException {
+    val bytes = new JavaObjectSerializer().serialize(job, true);
+    val digest = sha1().hashBytes(bytes).toString();
+
+    return new State(digest, bytes);
+  }
+
+  private static Path getStateDir(JobConf jobConf) {
+    val dir = jobConf.get(STATE_DIR_PROPERTY);
+    if (dir != null) {
+      return new Path(dir);
+    }
+
+    return new Path(jobConf.get(HADOOP_TMP_DIR_PROPERTY, System.getProperty("java.io.tmpdir")), DEFAULT_STATE_DIR_NAME);
+  }
+
+  private static Path stageState(State state, JobConf jobConf) throws IOException {
+    val dir = getStateDir(jobConf);
+    val fileSystem = dir.getFileSystem(jobConf);
+    val path = fileSystem.makeQualified(new Path(dir, state.getDigest() + STATE_FILE_EXTENSION));
+
+    val key = path.toString();
+    if (STAGED.contains(key) || fileSystem.exists(path)) {
+      log.info("Reusing staged job state '{}'", path);
+      STAGED.add(key);
+
+      return path;
+    }
+
+    // Write to a temporary file first so that concurrent submitters never observe a partial artifact
+    val tempPath = new Path(dir, "." + state.getDigest() + "-" + System.nanoTime());
+    val outputStream = fileSystem.create(tempPath, false);
+    try {
+      outputStream.write(state.getBytes());
+    } finally {
+      IOUtils.closeStream(outputStream);
+    }
+
+    if (!fileSystem.rename(tempPath, path)) {
+      // Lost the race with an identical job, which is fine since the content is the same
+      fileSystem.delete(tempPath, false);
+      checkState(fileSystem.exists(path), "Could not stage job state to '%s'", path);
+    }
+
+    STAGED.add(key);
+
+    return path;
+  }
+
+  private static byte[] readFile(FileSystem fileSystem, Path path) throws IOException {
+    val inputStream = fileSystem.open(path);
+    try {
+      return ByteStreams.toByteArray(inputStream);
+    } finally {
+      IOUtils.closeStream(inputStream);
+    }
+  }
+
+  private static boolean isHadoopLocalMode(JobConf conf) {
+    return "local".equals(conf.get(MR_JOBTRACKER_ADDRESS_KEY));
+  }
+
+  @Value
+  private static class State {
+
+    String digest;
+    byte[] bytes;
+
+  }
+
+}
@@ -17,10 +17,9 @@
  */
 package org.icgc.dcc.common.cascading;
 
-import static cascading.flow.hadoop.util.HadoopUtil.deserializeBase64;
-import static cascading.flow.hadoop.util.HadoopUtil.readStateFromDistCache;
 import static org.apache.commons.lang.StringUtils.repeat;
 import static org.apache.hadoop.mapred.JobConf.MAPRED_MAP_TASK_JAVA_OPTS;
+import static org.icgc.dcc.common.cascading.FlowExecutorJobState.readState;
 import static org.icgc.dcc.common.core.util.Formats.formatMemory;
 
 import java.io.IOException;
@@ -35,8 +34,6 @@ import org.apache.hadoop.mapred.Mapper;
 import org.apache.hadoop.mapred.OutputCollector;
 import org.apache.hadoop.mapred.Reporter;
 
-import cascading.flow.FlowStep;
-
 @Slf4j
 public class FlowExecutorMapper implements Mapper<NullWritable, NullWritable, NullWritable, NullWritable> {
 
@@ -84,29 +81,13 @@ public class FlowExecutorMapper implements Mapper<NullWritable, NullWritable, Nu
 
   private FlowExecutorJob readJob() throws Exception {
     try {
-      val executorState = readExecutorState();
-      return (FlowExecutorJob) deserializeBase64(executorState, jobConf,
-          Class.forName(jobConf.get(FlowExecutor.JOB_NAME_PROPERTY)));
+      return readState(jobConf, Class.forName(jobConf.get(FlowExecutor.JOB_NAME_PROPERTY)));
     } catch (Exception e) {
       log.error("Error reading job:", e);
       throw e;
     }
   }
 
-  private String readExecutorState() throws Exception {
-    try {
-      String executorState = jobConf.getRaw(FlowExecutor.CASCADING_FLOW_STEP_PROPERTY);
-      if (executorState == null) {
-        executorState = readStateFromDistCache(jobConf, jobConf.get(FlowStep.CASCADING_FLOW_STEP_ID));
-      }
-
-      return executorState;
-    } catch (Exception e) {
-      log.error("Error reading executor state:", e);
-      throw e;
-    }
-  }
-
   private FlowExecutorHeartbeat createHeartbeat(Reporter reporter) {
     return new FlowExecutorHeartbeat(reporter) {
 
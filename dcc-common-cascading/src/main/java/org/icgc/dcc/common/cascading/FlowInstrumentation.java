@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.cascading;
+
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Collections.reverseOrder;
+import static lombok.AccessLevel.PRIVATE;
+import static org.icgc.dcc.common.cascading.FlowReporter.reportFlowSummary;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import lombok.val;
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.icgc.dcc.common.cascading.FlowSummary.PipeSummary;
+import org.icgc.dcc.common.cascading.FlowSummary.StepSummary;
+import org.icgc.dcc.common.cascading.FlowSummary.TapSummary;
+
+import cascading.flow.Flow;
+import cascading.flow.FlowListener;
+import cascading.flow.StepCounters;
+import cascading.stats.CascadingStats;
+import cascading.stats.FlowStepStats;
+import cascading.tap.Tap;
+import cascading.tap.hadoop.Hfs;
+import cascading.tap.type.FileType;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Ordering;
+
+/**
+ * Utility class to instrument {@link Flow}s and publish a {@link FlowSummary} on completion.
+ * <p>
+ * Relies on cascading counters and stats only, so it works in both local and Hadoop modes:
+ * <ul>
+ * <li>per-pipe tuple counts and rates from {@link FlowMeter}s</li>
+ * <li>per-step wall time, tuples read/written and spilled records (Hadoop only)</li>
+ * <li>size of every file based source and sink tap once the flow completed</li>
+ * </ul>
+ */
+@Slf4j
+@NoArgsConstructor(access = PRIVATE)
+public final class FlowInstrumentation {
+
+  /**
+   * Counter group of {@link FlowMeter}s.
+   */
+  public static final String PIPE_COUNTER_GROUP = "org.icgc.dcc.pipe";
+
+  /**
+   * Spill counters for Hadoop 2 and Hadoop 1 respectively.
+   */
+  private static final List<String> SPILL_COUNTER_GROUPS = ImmutableList.of(
+      "org.apache.hadoop.mapreduce.TaskCounter",
+      "org.apache.hadoop.mapred.Task$Counter");
+  private static final String SPILLED_RECORDS_COUNTER = "SPILLED_RECORDS";
+
+  private static final Ordering<StepSummary> STEP_DURATION_ORDER = Ordering.from(reverseOrder(
+      new Comparator<StepSummary>() {
+
+        @Override
+        public int compare(StepSummary a, StepSummary b) {
+          return Long.compare(a.getDurationMillis(), b.getDurationMillis());
+        }
+
+      }));
+
+  /**
+   * Publishes the summary of a completed flow.
+   */
+  public interface FlowSummaryPublisher {
+
+    void publish(FlowSummary summary);
+
+  }
+
+  /**
+   * Logs the summary through {@link FlowReporter#reportFlowSummary(FlowSummary)}.
+   */
+  public static final FlowSummaryPublisher LOGGING_PUBLISHER = new FlowSummaryPublisher() {
+
+    @Override
+    public void publish(FlowSummary summary) {
+      reportFlowSummary(summary);
+    }
+
+  };
+
+  public static <T extends Flow<?>> T instrument(@NonNull T flow) {
+    return instrument(flow, LOGGING_PUBLISHER);
+  }
+
+  /**
+   * Registers a listener on {@code flow} that publishes its {@link FlowSummary} once it completes (successfully or
+   * not).
+   */
+  public static <T extends Flow<?>> T instrument(@NonNull T flow, @NonNull final FlowSummaryPublisher publisher) {
+    flow.addListener(new FlowListener() {
+
+      @Override
+      public void onStarting(@SuppressWarnings("rawtypes") Flow flow) {
+        // No-op
+      }
+
+      @Override
+      public void onStopping(@SuppressWarnings("rawtypes") Flow flow) {
+        // No-op
+      }
+
+      @Override
+      public void onCompleted(@SuppressWarnings("rawtypes") Flow flow) {
+        try {
+          publisher.publish(summarize(flow));
+        } catch (Exception e) {
+          log.warn("Could not publish summary of flow '{}': {}", flow.getName(), e);
+        }
+      }
+
+      @Override
+      public boolean onThrowable(@SuppressWarnings("rawtypes") Flow flow, Throwable throwable) {
+        // Not handled
+        return false;
+      }
+
+    });
+
+    return flow;
+  }
+
+  /**
+   * Builds the summary of a completed flow.
+   */
+  public static FlowSummary summarize(@NonNull Flow<?> flow) {
+    val flowStats = flow.getFlowStats();
+    checkState(flowStats.isFinished(), "Flow '%s' is not finished", flow.getName());
+
+    val steps = Lists.<StepSummary> newArrayList();
+    val pipes = Lists.<PipeSummary> newArrayList();
+    for (val stepStats : flowStats.getFlowStepStats()) {
+      steps.add(summarizeStep(stepStats));
+      pipes.addAll(summarizePipes(stepStats));
+    }
+
+    return FlowSummary.builder()
+        .name(flow.getName())
+        .status(flowStats.getStatus().name())
+        .durationMillis(flowStats.getDuration())
+        .steps(STEP_DURATION_ORDER.sortedCopy(steps))
+        .pipes(pipes)
+        .sources(summarizeTaps(flow, flow.getSourcesCollection()))
+        .sinks(summarizeTaps(flow, flow.getSinksCollection()))
+        .build();
+  }
+
+  private static StepSummary summarizeStep(FlowStepStats stepStats) {
+    return StepSummary.builder()
+        .name(stepStats.getName())
+        .status(stepStats.getStatus().name())
+        .durationMillis(stepStats.getDuration())
+        .tuplesRead(stepStats.getCounterValue(StepCounters.Tuples_Read))
+        .tuplesWritten(stepStats.getCounterValue(StepCounters.Tuples_Written))
+        .spilledRecords(getSpilledRecords(stepStats))
+        .build();
+  }
+
+  private static List<PipeSummary> summarizePipes(FlowStepStats stepStats) {
+    val pipes = Lists.<PipeSummary> newArrayList();
+    val seconds = stepStats.getDuration() / 1000.0;
+    for (val pipeName : getCounters(stepStats, PIPE_COUNTER_GROUP)) {
+      val tuples = stepStats.getCounterValue(PIPE_COUNTER_GROUP, pipeName);
+      pipes.add(PipeSummary.builder()
+          .name(pipeName)
+          .step(stepStats.getName())
+          .tuples(tuples)
+          .tuplesPerSecond(seconds > 0 ? tuples / seconds : 0)
+          .build());
+    }
+
+    return pipes;
+  }
+
+  @SuppressWarnings("rawtypes")
+  private static List<TapSummary> summarizeTaps(Flow<?> flow, Collection<Tap> taps) {
+    val summaries = Lists.<TapSummary> newArrayList();
+    for (val tap : taps) {
+      summaries.add(TapSummary.builder()
+          .name(tap.getClass().getSimpleName())
+          .identifier(tap.getIdentifier())
+          .size(getSize(flow, tap))
+          .build());
+    }
+
+    return summaries;
+  }
+
+  @SuppressWarnings({ "rawtypes", "unchecked" })
+  private static long getSize(Flow flow, Tap tap) {
+    try {
+      if (tap instanceof Hfs) {
+        // Sinks are directories of part files
+        val path = new Path(tap.getIdentifier());
+
+        return path.getFileSystem((Configuration) flow.getConfig()).getContentSummary(path).getLength();
+      }
+      if (tap instanceof FileType) {
+        return ((FileType) tap).getSize(flow.getConfig());
+      }
+    } catch (Exception e) {
+      log.debug("Could not get size of tap '{}': {}", tap, e);
+    }
+
+    return -1;
+  }
+
+  private static long getSpilledRecords(CascadingStats stats) {
+    long spilledRecords = 0;
+    for (val group : SPILL_COUNTER_GROUPS) {
+      if (getCounters(stats, group).contains(SPILLED_RECORDS_COUNTER)) {
+        spilledRecords += stats.getCounterValue(group, SPILLED_RECORDS_COUNTER);
+      }
+    }
+
+    return spilledRecords;
+  }
+
+  private static Collection<String> getCounters(CascadingStats stats, String group) {
+    val counters = stats.getCountersFor(group);
+
+    return counters == null ? ImmutableList.<String> of() : counters;
+  }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.cascading;
+
+import static cascading.tuple.Fields.ARGS;
+import static org.icgc.dcc.common.cascading.FlowInstrumentation.PIPE_COUNTER_GROUP;
+import lombok.NonNull;
+import lombok.val;
+
+import org.icgc.dcc.common.cascading.operation.BaseFunction;
+
+import cascading.flow.FlowProcess;
+import cascading.operation.FunctionCall;
+import cascading.operation.OperationCall;
+import cascading.pipe.Each;
+import cascading.pipe.Pipe;
+import cascading.pipe.SubAssembly;
+
+/**
+ * Pass-through pipe that counts the tuples flowing through it under {@link FlowInstrumentation#PIPE_COUNTER_GROUP}.
+ * <p>
+ * Counts are accumulated locally and flushed to the {@link FlowProcess} in batches, so metering works the same in local
+ * and Hadoop modes at negligible per-tuple cost. Rates are derived by {@link FlowInstrumentation} at flow completion.
+ */
+public class FlowMeter extends SubAssembly {
+
+  public FlowMeter(@NonNull Pipe pipe) {
+    this(pipe.getName(), pipe);
+  }
+
+  public FlowMeter(@NonNull String name, @NonNull Pipe pipe) {
+    setTails(new Each(pipe, new MeterFunction(name)));
+  }
+
+  private static final class MeterFunction extends BaseFunction<long[]> {
+
+    /**
+     * Number of tuples accumulated before incrementing the counter.
+     */
+    private static final int FLUSH_INTERVAL = 10_000;
+
+    private final String name;
+
+    public MeterFunction(String name) {
+      super(ARGS);
+      this.name = name;
+    }
+
+    @Override
+    public void prepare(
+        @SuppressWarnings("rawtypes") FlowProcess flowProcess,
+        OperationCall<long[]> operationCall) {
+      operationCall.setContext(new long[1]);
+    }
+
+    @Override
+    public void operate(
+        @SuppressWarnings("rawtypes") FlowProcess flowProcess,
+        FunctionCall<long[]> functionCall) {
+      val count = functionCall.getContext();
+      if (++count[0] == FLUSH_INTERVAL) {
+        flush(flowProcess, count);
+      }
+
+      functionCall
+          .getOutputCollector()
+          .add(functionCall.getArguments());
+    }
+
+    @Override
+    public void cleanup(
+        @SuppressWarnings("rawtypes") FlowProcess flowProcess,
+        OperationCall<long[]> operationCall) {
+      flush(flowProcess, operationCall.getContext());
+      operationCall.setContext(null);
+    }
+
+    private void flush(FlowProcess<?> flowProcess, long[] count) {
+      if (count[0] > 0) {
+        flowProcess.increment(PIPE_COUNTER_GROUP, name, count[0]);
+        count[0] = 0;
+      }
+    }
+
+  }
+
+}
@@ -20,6 +20,7 @@ package org.icgc.dcc.common.cascading;
 import static com.google.common.base.Charsets.UTF_8;
 import static com.google.common.io.Resources.readLines;
 import static lombok.AccessLevel.PRIVATE;
+import static org.icgc.dcc.common.core.json.Jackson.formatPrettyJson;
 
 import java.io.IOException;
 import java.net.URL;
@@ -27,6 +28,7 @@ import java.util.Collection;
 import java.util.List;
 
 import lombok.NoArgsConstructor;
+import lombok.NonNull;
 import lombok.SneakyThrows;
 import lombok.val;
 import lombok.extern.slf4j.Slf4j;
@@ -45,7 +47,7 @@ import cascading.stats.hadoop.HadoopStepStats;
 import com.google.common.io.LineProcessor;
 
 /**
- * Utility class for reporting on flow failures
+ * Utility class for reporting on flow failures and performance summaries
  */
 @Slf4j
 @NoArgsConstructor(access = PRIVATE)
@@ -63,6 +65,18 @@ public final class FlowReporter {
     }
   }
 
+  /**
+   * Logs the summary as JSON, along with the slowest step.
+   */
+  public static void reportFlowSummary(@NonNull FlowSummary summary) {
+    log.info("Flow '{}' summary: {}", summary.getName(), formatPrettyJson(summary));
+    if (!summary.getSteps().isEmpty()) {
+      val slowest = summary.getSteps().get(0);
+      log.info("Slowest step of flow '{}': '{}' ({} ms)",
+          summary.getName(), slowest.getName(), slowest.getDurationMillis());
+    }
+  }
+
   private static void reportFlowStepFailure(FlowStepStats flowStepStats) {
     log.info("*  Flow step stats {}: {}", flowStepStats.getClass().getName(), flowStepStats);
 
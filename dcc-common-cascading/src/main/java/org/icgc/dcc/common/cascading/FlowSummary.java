@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.cascading;
+
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Structured performance summary of a completed {@code Flow}, as produced by {@link FlowInstrumentation}.
+ */
+@Value
+@Builder
+public class FlowSummary {
+
+  String name;
+  String status;
+  long durationMillis;
+
+  /**
+   * Ordered by descending duration, so the first one is the slowest.
+   */
+  List<StepSummary> steps;
+  List<PipeSummary> pipes;
+  List<TapSummary> sources;
+  List<TapSummary> sinks;
+
+  @Value
+  @Builder
+  public static class StepSummary {
+
+    String name;
+    String status;
+    long durationMillis;
+    long tuplesRead;
+    long tuplesWritten;
+    long spilledRecords;
+
+  }
+
+  @Value
+  @Builder
+  public static class PipeSummary {
+
+    String name;
+    String step;
+    long tuples;
+    double tuplesPerSecond;
+
+  }
+
+  @Value
+  @Builder
+  public static class TapSummary {
+
+    String name;
+    String identifier;
+
+    /**
+     * Size in bytes of the tap's resource once the flow completed, {@code -1} if unknown (e.g. non-file taps).
+     * <p>
+     * This is not a count of the bytes the flow actually read or wrote (e.g. for partially read sources or appending
+     * sinks).
+     */
+    long size;
+
+  }
+
+}
@@ -43,8 +43,8 @@ import static org.icgc.dcc.common.core.util.Optionals.ABSENT_STRING;
 import static org.icgc.dcc.common.core.util.Strings2.EMPTY_STRING;
 
 import java.io.Serializable;
+import java.util.BitSet;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
 
@@ -689,7 +689,7 @@ public class SubAssemblies {
 
   }
 
-  public static class TransposeBuffer<T> extends BaseBuffer<Void> {
+  public static class TransposeBuffer<T> extends BaseBuffer<TransposeBuffer.Context> {
 
     private final Fields futureFieldsField;
     private final Fields futureValuesField;
@@ -697,62 +697,83 @@ public class SubAssemblies {
 
     public TransposeBuffer(Fields transpositionFields, Fields futureFields, Fields futureValues, T defaultValue) {
       super(transpositionFields);
-      this.futureFieldsField = futureFields;
-      this.futureValuesField = futureValues;
+      this.futureFieldsField = checkFieldsCardinalityOne(futureFields);
+      this.futureValuesField = checkFieldsCardinalityOne(futureValues);
       this.defaultValue = defaultValue;
     }
 
+    /**
+     * Resolves the output position of every transposed field and the argument positions once per flow, so that groups
+     * are transposed straight into a reused tuple without intermediate maps.
+     */
     @Override
-    public void operate(
+    public void prepare(
         @SuppressWarnings("rawtypes") FlowProcess flowProcess,
-        BufferCall<Void> bufferCall) {
+        OperationCall<Context> operationCall) {
+      val positions = new HashMap<String, Integer>();
+      val fieldNames = getFieldNames(fieldDeclaration);
+      for (int i = 0; i < fieldNames.size(); i++) {
+        positions.put(fieldNames.get(i), i);
+      }
 
-      val entries = bufferCall.getArgumentsIterator();
-      bufferCall
-          .getOutputCollector()
-          .add(transpose(entries));
+      val argumentFields = operationCall.getArgumentFields();
+      operationCall.setContext(new Context(
+          positions,
+          argumentFields.getPos(futureFieldsField.get(0)),
+          argumentFields.getPos(futureValuesField.get(0)),
+          Tuple.size(fieldNames.size())));
     }
 
-    private TupleEntry transpose(
-        @NonNull final Iterator<TupleEntry> entries) {
+    @Override
+    public void operate(
+        @SuppressWarnings("rawtypes") FlowProcess flowProcess,
+        BufferCall<Context> bufferCall) {
+      val context = bufferCall.getContext();
+      val tuple = context.getTuple();
+      val seen = context.getSeen();
+
+      // Reset the reused state
+      for (int i = 0; i < tuple.size(); i++) {
+        tuple.set(i, defaultValue);
+      }
+      seen.clear();
 
-      val counts = new HashMap<String, T>();
+      val entries = bufferCall.getArgumentsIterator();
       while (entries.hasNext()) {
-        val entry = entries.next();
-        counts.put(
-            checkKeysIntegrity(
-                counts,
-                entry.getString(futureFieldsField)),
-            getT(entry, futureValuesField));
-      }
+        val arguments = entries.next().getTuple();
+        val position = context.getPositions().get(arguments.getString(context.getFieldPosition()));
+        if (position == null) {
+          // Not part of the transposition
+          continue;
+        }
 
-      val transpositionTuple = new Tuple();
-      for (val code : getFieldNames(fieldDeclaration)) {
-        transpositionTuple.add(
-            counts.containsKey(code) ?
-                counts.get(code) :
-                defaultValue);
+        checkState(!seen.get(position), "Duplicate transposition key '%s'", fieldDeclaration.get(position));
+        seen.set(position);
+        tuple.set(position, arguments.getObject(context.getValuePosition()));
       }
 
-      return new TupleEntry(
-          fieldDeclaration,
-          transpositionTuple);
+      // Safe to reuse the tuple once added
+      bufferCall
+          .getOutputCollector()
+          .add(tuple);
     }
 
-    @SuppressWarnings("unchecked")
-    private T getT(
-        @NonNull final TupleEntry entry,
-        @NonNull final Fields field) {
-
-      return (T) entry.getObject(checkFieldsCardinalityOne(field));
+    @Override
+    public void cleanup(
+        @SuppressWarnings("rawtypes") FlowProcess flowProcess,
+        OperationCall<Context> operationCall) {
+      operationCall.setContext(null);
     }
 
-    private static <T> String checkKeysIntegrity(
-        @NonNull final Map<String, T> counts,
-        @NonNull final String key) {
-      checkState(!counts.containsKey(key));
+    @Value
+    static class Context {
+
+      Map<String, Integer> positions;
+      int fieldPosition;
+      int valuePosition;
+      Tuple tuple;
+      BitSet seen = new BitSet();
 
-      return key;
     }
 
   }
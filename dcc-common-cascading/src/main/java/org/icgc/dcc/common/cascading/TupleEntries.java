@@ -17,22 +17,27 @@
  */
 package org.icgc.dcc.common.cascading;
 
+import static com.fasterxml.jackson.databind.SerializationFeature.FAIL_ON_EMPTY_BEANS;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static lombok.AccessLevel.PRIVATE;
 import static org.icgc.dcc.common.cascading.Fields2.getField;
 
+import java.io.StringWriter;
 import java.util.List;
 
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
+import lombok.SneakyThrows;
 import lombok.val;
 import cascading.tuple.Fields;
 import cascading.tuple.Tuple;
 import cascading.tuple.TupleEntry;
 import cascading.tuple.Tuples;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Function;
 
 /**
@@ -41,6 +46,11 @@ import com.google.common.base.Function;
 @NoArgsConstructor(access = PRIVATE)
 public final class TupleEntries {
 
+  /**
+   * Constants.
+   */
+  private static final JsonFactory JSON_FACTORY = new ObjectMapper().disable(FAIL_ON_EMPTY_BEANS).getFactory();
+
   public static String getFirstString(TupleEntry entry) {
     return Tuples2.getFirstString(entry.getTuple());
   }
@@ -181,41 +191,19 @@ public final class TupleEntries {
    * Gives a string containing the json representation of the tupleEntry (with possibly multiple levels of
    * tuple/tupleEntry nesting).
    * <p>
-   * Very useful for debugging.
-   * <p>
-   * TODO: use ObjectNode directly rather than String.
+   * Very useful for debugging. Use {@link TupleJsonWriter} to stream to a target instead.
    */
+  @SneakyThrows
   public static String toJson(TupleEntry tupleEntry) {
-    Fields fields = tupleEntry.getFields();
-    Tuple tuple = tupleEntry.getTuple();
-
-    StringBuilder sb = new StringBuilder();
-    sb.append("{");
-    for (int i = 0; i < fields.size(); i++) {
-      Comparable<?> field = fields.get(i);
-      Object object = tuple.getObject(i);
-      String value;
-      if (object instanceof TupleEntry) { // build sub-document
-        value = toJson((TupleEntry) object);
-      } else if (object instanceof Tuple) { // build array
-        Tuple subTuple = (Tuple) object;
-        StringBuilder subSb = new StringBuilder();
-        subSb.append("[");
-        for (int j = 0; j < subTuple.size(); j++) {
-          Object subObject = subTuple.getObject(j);
-          checkState(subObject instanceof TupleEntry); // by design; TODO: handle more cases?
-          subSb.append((j == 0 ? "" : ", ") + toJson((TupleEntry) subObject));
-        }
-        subSb.append("]");
-        value = subSb.toString();
-      } else { // build primitive
-        value = "\"" + (object == null ? "null" : object.toString()) + "\"";
-      }
-      sb.append((i == 0 ? "" : ", ") + "\"" + field + "\"" + ":" + value);
+    val writer = new StringWriter();
+    val generator = JSON_FACTORY.createGenerator(writer);
+    try {
+      TupleJsonWriter.writeTupleEntry(generator, tupleEntry);
+    } finally {
+      generator.close();
     }
 
-    sb.append("}");
-    return sb.toString();
+    return writer.toString();
   }
 
 }
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.cascading;
+
+import static lombok.AccessLevel.PRIVATE;
+
+import java.io.IOException;
+
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+import cascading.tuple.TupleEntry;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Utility class to stream {@link TupleEntry} and {@link Tuple} trees as JSON through a Jackson {@link JsonGenerator}.
+ * <p>
+ * Entries are written as objects, tuples as arrays and any other value through {@link JsonGenerator#writeObject}, so
+ * values are properly escaped and typed and nothing is buffered beyond the generator itself. Non-primitive leaf values
+ * (e.g. {@code JsonNode}s or POJOs) require the generator to have an {@code ObjectMapper} codec.
+ */
+@NoArgsConstructor(access = PRIVATE)
+public final class TupleJsonWriter {
+
+  /**
+   * Writes an arbitrary value, descending into nested {@link TupleEntry}s and {@link Tuple}s.
+   */
+  public static void writeValue(@NonNull JsonGenerator generator, Object value) throws IOException {
+    if (value instanceof TupleEntry) {
+      writeTupleEntry(generator, (TupleEntry) value);
+    } else if (value instanceof Tuple) {
+      writeTuple(generator, (Tuple) value);
+    } else if (value == null) {
+      generator.writeNull();
+    } else {
+      generator.writeObject(value);
+    }
+  }
+
+  /**
+   * Writes a {@link TupleEntry} as a JSON object keyed by field name.
+   */
+  public static void writeTupleEntry(@NonNull JsonGenerator generator, @NonNull TupleEntry tupleEntry)
+      throws IOException {
+    Fields fields = tupleEntry.getFields();
+    Tuple tuple = tupleEntry.getTuple();
+
+    generator.writeStartObject();
+    for (int i = 0; i < fields.size(); i++) {
+      generator.writeFieldName(String.valueOf(fields.get(i)));
+      writeValue(generator, tuple.getObject(i));
+    }
+    generator.writeEndObject();
+  }
+
+  /**
+   * Writes a {@link Tuple} as a JSON array.
+   */
+  public static void writeTuple(@NonNull JsonGenerator generator, @NonNull Tuple tuple) throws IOException {
+    generator.writeStartArray();
+    for (int i = 0; i < tuple.size(); i++) {
+      writeValue(generator, tuple.getObject(i));
+    }
+    generator.writeEndArray();
+  }
+
+}
@@ -17,18 +17,23 @@
  */
 package org.icgc.dcc.common.cascading.taps;
 
+import static com.fasterxml.jackson.core.JsonEncoding.UTF8;
 import static lombok.AccessLevel.PRIVATE;
 import static org.icgc.dcc.common.cascading.TupleEntries.getFirstObject;
+import static org.icgc.dcc.common.cascading.TupleJsonWriter.writeValue;
 import static org.icgc.dcc.common.cascading.taps.GenericSchemes.TSV_DELIMITER;
 import static org.icgc.dcc.common.cascading.taps.GenericSchemes.noHeader;
 import static org.icgc.dcc.common.cascading.taps.GenericSchemes.withHeader;
 
 import java.io.IOException;
+import java.io.OutputStream;
 
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
 import lombok.val;
 
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.hadoop.io.Text;
 import org.apache.hadoop.mapred.JobConf;
 import org.apache.hadoop.mapred.OutputCollector;
 import org.apache.hadoop.mapred.RecordReader;
@@ -43,9 +48,9 @@ import cascading.scheme.hadoop.TextLine.Compress;
 import cascading.tuple.Fields;
 
 import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonGenerator.Feature;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 
 /**
@@ -89,9 +94,15 @@ class DistributedSchemes {
   static final TextLine getJsonScheme() {
     return new TextLine() {
 
-      private transient ObjectMapper mapper;
+      /**
+       * Sink context slots: the generator streams each record into the buffer, which is then handed to the collector as
+       * {@link Text} without an intermediate {@code String}.
+       */
+      private static final int GENERATOR = 0;
+      private static final int BUFFER = 1;
+      private static final int TEXT = 2;
 
-      private transient ObjectWriter writer;
+      private transient ObjectMapper mapper;
 
       @Override
       @SuppressWarnings("rawtypes")
@@ -99,6 +110,19 @@ class DistributedSchemes {
         throw new IllegalStateException("JsonScheme cannot be used as a source.");
       }
 
+      /**
+       * Keeps the per-call state on the {@link SinkCall} rather than the (shared) scheme instance.
+       */
+      @Override
+      @SuppressWarnings("rawtypes")
+      public void sinkPrepare(FlowProcess<JobConf> flowProcess, SinkCall<Object[], OutputCollector> sinkCall)
+          throws IOException {
+        val buffer = new DataOutputBuffer();
+        val generator = mapper().getFactory().createGenerator((OutputStream) buffer, UTF8);
+
+        sinkCall.setContext(new Object[] { generator, buffer, new Text() });
+      }
+
       /**
        * It's ok to use NULL here so the collector does not write anything
        */
@@ -106,32 +130,41 @@ class DistributedSchemes {
       @SuppressWarnings({ "unchecked", "rawtypes" })
       public void sink(FlowProcess<JobConf> flowProcess, SinkCall<Object[], OutputCollector> sinkCall)
           throws IOException {
-        sinkCall.getOutput().collect(
-            null,
-            writer()
-                .writeValueAsString(
-                    getFirstObject(sinkCall.getOutgoingEntry())));
+        val context = sinkCall.getContext();
+        val generator = (JsonGenerator) context[GENERATOR];
+        val buffer = (DataOutputBuffer) context[BUFFER];
+        val text = (Text) context[TEXT];
+
+        buffer.reset();
+        writeValue(
+            generator,
+            getFirstObject(sinkCall.getOutgoingEntry()));
+        generator.flush();
+
+        text.set(buffer.getData(), 0, buffer.getLength());
+        sinkCall.getOutput().collect(null, text);
+      }
+
+      @Override
+      @SuppressWarnings("rawtypes")
+      public void sinkCleanup(FlowProcess<JobConf> flowProcess, SinkCall<Object[], OutputCollector> sinkCall)
+          throws IOException {
+        sinkCall.setContext(null);
       }
 
       private final ObjectMapper mapper() {
         if (mapper == null) {
           mapper =
               new ObjectMapper(new JsonFactory()
-                  .disable(Feature.AUTO_CLOSE_TARGET))
+                  .disable(Feature.AUTO_CLOSE_TARGET)
+                  // One record per line, so no separator between root values
+                  .setRootValueSeparator(null))
                   .configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
         }
 
         return mapper;
       }
 
-      private final ObjectWriter writer() {
-        if (writer == null) {
-          writer = mapper().writer();
-        }
-
-        return writer;
-      }
-
     };
   }
 
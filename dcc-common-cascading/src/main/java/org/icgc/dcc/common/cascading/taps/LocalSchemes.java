@@ -23,6 +23,7 @@ import static lombok.AccessLevel.PRIVATE;
 import static org.icgc.dcc.common.cascading.Fields2.checkFieldsCardinalityOne;
 import static org.icgc.dcc.common.cascading.Fields2.fields;
 import static org.icgc.dcc.common.cascading.TupleEntries.getFirstObject;
+import static org.icgc.dcc.common.cascading.TupleJsonWriter.writeValue;
 import static org.icgc.dcc.common.cascading.taps.GenericSchemes.TSV_DELIMITER;
 import static org.icgc.dcc.common.cascading.taps.GenericSchemes.noHeader;
 import static org.icgc.dcc.common.cascading.taps.GenericSchemes.withHeader;
@@ -35,6 +36,7 @@ import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.util.Properties;
 
+import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
 import cascading.flow.FlowProcess;
@@ -47,8 +49,10 @@ import cascading.tap.Tap;
 import cascading.tuple.Fields;
 
 import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ObjectWriter;
 import com.google.common.base.Splitter;
 
 /**
@@ -113,9 +117,12 @@ class LocalSchemes {
   static final TextLine getJsonScheme() {
     return new TextLine() {
 
-      private final transient ObjectWriter writer = new ObjectMapper(
-          new JsonFactory().disable(AUTO_CLOSE_TARGET))
-          .disable(FAIL_ON_EMPTY_BEANS).writerWithDefaultPrettyPrinter();
+      private final transient ObjectMapper mapper = new ObjectMapper(
+          new JsonFactory()
+              .disable(AUTO_CLOSE_TARGET)
+              // Records are concatenated as-is, so no separator between root values
+              .setRootValueSeparator(null))
+          .disable(FAIL_ON_EMPTY_BEANS);
 
       @Override
       public void sourcePrepare(FlowProcess<Properties> flowProcess,
@@ -124,15 +131,62 @@ class LocalSchemes {
         throw new IllegalStateException("JsonScheme cannot be used as a source.");
       }
 
+      /**
+       * Keeps the per-call generator on the {@link SinkCall} rather than the (shared) scheme instance.
+       */
+      @Override
+      public void sinkPrepare(FlowProcess<Properties> flowProcess, SinkCall<PrintWriter, OutputStream> sinkCall)
+          throws IOException {
+        super.sinkPrepare(flowProcess, sinkCall);
+        sinkCall.setContext(new JsonPrintWriter(sinkCall.getContext(), mapper));
+      }
+
       @Override
       public void sink(FlowProcess<Properties> flowProcess, SinkCall<PrintWriter, OutputStream> sinkCall)
           throws IOException {
-        writer.writeValue(
-            sinkCall.getContext(),
+        writeValue(
+            ((JsonPrintWriter) sinkCall.getContext()).getGenerator(),
             getFirstObject(sinkCall.getOutgoingEntry()));
       }
 
+      @Override
+      public void sinkCleanup(FlowProcess<Properties> flowProcess, SinkCall<PrintWriter, OutputStream> sinkCall)
+          throws IOException {
+        sinkCall.getContext().flush();
+        super.sinkCleanup(flowProcess, sinkCall);
+      }
+
     };
   }
 
+  /**
+   * Sink context carrying the generator that streams into the wrapped writer. Flushing the context flushes the generator
+   * first.
+   */
+  private static class JsonPrintWriter extends PrintWriter {
+
+    @Getter
+    private final JsonGenerator generator;
+
+    private JsonPrintWriter(PrintWriter writer, ObjectMapper mapper) throws IOException {
+      super(writer);
+      this.generator = mapper.getFactory()
+          .createGenerator(writer)
+          // Same layout as ObjectWriter#writerWithDefaultPrettyPrinter, minus the root value separator
+          .setPrettyPrinter(new DefaultPrettyPrinter().withRootSeparator((SerializableString) null));
+    }
+
+    @Override
+    public void flush() {
+      try {
+        generator.flush();
+      } catch (IOException e) {
+        setError();
+      }
+
+      super.flush();
+    }
+
+  }
+
 }
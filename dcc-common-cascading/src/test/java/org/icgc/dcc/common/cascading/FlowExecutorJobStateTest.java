@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.cascading;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.icgc.dcc.common.cascading.FlowExecutor.CASCADING_SERIALIZER_PROPERTY;
+import static org.icgc.dcc.common.cascading.FlowExecutorJobState.STATE_DIR_PROPERTY;
+import static org.icgc.dcc.common.cascading.FlowExecutorJobState.STATE_MAX_INLINE_SIZE_PROPERTY;
+import static org.icgc.dcc.common.cascading.FlowExecutorJobState.STATE_PATH_PROPERTY;
+import static org.icgc.dcc.common.cascading.FlowExecutorJobState.STATE_PROPERTY;
+import static org.icgc.dcc.common.cascading.FlowExecutorJobState.readState;
+import static org.icgc.dcc.common.cascading.FlowExecutorJobState.writeState;
+import static org.icgc.dcc.common.hadoop.util.HadoopConstants.MR_JOBTRACKER_ADDRESS_KEY;
+
+import java.io.File;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.val;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapred.JobConf;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import cascading.flow.hadoop.util.JavaObjectSerializer;
+
+public class FlowExecutorJobStateTest {
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  @Test
+  public void testInline() throws Exception {
+    val jobConf = createJobConf();
+    writeState(new TestJob("value"), jobConf);
+
+    assertThat(jobConf.get(STATE_PROPERTY)).isNotNull();
+    assertThat(jobConf.get(CASCADING_SERIALIZER_PROPERTY)).isEqualTo(JavaObjectSerializer.class.getName());
+    assertThat(readJob(jobConf).getValue()).isEqualTo("value");
+  }
+
+  @Test
+  public void testStaged() throws Exception {
+    val stateDir = tmp.newFolder();
+    val jobConf = createStagedJobConf();
+    jobConf.set(STATE_DIR_PROPERTY, stateDir.getAbsolutePath());
+    writeState(new TestJob("value"), jobConf);
+
+    assertThat(jobConf.get(STATE_PROPERTY)).isNull();
+    assertThat(stagedFile(jobConf).getParentFile()).isEqualTo(stateDir);
+    assertThat(readJob(jobConf).getValue()).isEqualTo("value");
+  }
+
+  @Test
+  public void testStagedDefaultDir() throws Exception {
+    val tmpDir = tmp.newFolder();
+    val jobConf = createStagedJobConf();
+    jobConf.set("hadoop.tmp.dir", tmpDir.getAbsolutePath());
+    writeState(new TestJob("value"), jobConf);
+
+    assertThat(stagedFile(jobConf).getParentFile()).isEqualTo(new File(tmpDir, "dcc-flow-executor"));
+    assertThat(readJob(jobConf).getValue()).isEqualTo("value");
+  }
+
+  @Test
+  public void testMutatedJob() throws Exception {
+    val stateDir = tmp.newFolder().getAbsolutePath();
+    val job = new TestJob("before");
+
+    val jobConf1 = createStagedJobConf();
+    jobConf1.set(STATE_DIR_PROPERTY, stateDir);
+    writeState(job, jobConf1);
+
+    // Resubmitting the same instance after a change must ship the new state
+    job.setValue("after");
+    val jobConf2 = createStagedJobConf();
+    jobConf2.set(STATE_DIR_PROPERTY, stateDir);
+    writeState(job, jobConf2);
+
+    assertThat(readJob(jobConf1).getValue()).isEqualTo("before");
+    assertThat(readJob(jobConf2).getValue()).isEqualTo("after");
+    assertThat(stagedFile(jobConf1)).isNotEqualTo(stagedFile(jobConf2));
+  }
+
+  private static JobConf createJobConf() {
+    val jobConf = new JobConf();
+    jobConf.set(MR_JOBTRACKER_ADDRESS_KEY, "local");
+
+    return jobConf;
+  }
+
+  private static JobConf createStagedJobConf() {
+    // Not local mode and nothing small enough to inline, so that state goes through the stage dir
+    val jobConf = new JobConf();
+    jobConf.set(MR_JOBTRACKER_ADDRESS_KEY, "localhost:8021");
+    jobConf.setInt(STATE_MAX_INLINE_SIZE_PROPERTY, 0);
+
+    return jobConf;
+  }
+
+  private static File stagedFile(JobConf jobConf) {
+    return new File(new Path(jobConf.get(STATE_PATH_PROPERTY)).toUri().getPath());
+  }
+
+  private static TestJob readJob(JobConf jobConf) throws Exception {
+    return (TestJob) readState(jobConf, TestJob.class);
+  }
+
+  @Data
+  @AllArgsConstructor
+  public static class TestJob implements FlowExecutorJob {
+
+    private String value;
+
+    @Override
+    public void execute(Configuration configuration) {
+    }
+
+  }
+
+}
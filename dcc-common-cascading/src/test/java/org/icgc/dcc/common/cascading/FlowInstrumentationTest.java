@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.cascading;
+
+import static cascading.flow.FlowDef.flowDef;
+import static com.google.common.base.Charsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.icgc.dcc.common.cascading.FlowInstrumentation.instrument;
+import static org.icgc.dcc.common.cascading.FlowInstrumentation.summarize;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Properties;
+
+import lombok.val;
+
+import org.apache.hadoop.conf.Configuration;
+import org.icgc.dcc.common.cascading.FlowInstrumentation.FlowSummaryPublisher;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import cascading.flow.Flow;
+import cascading.flow.local.LocalFlowConnector;
+import cascading.pipe.Pipe;
+import cascading.scheme.local.TextLine;
+import cascading.tap.SinkMode;
+import cascading.tap.local.FileTap;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+
+public class FlowInstrumentationTest {
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  private final List<FlowSummary> summaries = Lists.newArrayList();
+  private final FlowSummaryPublisher publisher = new FlowSummaryPublisher() {
+
+    @Override
+    public void publish(FlowSummary summary) {
+      summaries.add(summary);
+    }
+
+  };
+
+  @Test
+  public void testInstrument() throws IOException {
+    val input = tmp.newFile("input.txt");
+    Files.write(input.toPath(), "a\nb\nc\n".getBytes(UTF_8));
+    val output = new File(tmp.getRoot(), "output.txt");
+
+    val flow = instrument(createFlow(input, output), publisher);
+    flow.complete();
+
+    assertThat(summaries).hasSize(1);
+    val summary = summaries.get(0);
+    assertThat(summary.getName()).isEqualTo("metered");
+    assertThat(summary.getStatus()).isEqualTo("SUCCESSFUL");
+    assertThat(summary.getSteps()).isNotEmpty();
+
+    assertThat(summary.getPipes()).hasSize(1);
+    val pipe = summary.getPipes().get(0);
+    assertThat(pipe.getName()).isEqualTo("lines");
+    assertThat(pipe.getTuples()).isEqualTo(3);
+
+    assertThat(summary.getSources()).hasSize(1);
+    assertThat(summary.getSources().get(0).getSize()).isEqualTo(input.length());
+    assertThat(summary.getSinks()).hasSize(1);
+    assertThat(summary.getSinks().get(0).getSize()).isEqualTo(output.length());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testSummarizeUnfinished() throws IOException {
+    val input = tmp.newFile("input.txt");
+
+    summarize(createFlow(input, new File(tmp.getRoot(), "output.txt")));
+  }
+
+  @Test
+  public void testExecutor() {
+    val executor = new FlowExecutor(ImmutableMap.<Object, Object> of());
+    executor.setPublisher(publisher);
+    try {
+      executor.execute(new FlowExecutorJob() {
+
+        @Override
+        public void execute(Configuration configuration) {
+          // No-op
+        }
+
+      });
+    } finally {
+      executor.shutdown();
+    }
+
+    assertThat(summaries).hasSize(1);
+    assertThat(summaries.get(0).getStatus()).isEqualTo("SUCCESSFUL");
+  }
+
+  private static Flow<?> createFlow(File input, File output) {
+    val pipe = new FlowMeter(new Pipe("lines"));
+
+    return new LocalFlowConnector(new Properties())
+        .connect(flowDef()
+            .setName("metered")
+            .addSource("lines", new FileTap(new TextLine(), input.getAbsolutePath()))
+            .addTailSink(pipe, new FileTap(new TextLine(), output.getAbsolutePath(), SinkMode.REPLACE)));
+  }
+
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.cascading;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.icgc.dcc.common.cascading.TupleEntries.toJson;
+
+import lombok.val;
+
+import org.junit.Test;
+
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+import cascading.tuple.TupleEntry;
+
+public class TupleEntriesTest {
+
+  @Test
+  public void testToJson() {
+    val child = new TupleEntry(
+        new Fields("flag", "missing"),
+        new Tuple(false, null));
+    val entry = new TupleEntry(
+        new Fields("id", "count", "score", "name", "child", "list"),
+        new Tuple("d1", 3L, 0.25, "line\nbreak", child, new Tuple(1, null)));
+
+    assertThat(toJson(entry)).isEqualTo(
+        "{\"id\":\"d1\",\"count\":3,\"score\":0.25,\"name\":\"line\\nbreak\","
+            + "\"child\":{\"flag\":false,\"missing\":null},\"list\":[1,null]}");
+  }
+
+  @Test
+  public void testToJsonNulls() {
+    val entry = new TupleEntry(
+        new Fields("a"),
+        new Tuple((Object) null));
+
+    assertThat(toJson(entry)).isEqualTo("{\"a\":null}");
+  }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.cascading;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import lombok.val;
+
+import org.junit.Test;
+
+import cascading.tuple.Fields;
+import cascading.tuple.Tuple;
+import cascading.tuple.TupleEntry;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class TupleJsonWriterTest {
+
+  @Test
+  public void testTypedValues() throws IOException {
+    val entry = new TupleEntry(
+        new Fields("int", "long", "double", "boolean", "string"),
+        new Tuple(1, 10000000000L, 1.5, true, "a \"quoted\"\tvalue"));
+
+    assertThat(write(entry)).isEqualTo(
+        "{\"int\":1,\"long\":10000000000,\"double\":1.5,\"boolean\":true,\"string\":\"a \\\"quoted\\\"\\tvalue\"}");
+  }
+
+  @Test
+  public void testNulls() throws IOException {
+    val entry = new TupleEntry(
+        new Fields("a", "b"),
+        new Tuple(null, null));
+
+    assertThat(write(entry)).isEqualTo("{\"a\":null,\"b\":null}");
+    assertThat(write(null)).isEqualTo("null");
+    assertThat(write(new Tuple("x", null))).isEqualTo("[\"x\",null]");
+  }
+
+  @Test
+  public void testNested() throws IOException {
+    val child = new TupleEntry(
+        new Fields("c"),
+        new Tuple(2));
+    val entry = new TupleEntry(
+        new Fields("a", "b"),
+        new Tuple(new Tuple(1, new Tuple()), new Tuple(child, child)));
+
+    assertThat(write(entry)).isEqualTo("{\"a\":[1,[]],\"b\":[{\"c\":2},{\"c\":2}]}");
+  }
+
+  private static String write(Object value) throws IOException {
+    val writer = new StringWriter();
+    try (JsonGenerator generator = new ObjectMapper().getFactory().createGenerator(writer)) {
+      TupleJsonWriter.writeValue(generator, value);
+    }
+
+    return writer.toString();
+  }
+
+}
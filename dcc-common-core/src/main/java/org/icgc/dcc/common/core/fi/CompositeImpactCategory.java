@@ -35,9 +35,11 @@ import lombok.RequiredArgsConstructor;
 import lombok.val;
 
 import org.icgc.dcc.common.core.model.ConsequenceType;
+import org.icgc.dcc.common.core.model.IdentifierResolver;
 import org.icgc.dcc.common.core.util.IdentifiableSerializer;
 
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.google.common.base.Optional;
 
 /**
  * Composite functional impacts.
@@ -65,16 +67,20 @@ public enum CompositeImpactCategory implements ImpactPredictorCategory {
       STOP_GAINED,
       STOP_LOST);
 
+  private static final IdentifierResolver<CompositeImpactCategory> ID_RESOLVER =
+      IdentifierResolver.byId(CompositeImpactCategory.class, values());
+
   private final String id;
 
   public static CompositeImpactCategory byId(@NonNull String id) {
-    for (val value : values()) {
-      if (value.getId().equals(id)) {
-        return value;
-      }
-    }
+    return ID_RESOLVER.resolve(id);
+  }
 
-    throw new IllegalArgumentException("Unknown id '" + id + "'  for " + CompositeImpactCategory.class);
+  /**
+   * Exception-free variant of {@link #byId(String)} for per-record parsing.
+   */
+  public static Optional<CompositeImpactCategory> tryById(String id) {
+    return ID_RESOLVER.tryResolve(id);
   }
 
   public static CompositeImpactCategory calculate(ConsequenceType consequenceType,
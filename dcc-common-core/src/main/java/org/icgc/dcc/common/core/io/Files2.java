@@ -19,11 +19,15 @@ package org.icgc.dcc.common.core.io;
 
 import static com.google.common.base.Preconditions.checkState;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.util.zip.GZIPInputStream;
 
 import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
@@ -47,6 +51,9 @@ public class Files2 {
 
   private static final String GZIP_MEDIA_TYPE = "application/x-" + GZIP;
   private static final String BZIP2_MEDIA_TYPE = "application/x-" + BZIP2;
+  private static final String UNCOMPRESSED_MEDIA_TYPE = "application/octet-stream";
+
+  private static final int GZIP_BUFFER_SIZE = 64 * 1024;
 
   public static File getHomeDir() {
     return new File(System.getProperty("user.home"));
@@ -74,7 +81,15 @@ public class Files2 {
 
             // TODO: use cleaner mechanism (tika?)
             isGzip(path) ? new GZIPInputStream(
-                fileInputStream) : isBzip2(path) ? new BZip2CompressorInputStream(fileInputStream) : fileInputStream));
+                fileInputStream) : isBzip2(path) ? new BZip2CompressorInputStream(fileInputStream, true) : fileInputStream));
+  }
+
+  /**
+   * Parallel variant of {@link #getCompressionAgnosticBufferedReader(String)}. Compression formats supported: gzip and
+   * bzip2.
+   */
+  public static BufferedReader getParallelCompressionAgnosticBufferedReader(@NonNull final String path) {
+    return new BufferedReader(new InputStreamReader(getParallelCompressionAgnosticInputStream(path)));
   }
 
   @SneakyThrows
@@ -90,12 +105,91 @@ public class Files2 {
 
     // Bzip2
     else if (isBzip2MediaType(mediaType)) {
-      in = new BZip2CompressorInputStream(in);
+      in = new BZip2CompressorInputStream(in, true);
     }
 
     return in;
   }
 
+  /**
+   * Parallel variant of {@link #getCompressionAgnosticInputStream(String, String)} that pipelines reading,
+   * decompressing and consuming across threads.
+   * <p>
+   * bzip2 is decoded block-parallel and block gzip (BGZF) member-parallel. Plain gzip cannot be split so it is only
+   * pipelined: the file is read ahead of the inflater, which runs ahead of the consumer.
+   */
+  @SneakyThrows
+  public static InputStream getParallelCompressionAgnosticInputStream(
+      @NonNull final String path,
+      @NonNull final String mediaType) {
+    InputStream in = new ReadAheadInputStream(new FileInputStream(path));
+
+    // Gzip
+    if (isGzipMediaType(mediaType)) {
+      val buffered = new BufferedInputStream(in, GZIP_BUFFER_SIZE);
+      if (ParallelGzipInputStream.isBlockGzip(buffered)) {
+        in = new ParallelGzipInputStream(buffered);
+      } else {
+        in = new ReadAheadInputStream(new GZIPInputStream(buffered, GZIP_BUFFER_SIZE));
+      }
+    }
+
+    // Bzip2
+    else if (isBzip2MediaType(mediaType)) {
+      in = new ParallelBZip2InputStream(in);
+    }
+
+    return in;
+  }
+
+  /**
+   * Variant of {@link #getParallelCompressionAgnosticInputStream(String, String)} that picks the format from the file
+   * extension.
+   */
+  public static InputStream getParallelCompressionAgnosticInputStream(@NonNull final String path) {
+    return getParallelCompressionAgnosticInputStream(path, getMediaType(path));
+  }
+
+  /**
+   * Writing counterpart of {@link #getParallelCompressionAgnosticInputStream(String, String)} that compresses on all
+   * cores.
+   * <p>
+   * gzip is written as block gzip (BGZF) and bzip2 as concatenated streams, like {@code pigz}/{@code bgzip} and
+   * {@code pbzip2} do. Both remain readable by the standard tools and are read back in parallel by
+   * {@link #getParallelCompressionAgnosticInputStream(String, String)}.
+   */
+  @SneakyThrows
+  public static OutputStream getParallelCompressionAgnosticOutputStream(
+      @NonNull final String path,
+      @NonNull final String mediaType) {
+    OutputStream out = new FileOutputStream(path);
+
+    // Gzip
+    if (isGzipMediaType(mediaType)) {
+      out = new ParallelGzipOutputStream(out);
+    }
+
+    // Bzip2
+    else if (isBzip2MediaType(mediaType)) {
+      out = new ParallelBZip2OutputStream(out);
+    }
+
+    // Uncompressed
+    else {
+      out = new BufferedOutputStream(out, GZIP_BUFFER_SIZE);
+    }
+
+    return out;
+  }
+
+  /**
+   * Variant of {@link #getParallelCompressionAgnosticOutputStream(String, String)} that picks the format from the file
+   * extension.
+   */
+  public static OutputStream getParallelCompressionAgnosticOutputStream(@NonNull final String path) {
+    return getParallelCompressionAgnosticOutputStream(path, getMediaType(path));
+  }
+
   public static void checkExistsAndReadable(@NonNull String fileName) {
     val file = new File(fileName);
     checkState(file.exists(), "File %s does not exist", file.getAbsolutePath());
@@ -110,6 +204,10 @@ public class Files2 {
     return path.endsWith(BZIP2_EXTENSION);
   }
 
+  private static String getMediaType(@NonNull final String path) {
+    return isGzip(path) ? GZIP_MEDIA_TYPE : isBzip2(path) ? BZIP2_MEDIA_TYPE : UNCOMPRESSED_MEDIA_TYPE;
+  }
+
   private static boolean isGzipMediaType(@NonNull final String mediaType) {
     return GZIP_MEDIA_TYPE.equals(mediaType);
   }
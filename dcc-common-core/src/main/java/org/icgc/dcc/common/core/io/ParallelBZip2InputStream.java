@@ -0,0 +1,367 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.core.io;
+
+import static java.util.Arrays.asList;
+import static org.icgc.dcc.common.core.io.ParallelStreams.DEFAULT_EXECUTOR;
+import static org.icgc.dcc.common.core.io.ParallelStreams.DEFAULT_PARALLELISM;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+
+import com.google.common.io.ByteStreams;
+
+/**
+ * Block-parallel bzip2 decompressing {@link InputStream}.
+ * <p>
+ * bzip2 blocks are independent and start with a 48-bit magic at an arbitrary bit offset. The scanner finds block and
+ * end-of-stream magics, cuts the compressed bits of each block out of the input and every worker re-frames its block as
+ * a standalone single-block stream that is decoded with {@link BZip2CompressorInputStream}. Concatenated streams (e.g.
+ * {@code pbzip2} output) are supported.
+ * <p>
+ * Since either magic may occur by chance inside compressed data, neither is trusted on its own: an end-of-stream magic
+ * only marks a candidate end of the current block, whose bits keep accumulating up to the next block magic, and the
+ * block is decoded up to each candidate in turn until its CRC checks out. A block that still fails to decode is retried
+ * merged with the following one before giving up, in case a block magic split it.
+ */
+public class ParallelBZip2InputStream extends ParallelDecodingInputStream<ParallelBZip2InputStream.Block> {
+
+  /**
+   * Constants.
+   */
+  private static final long BLOCK_MAGIC = 0x314159265359L;
+  private static final long END_OF_STREAM_MAGIC = 0x177245385090L;
+  private static final long MAGIC_MASK = 0xFFFFFFFFFFFFL;
+  private static final int MAGIC_BITS = 48;
+  private static final int CRC_BITS = 32;
+
+  /**
+   * Header of the re-framed streams. The largest block size is used since the original one is not known per block.
+   */
+  private static final byte[] STREAM_HEADER = { 'B', 'Z', 'h', '9' };
+
+  private static final int READ_BUFFER_SIZE = 64 * 1024;
+  private static final int INITIAL_SEGMENT_SIZE = 256 * 1024;
+
+  public ParallelBZip2InputStream(InputStream in) {
+    this(in, DEFAULT_EXECUTOR, DEFAULT_PARALLELISM);
+  }
+
+  public ParallelBZip2InputStream(@NonNull InputStream in, @NonNull ExecutorService executor, int parallelism) {
+    super("bzip2", in, executor, parallelism);
+  }
+
+  @Override
+  protected void scan() throws IOException, InterruptedException {
+    val buffer = new byte[READ_BUFFER_SIZE];
+
+    long window = 0;
+    long position = 0; // Bits read so far
+    long lastMagicEnd = 0;
+    Segment segment = null;
+    boolean empty = false; // End of an empty stream seen before any block
+
+    int n;
+    boolean first = true;
+    while ((n = ByteStreams.read(in, buffer, 0, buffer.length)) > 0) {
+      if (first) {
+        checkHeader(buffer, n);
+        first = false;
+      }
+
+      for (int i = 0; i < n; i++) {
+        window = (window << 8) | (buffer[i] & 0xFF);
+        position += 8;
+        if (segment != null) {
+          segment.append(buffer[i]);
+        }
+
+        // A magic may end at any of the last 8 bit positions
+        for (int shift = 7; shift >= 0; shift--) {
+          long end = position - shift;
+          long start = end - MAGIC_BITS;
+          if (start < lastMagicEnd) {
+            continue;
+          }
+
+          long candidate = (window >>> shift) & MAGIC_MASK;
+          if (candidate == BLOCK_MAGIC) {
+            if (segment != null) {
+              segment.addEnd(start);
+              segment.end(start);
+              submitDecode(segment);
+            }
+
+            segment = new Segment(start, window, position);
+            lastMagicEnd = end;
+            break;
+          }
+          if (candidate == END_OF_STREAM_MAGIC) {
+            if (segment != null) {
+              // Possibly a chance match, so keep the bits that follow
+              segment.addEnd(start);
+            } else {
+              empty = true;
+            }
+            break;
+          }
+        }
+      }
+    }
+
+    if (first) {
+      throw new IOException("Empty bzip2 input");
+    }
+    if (segment == null ? !empty : segment.ends.isEmpty()) {
+      throw new IOException("Truncated bzip2 input: missing end of stream");
+    }
+
+    if (segment != null) {
+      segment.end(position);
+      submitDecode(segment);
+    }
+  }
+
+  @Override
+  protected byte[] resolve(Block block) throws IOException {
+    if (block.error == null) {
+      return block.data;
+    }
+
+    // The block may have been split by a chance magic inside compressed data
+    val next = next();
+    if (next == null) {
+      throw block.error;
+    }
+
+    try {
+      return decode(asList(block.segment, next.segment));
+    } catch (IOException e) {
+      throw block.error;
+    }
+  }
+
+  private void submitDecode(final Segment segment) throws InterruptedException {
+    submit(() -> {
+      try {
+        return new Block(segment, decode(asList(segment)), null);
+      } catch (IOException e) {
+        return new Block(segment, null, e);
+      }
+    });
+  }
+
+  /**
+   * Decodes the concatenated bits of {@code segments}, ending the last one at each of its candidate ends in turn.
+   */
+  private static byte[] decode(List<Segment> segments) throws IOException {
+    val last = segments.get(segments.size() - 1);
+
+    IOException error = null;
+    for (val end : last.ends) {
+      try {
+        return decode(segments, end);
+      } catch (IOException e) {
+        error = e;
+      }
+    }
+
+    throw error;
+  }
+
+  private static byte[] decode(List<Segment> segments, long lastBitLength) throws IOException {
+    val last = segments.get(segments.size() - 1);
+
+    long bits = 0;
+    for (val segment : segments) {
+      bits += segment == last ? lastBitLength : segment.bitLength;
+    }
+
+    val writer = new BitWriter((int) ((bits + 8 * STREAM_HEADER.length + MAGIC_BITS + CRC_BITS) / 8 + 1));
+    for (val b : STREAM_HEADER) {
+      writer.writeBits(b, 8);
+    }
+    for (val segment : segments) {
+      writer.write(segment.bytes, segment.bitOffset, segment == last ? lastBitLength : segment.bitLength);
+    }
+
+    // Combined CRC of a single block stream is the block CRC
+    writer.writeBits(END_OF_STREAM_MAGIC, MAGIC_BITS);
+    writer.writeBits(segments.get(0).getBlockCrc(), CRC_BITS);
+
+    try {
+      return ByteStreams.toByteArray(new BZip2CompressorInputStream(new ByteArrayInputStream(writer.toByteArray())));
+    } catch (IOException e) {
+      throw e;
+    } catch (RuntimeException e) {
+      // Decoder is not defensive against arbitrary bits
+      throw new IOException("Corrupt bzip2 block", e);
+    }
+  }
+
+  private static void checkHeader(byte[] buffer, int n) throws IOException {
+    if (n < 3 || buffer[0] != 'B' || buffer[1] != 'Z' || buffer[2] != 'h') {
+      throw new IOException("Input is not in bzip2 format");
+    }
+  }
+
+  private static int readBit(byte[] bytes, long bitIndex) {
+    return (bytes[(int) (bitIndex >>> 3)] >>> (7 - (int) (bitIndex & 7))) & 1;
+  }
+
+  @RequiredArgsConstructor
+  static class Block {
+
+    final Segment segment;
+    final byte[] data;
+    final IOException error;
+
+  }
+
+  /**
+   * The compressed bits of one block, starting at its block magic.
+   */
+  private static class Segment {
+
+    byte[] bytes;
+    int size;
+    final long start;
+    final int bitOffset;
+    long bitLength;
+
+    /**
+     * Bit lengths at which the block may end, in stream order.
+     */
+    final List<Long> ends = new ArrayList<Long>(1);
+
+    /**
+     * Seeds the segment with the bytes of {@code window} that contain bits at or after {@code start}.
+     */
+    Segment(long start, long window, long position) {
+      this.start = start;
+      this.bitOffset = (int) (start & 7);
+      this.bytes = new byte[INITIAL_SEGMENT_SIZE];
+
+      int count = (int) ((position >>> 3) - (start >>> 3));
+      for (int i = count - 1; i >= 0; i--) {
+        append((byte) (window >>> (8 * i)));
+      }
+    }
+
+    void append(byte b) {
+      if (size == bytes.length) {
+        bytes = Arrays.copyOf(bytes, 2 * bytes.length);
+      }
+
+      bytes[size++] = b;
+    }
+
+    void addEnd(long end) {
+      ends.add(end - start);
+    }
+
+    void end(long end) {
+      this.bitLength = end - start;
+    }
+
+    long getBlockCrc() {
+      long crc = 0;
+      for (int i = 0; i < CRC_BITS; i++) {
+        crc = (crc << 1) | readBit(bytes, bitOffset + MAGIC_BITS + i);
+      }
+
+      return crc;
+    }
+
+  }
+
+  /**
+   * Minimal big-endian bit writer.
+   */
+  private static class BitWriter {
+
+    byte[] bytes;
+    long position;
+
+    BitWriter(int size) {
+      this.bytes = new byte[size];
+    }
+
+    void writeBits(long value, int count) {
+      for (int i = count - 1; i >= 0; i--) {
+        writeBit((int) (value >>> i) & 1);
+      }
+    }
+
+    void writeBit(int bit) {
+      int index = (int) (position >>> 3);
+      if (index == bytes.length) {
+        bytes = Arrays.copyOf(bytes, 2 * bytes.length);
+      }
+      if (bit != 0) {
+        bytes[index] |= 0x80 >>> (position & 7);
+      }
+
+      position++;
+    }
+
+    void write(byte[] source, int sourceOffset, long bitLength) {
+      long i = 0;
+      if ((position & 7) == 0) {
+        // Fast path: whole bytes shifted into alignment
+        int index = (int) (position >>> 3);
+        int count = (int) (bitLength >>> 3);
+        if (index + count >= bytes.length) {
+          bytes = Arrays.copyOf(bytes, index + count + 1);
+        }
+
+        if (sourceOffset == 0) {
+          System.arraycopy(source, 0, bytes, index, count);
+        } else {
+          for (int j = 0; j < count; j++) {
+            bytes[index + j] = (byte) ((source[j] << sourceOffset) | ((source[j + 1] & 0xFF) >>> (8 - sourceOffset)));
+          }
+        }
+
+        position += 8L * count;
+        i = 8L * count;
+      }
+
+      for (; i < bitLength; i++) {
+        writeBit(readBit(source, sourceOffset + i));
+      }
+    }
+
+    byte[] toByteArray() {
+      return Arrays.copyOf(bytes, (int) ((position + 7) >>> 3));
+    }
+
+  }
+
+}
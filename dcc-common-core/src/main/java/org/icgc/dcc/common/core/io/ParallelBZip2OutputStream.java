@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.core.io;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.icgc.dcc.common.core.io.ParallelStreams.DEFAULT_EXECUTOR;
+import static org.icgc.dcc.common.core.io.ParallelStreams.DEFAULT_PARALLELISM;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+
+import lombok.NonNull;
+import lombok.val;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+
+/**
+ * Block-parallel bzip2 compressing {@link OutputStream} in the style of {@code pbzip2}.
+ * <p>
+ * Input is cut into chunks that always fit a single bzip2 block, each compressed in parallel with
+ * {@link BZip2CompressorOutputStream} into a complete bzip2 stream. The streams are concatenated in order, which
+ * {@code bzip2}, {@link ParallelBZip2InputStream} and {@code BZip2CompressorInputStream} with
+ * {@code decompressConcatenated} can all read.
+ */
+public class ParallelBZip2OutputStream extends ParallelEncodingOutputStream {
+
+  /**
+   * Constants.
+   */
+  private static final int BLOCK_SIZE_UNIT = 100_000;
+  private static final int BLOCK_SIZE_RESERVE = 20;
+
+  /**
+   * Configuration.
+   */
+  private final int blockSize;
+
+  public ParallelBZip2OutputStream(OutputStream out) {
+    this(out, BZip2CompressorOutputStream.MAX_BLOCKSIZE);
+  }
+
+  /**
+   * @param blockSize the bzip2 block size in units of 100k, from 1 to 9
+   */
+  public ParallelBZip2OutputStream(OutputStream out, int blockSize) {
+    this(out, blockSize, DEFAULT_EXECUTOR, DEFAULT_PARALLELISM);
+  }
+
+  public ParallelBZip2OutputStream(@NonNull OutputStream out, int blockSize, @NonNull ExecutorService executor,
+      int parallelism) {
+    super("bzip2", out, executor, parallelism, getChunkSize(checkBlockSize(blockSize)));
+    this.blockSize = blockSize;
+  }
+
+  @Override
+  protected byte[] encode(byte[] block, int length) throws IOException {
+    // bzip2 rarely compresses below a quarter of the input
+    val bytes = new ByteArrayOutputStream(Math.max(length / 4, 64));
+    try (OutputStream bzip2 = new BZip2CompressorOutputStream(bytes, blockSize)) {
+      bzip2.write(block, 0, length);
+    }
+
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Largest input that {@link BZip2CompressorOutputStream} is guaranteed to fit in one block.
+   * <p>
+   * A block holds {@code blockSize * 100k - 20} bytes after the initial run-length encoding, which expands runs of 4 to
+   * 255 equal bytes to 5 bytes, so input grows by at most a quarter. Anything larger may spill a small trailing block.
+   */
+  static int getChunkSize(int blockSize) {
+    return (blockSize * BLOCK_SIZE_UNIT - BLOCK_SIZE_RESERVE) / 5 * 4;
+  }
+
+  private static int checkBlockSize(int blockSize) {
+    checkArgument(blockSize >= BZip2CompressorOutputStream.MIN_BLOCKSIZE
+        && blockSize <= BZip2CompressorOutputStream.MAX_BLOCKSIZE, "Invalid bzip2 block size: %s", blockSize);
+
+    return blockSize;
+  }
+
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.core.io;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import lombok.NonNull;
+import lombok.val;
+
+/**
+ * Base class for {@link InputStream}s that split their input into independently decodable units and decode them in
+ * parallel while preserving order.
+ * <p>
+ * A dedicated scanner thread reads the raw input, finds unit boundaries and submits decode tasks to an executor. The
+ * consumer drains the results in submission order. The number of units in flight is bounded, so memory use is
+ * proportional to the parallelism rather than the input size. Not thread safe on the consumer side.
+ * 
+ * @param <T> the result of decoding one unit
+ */
+public abstract class ParallelDecodingInputStream<T> extends InputStream {
+
+  /**
+   * Constants.
+   */
+  private static final byte[] EMPTY = new byte[0];
+  private static final Future<?> END = CompletableFuture.completedFuture(null);
+
+  /**
+   * Configuration.
+   */
+  @NonNull
+  protected final InputStream in;
+  @NonNull
+  private final ExecutorService executor;
+  @NonNull
+  private final String name;
+
+  /**
+   * State.
+   */
+  private final BlockingQueue<Future<?>> pending;
+  private Thread scanner;
+  private volatile boolean closed;
+
+  private byte[] current = EMPTY;
+  private int position;
+  private boolean eof;
+  private IOException error;
+
+  protected ParallelDecodingInputStream(@NonNull String name, @NonNull InputStream in,
+      @NonNull ExecutorService executor, int parallelism) {
+    checkArgument(parallelism > 0, "Parallelism must be positive: %s", parallelism);
+    this.name = name;
+    this.in = in;
+    this.executor = executor;
+    this.pending = new ArrayBlockingQueue<Future<?>>(2 * parallelism);
+  }
+
+  /**
+   * Reads {@link #in} on the scanner thread, calling {@link #submit(Callable)} for every unit found.
+   */
+  protected abstract void scan() throws IOException, InterruptedException;
+
+  /**
+   * Converts the result of a unit into the bytes to return on the consumer thread.
+   */
+  protected abstract byte[] resolve(T result) throws IOException;
+
+  protected final void submit(@NonNull Callable<T> task) throws InterruptedException {
+    pending.put(executor.submit(task));
+  }
+
+  /**
+   * Waits for the next unit in order. Returns {@code null} at the end of the input.
+   */
+  @SuppressWarnings("unchecked")
+  protected final T next() throws IOException {
+    try {
+      Future<?> future = pending.take();
+      if (future == END) {
+        return null;
+      }
+
+      return (T) future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for decoder");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+
+      throw new IOException("Error decoding " + name + " input", cause);
+    }
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (!fill()) {
+      return -1;
+    }
+
+    return current[position++] & 0xFF;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    if (!fill()) {
+      return -1;
+    }
+
+    int n = Math.min(len, current.length - position);
+    System.arraycopy(current, position, b, off, n);
+    position += n;
+
+    return n;
+  }
+
+  @Override
+  public int available() throws IOException {
+    return current.length - position;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+
+    closed = true;
+    if (scanner != null) {
+      scanner.interrupt();
+    }
+
+    Future<?> future;
+    while ((future = pending.poll()) != null) {
+      future.cancel(true);
+    }
+
+    in.close();
+  }
+
+  private boolean fill() throws IOException {
+    if (error != null) {
+      // Sticky, so that every read after a failure fails the same way instead of skipping to the next unit
+      throw error;
+    }
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+
+    // Started lazily so that subclass state is fully initialized before scanning
+    if (scanner == null) {
+      scanner = new Thread(this::runScanner, name + "-scanner");
+      scanner.setDaemon(true);
+      scanner.start();
+    }
+
+    while (position == current.length) {
+      if (eof) {
+        return false;
+      }
+
+      try {
+        T result = next();
+        if (result == null) {
+          eof = true;
+
+          return false;
+        }
+
+        current = resolve(result);
+        position = 0;
+      } catch (IOException e) {
+        error = e;
+        current = EMPTY;
+        position = 0;
+
+        throw e;
+      }
+    }
+
+    return true;
+  }
+
+  private void runScanner() {
+    try {
+      try {
+        scan();
+        pending.put(END);
+      } catch (InterruptedException e) {
+        // Closed by the consumer
+      } catch (Throwable t) {
+        if (!closed) {
+          val failure = new CompletableFuture<T>();
+          failure.completeExceptionally(t);
+          pending.put(failure);
+        }
+      }
+    } catch (InterruptedException e) {
+      // Closed by the consumer
+    }
+  }
+
+}
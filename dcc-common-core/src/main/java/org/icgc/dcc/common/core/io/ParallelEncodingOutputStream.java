@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.core.io;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import lombok.NonNull;
+import lombok.val;
+
+/**
+ * Base class for {@link OutputStream}s that cut their input into fixed size blocks and encode the blocks in parallel
+ * into independently decodable units, written in order.
+ * <p>
+ * The writing thread fills a block and submits it to an executor. Encoded units are written to the underlying stream
+ * as they complete in submission order. The number of blocks in flight is bounded, so memory use is proportional to the
+ * parallelism rather than the input size. Not thread safe.
+ * <p>
+ * {@link #flush()} encodes the partial block and waits for all pending units, so everything written before it is
+ * decodable. Frequent flushing therefore produces small units and hurts both compression and parallelism.
+ */
+public abstract class ParallelEncodingOutputStream extends OutputStream {
+
+  /**
+   * Configuration.
+   */
+  @NonNull
+  protected final OutputStream out;
+  @NonNull
+  private final ExecutorService executor;
+  @NonNull
+  private final String name;
+  private final int blockSize;
+  private final int maxPending;
+
+  /**
+   * State.
+   */
+  private final Queue<Future<byte[]>> pending = new ArrayDeque<Future<byte[]>>();
+  private byte[] buffer;
+  private int count;
+  private long blocks;
+  private boolean closed;
+
+  protected ParallelEncodingOutputStream(@NonNull String name, @NonNull OutputStream out,
+      @NonNull ExecutorService executor, int parallelism, int blockSize) {
+    checkArgument(parallelism > 0, "Parallelism must be positive: %s", parallelism);
+    checkArgument(blockSize > 0, "Block size must be positive: %s", blockSize);
+    this.name = name;
+    this.out = out;
+    this.executor = executor;
+    this.blockSize = blockSize;
+    this.maxPending = 2 * parallelism;
+    this.buffer = new byte[blockSize];
+  }
+
+  /**
+   * Encodes the first {@code length} bytes of {@code block} into a standalone unit. Called concurrently on the executor.
+   */
+  protected abstract byte[] encode(byte[] block, int length) throws IOException;
+
+  /**
+   * Writes anything that must follow the last unit. Called once on close.
+   */
+  protected void finish() throws IOException {
+    // No-op by default
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    checkOpen();
+    buffer[count++] = (byte) b;
+    if (count == blockSize) {
+      submit();
+    }
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    checkPositionIndexes(off, off + len, b.length);
+    checkOpen();
+    while (len > 0) {
+      int n = Math.min(len, blockSize - count);
+      System.arraycopy(b, off, buffer, count, n);
+      count += n;
+      off += n;
+      len -= n;
+
+      if (count == blockSize) {
+        submit();
+      }
+    }
+  }
+
+  @Override
+  public void flush() throws IOException {
+    checkOpen();
+    if (count > 0) {
+      submit();
+    }
+
+    drain(0);
+    out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+
+    try {
+      // Always emit at least one unit so that empty input still yields a valid stream
+      if (count > 0 || blocks == 0) {
+        submit();
+      }
+
+      drain(0);
+      finish();
+    } finally {
+      closed = true;
+
+      Future<byte[]> future;
+      while ((future = pending.poll()) != null) {
+        future.cancel(true);
+      }
+
+      out.close();
+    }
+  }
+
+  private void submit() throws IOException {
+    val block = buffer;
+    val length = count;
+    pending.add(executor.submit(() -> encode(block, length)));
+    blocks++;
+
+    buffer = new byte[blockSize];
+    count = 0;
+
+    drain(maxPending);
+  }
+
+  /**
+   * Writes completed units in order until at most {@code limit} remain pending.
+   */
+  private void drain(int limit) throws IOException {
+    while (pending.size() > limit) {
+      out.write(next());
+    }
+  }
+
+  private byte[] next() throws IOException {
+    try {
+      return pending.poll().get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for encoder");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+
+      throw new IOException("Error encoding " + name + " output", cause);
+    }
+  }
+
+  private void checkOpen() throws IOException {
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+  }
+
+}
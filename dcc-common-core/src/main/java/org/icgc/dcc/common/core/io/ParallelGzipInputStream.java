@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.core.io;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.icgc.dcc.common.core.io.ParallelStreams.DEFAULT_EXECUTOR;
+import static org.icgc.dcc.common.core.io.ParallelStreams.DEFAULT_PARALLELISM;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import lombok.NonNull;
+import lombok.val;
+
+import com.google.common.io.ByteStreams;
+
+/**
+ * Member-parallel gzip decompressing {@link InputStream} for block gzip input.
+ * <p>
+ * Block gzip (BGZF, as produced by {@code bgzip}) is a series of standard gzip members, each carrying its total size in
+ * a {@code BC} extra subfield. That size lets the scanner cut the input into members without inflating it, so members
+ * are inflated in parallel. Any gzip reader can still read such input sequentially. Use
+ * {@link #isBlockGzip(InputStream)} to check whether the input qualifies.
+ */
+public class ParallelGzipInputStream extends ParallelDecodingInputStream<byte[]> {
+
+  /**
+   * Constants.
+   */
+  private static final int ID1 = 0x1f;
+  private static final int ID2 = 0x8b;
+  private static final int CM_DEFLATE = 8;
+
+  private static final int FHCRC = 0x02;
+  private static final int FEXTRA = 0x04;
+  private static final int FNAME = 0x08;
+  private static final int FCOMMENT = 0x10;
+
+  /**
+   * Fixed header plus {@code XLEN}.
+   */
+  private static final int HEADER_SIZE = 12;
+  private static final int TRAILER_SIZE = 8;
+  private static final int MAX_EXTRA_SIZE = 0xFFFF;
+
+  private static final byte BLOCK_SIZE_SI1 = 'B';
+  private static final byte BLOCK_SIZE_SI2 = 'C';
+
+  public ParallelGzipInputStream(InputStream in) {
+    this(in, DEFAULT_EXECUTOR, DEFAULT_PARALLELISM);
+  }
+
+  public ParallelGzipInputStream(@NonNull InputStream in, @NonNull ExecutorService executor, int parallelism) {
+    super("gzip", in, executor, parallelism);
+  }
+
+  /**
+   * Peeks at the first member of {@code in} to check whether it is block gzipped. The stream is reset afterwards.
+   */
+  public static boolean isBlockGzip(@NonNull InputStream in) throws IOException {
+    checkArgument(in.markSupported(), "Input stream must support mark");
+    in.mark(HEADER_SIZE + MAX_EXTRA_SIZE);
+    try {
+      val header = new byte[HEADER_SIZE];
+      if (ByteStreams.read(in, header, 0, HEADER_SIZE) < HEADER_SIZE || !hasExtra(header)) {
+        return false;
+      }
+
+      val extra = new byte[readUnsignedShort(header, 10)];
+      if (ByteStreams.read(in, extra, 0, extra.length) < extra.length) {
+        return false;
+      }
+
+      return getBlockSize(extra) >= 0;
+    } finally {
+      in.reset();
+    }
+  }
+
+  @Override
+  protected void scan() throws IOException, InterruptedException {
+    val header = new byte[HEADER_SIZE];
+
+    int n;
+    while ((n = ByteStreams.read(in, header, 0, HEADER_SIZE)) > 0) {
+      if (n < HEADER_SIZE || !hasExtra(header)) {
+        throw new IOException("Expected a block gzip member header");
+      }
+
+      val extraSize = readUnsignedShort(header, 10);
+      val extra = new byte[extraSize];
+      ByteStreams.readFully(in, extra);
+
+      val blockSize = getBlockSize(extra);
+      if (blockSize < 0) {
+        throw new IOException("Missing block size in gzip member extra field");
+      }
+
+      // BSIZE is the total member size minus one
+      val memberSize = blockSize + 1;
+      val dataOffset = HEADER_SIZE + extraSize;
+      if (memberSize < dataOffset + TRAILER_SIZE) {
+        throw new IOException("Invalid gzip member size: " + memberSize);
+      }
+
+      val member = new byte[memberSize];
+      System.arraycopy(header, 0, member, 0, HEADER_SIZE);
+      System.arraycopy(extra, 0, member, HEADER_SIZE, extraSize);
+      ByteStreams.readFully(in, member, dataOffset, memberSize - dataOffset);
+
+      submit(() -> inflate(member, dataOffset));
+    }
+  }
+
+  @Override
+  protected byte[] resolve(byte[] result) {
+    return result;
+  }
+
+  private static byte[] inflate(byte[] member, int offset) throws IOException {
+    val flags = member[3] & 0xFF;
+    if ((flags & FNAME) != 0) {
+      offset = skipZeroTerminated(member, offset);
+    }
+    if ((flags & FCOMMENT) != 0) {
+      offset = skipZeroTerminated(member, offset);
+    }
+    if ((flags & FHCRC) != 0) {
+      offset += 2;
+    }
+
+    val trailer = member.length - TRAILER_SIZE;
+    val expectedCrc = readUnsignedInt(member, trailer);
+    val size = (int) readUnsignedInt(member, trailer + 4);
+
+    val data = new byte[size];
+    val inflater = new Inflater(true);
+    try {
+      inflater.setInput(member, offset, trailer - offset);
+
+      int inflated = 0;
+      while (inflated < size) {
+        int count = inflater.inflate(data, inflated, size - inflated);
+        if (count == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+          break;
+        }
+
+        inflated += count;
+      }
+
+      if (inflated != size) {
+        throw new IOException("Truncated gzip member: expected " + size + " bytes, got " + inflated);
+      }
+    } catch (DataFormatException e) {
+      throw new IOException("Corrupt gzip member", e);
+    } finally {
+      inflater.end();
+    }
+
+    val crc = new CRC32();
+    crc.update(data);
+    if (crc.getValue() != expectedCrc) {
+      throw new IOException("CRC mismatch in gzip member");
+    }
+
+    return data;
+  }
+
+  private static boolean hasExtra(byte[] header) {
+    return (header[0] & 0xFF) == ID1 && (header[1] & 0xFF) == ID2 && header[2] == CM_DEFLATE
+        && (header[3] & FEXTRA) != 0;
+  }
+
+  /**
+   * Returns {@code BSIZE} from the {@code BC} subfield or {@code -1} if absent.
+   */
+  private static int getBlockSize(byte[] extra) {
+    int i = 0;
+    while (i + 4 <= extra.length) {
+      val length = readUnsignedShort(extra, i + 2);
+      if (extra[i] == BLOCK_SIZE_SI1 && extra[i + 1] == BLOCK_SIZE_SI2 && length == 2 && i + 6 <= extra.length) {
+        return readUnsignedShort(extra, i + 4);
+      }
+
+      i += 4 + length;
+    }
+
+    return -1;
+  }
+
+  private static int skipZeroTerminated(byte[] bytes, int offset) throws IOException {
+    while (offset < bytes.length && bytes[offset] != 0) {
+      offset++;
+    }
+    if (offset == bytes.length) {
+      throw new IOException("Unterminated gzip header field");
+    }
+
+    return offset + 1;
+  }
+
+  private static int readUnsignedShort(byte[] bytes, int offset) {
+    return (bytes[offset] & 0xFF) | (bytes[offset + 1] & 0xFF) << 8;
+  }
+
+  private static long readUnsignedInt(byte[] bytes, int offset) {
+    return readUnsignedShort(bytes, offset) | (long) readUnsignedShort(bytes, offset + 2) << 16;
+  }
+
+}
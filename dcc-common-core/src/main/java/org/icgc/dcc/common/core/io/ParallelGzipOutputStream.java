@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.core.io;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.icgc.dcc.common.core.io.ParallelStreams.DEFAULT_EXECUTOR;
+import static org.icgc.dcc.common.core.io.ParallelStreams.DEFAULT_PARALLELISM;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import lombok.NonNull;
+import lombok.val;
+
+/**
+ * Block-parallel gzip compressing {@link OutputStream} in the style of {@code pigz}.
+ * <p>
+ * Output is block gzip (BGZF, as produced by {@code bgzip}): input is cut into blocks of up to {@value #BLOCK_SIZE}
+ * bytes, each deflated in parallel into a standalone gzip member whose total size is recorded in a {@code BC} extra
+ * subfield, followed by the standard empty end-of-file member. Any gzip reader can read the result sequentially and
+ * {@link ParallelGzipInputStream} can read it back in parallel.
+ */
+public class ParallelGzipOutputStream extends ParallelEncodingOutputStream {
+
+  /**
+   * Constants.
+   */
+  public static final int BLOCK_SIZE = 0xFF00;
+
+  private static final int HEADER_SIZE = 18;
+  private static final int TRAILER_SIZE = 8;
+  private static final int MAX_MEMBER_SIZE = 0x10000;
+
+  private static final byte[] HEADER = {
+      0x1f, (byte) 0x8b, // ID1, ID2
+      8, // CM: deflate
+      4, // FLG: FEXTRA
+      0, 0, 0, 0, // MTIME
+      0, // XFL
+      (byte) 0xff, // OS: unknown
+      6, 0, // XLEN
+      'B', 'C', 2, 0 // BC subfield, followed by BSIZE
+  };
+
+  private static final byte[] EOF = {
+      0x1f, (byte) 0x8b, 8, 4, 0, 0, 0, 0, 0, (byte) 0xff, 6, 0, 'B', 'C', 2, 0, 0x1b, 0, 3, 0, 0, 0, 0, 0, 0, 0, 0, 0
+  };
+
+  /**
+   * Configuration.
+   */
+  private final int level;
+
+  /**
+   * State.
+   */
+  private final Queue<Deflater> deflaters = new ConcurrentLinkedQueue<Deflater>();
+
+  public ParallelGzipOutputStream(OutputStream out) {
+    this(out, Deflater.DEFAULT_COMPRESSION);
+  }
+
+  public ParallelGzipOutputStream(OutputStream out, int level) {
+    this(out, level, DEFAULT_EXECUTOR, DEFAULT_PARALLELISM);
+  }
+
+  public ParallelGzipOutputStream(@NonNull OutputStream out, int level, @NonNull ExecutorService executor,
+      int parallelism) {
+    super("gzip", out, executor, parallelism, BLOCK_SIZE);
+    checkArgument(level == Deflater.DEFAULT_COMPRESSION || level >= 0 && level <= 9,
+        "Invalid compression level: %s", level);
+    this.level = level;
+  }
+
+  @Override
+  protected byte[] encode(byte[] block, int length) throws IOException {
+    val member = new byte[MAX_MEMBER_SIZE];
+    int size = HEADER_SIZE;
+
+    // Deflaters are expensive to create so they are pooled, at most one per concurrent block
+    Deflater deflater = deflaters.poll();
+    if (deflater == null) {
+      deflater = new Deflater(level, true);
+    }
+
+    try {
+      deflater.setInput(block, 0, length);
+      deflater.finish();
+      while (!deflater.finished()) {
+        int n = deflater.deflate(member, size, MAX_MEMBER_SIZE - TRAILER_SIZE - size);
+        if (n == 0 && size == MAX_MEMBER_SIZE - TRAILER_SIZE) {
+          throw new IOException("Deflated block exceeds maximum gzip member size");
+        }
+
+        size += n;
+      }
+    } finally {
+      deflater.reset();
+      deflaters.add(deflater);
+    }
+
+    val crc = new CRC32();
+    crc.update(block, 0, length);
+
+    System.arraycopy(HEADER, 0, member, 0, HEADER.length);
+    writeUnsignedShort(member, HEADER.length, size + TRAILER_SIZE - 1);
+    writeUnsignedInt(member, size, crc.getValue());
+    writeUnsignedInt(member, size + 4, length);
+
+    return Arrays.copyOf(member, size + TRAILER_SIZE);
+  }
+
+  @Override
+  protected void finish() throws IOException {
+    out.write(EOF);
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      super.close();
+    } finally {
+      Deflater deflater;
+      while ((deflater = deflaters.poll()) != null) {
+        deflater.end();
+      }
+    }
+  }
+
+  private static void writeUnsignedShort(byte[] bytes, int offset, int value) {
+    bytes[offset] = (byte) value;
+    bytes[offset + 1] = (byte) (value >>> 8);
+  }
+
+  private static void writeUnsignedInt(byte[] bytes, int offset, long value) {
+    writeUnsignedShort(bytes, offset, (int) value);
+    writeUnsignedShort(bytes, offset + 2, (int) (value >>> 16));
+  }
+
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.core.io;
+
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static lombok.AccessLevel.PRIVATE;
+
+import java.util.concurrent.ExecutorService;
+
+import lombok.NoArgsConstructor;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Defaults shared by the parallel encoding and decoding streams.
+ * <p>
+ * A single daemon pool serves all of them so that the number of codec threads stays bounded by the processor count no
+ * matter how many streams are open.
+ */
+@NoArgsConstructor(access = PRIVATE)
+public final class ParallelStreams {
+
+  /**
+   * Constants.
+   */
+  public static final int DEFAULT_PARALLELISM = Runtime.getRuntime().availableProcessors();
+  public static final ExecutorService DEFAULT_EXECUTOR = newFixedThreadPool(DEFAULT_PARALLELISM,
+      new ThreadFactoryBuilder().setNameFormat("codec-%d").setDaemon(true).build());
+
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.core.io;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import lombok.NonNull;
+
+import com.google.common.io.ByteStreams;
+
+/**
+ * {@link InputStream} that reads its delegate ahead of the consumer on a background thread.
+ * <p>
+ * A fixed set of buffers is recycled between the reading thread and the consumer, so reading (or decompressing) the
+ * delegate overlaps with whatever the consumer does with the bytes. Not thread safe on the consumer side.
+ */
+public class ReadAheadInputStream extends InputStream {
+
+  /**
+   * Constants.
+   */
+  public static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+  public static final int DEFAULT_BUFFER_COUNT = 4;
+
+  private static final Chunk END = new Chunk(0);
+
+  /**
+   * Configuration.
+   */
+  @NonNull
+  private final InputStream delegate;
+
+  /**
+   * State.
+   */
+  private final BlockingQueue<Chunk> free;
+  private final BlockingQueue<Chunk> full;
+  private final Thread reader;
+  private volatile boolean closed;
+
+  private Chunk current;
+  private int position;
+  private boolean eof;
+  private IOException error;
+
+  public ReadAheadInputStream(InputStream delegate) {
+    this(delegate, DEFAULT_BUFFER_SIZE, DEFAULT_BUFFER_COUNT);
+  }
+
+  public ReadAheadInputStream(@NonNull InputStream delegate, int bufferSize, int bufferCount) {
+    checkArgument(bufferSize > 0, "Buffer size must be positive: %s", bufferSize);
+    checkArgument(bufferCount > 1, "At least two buffers are required: %s", bufferCount);
+    this.delegate = delegate;
+    this.free = new ArrayBlockingQueue<Chunk>(bufferCount);
+    this.full = new ArrayBlockingQueue<Chunk>(bufferCount + 1); // Room for the terminal chunk
+    for (int i = 0; i < bufferCount; i++) {
+      free.add(new Chunk(bufferSize));
+    }
+
+    this.reader = new Thread(this::readAhead, "read-ahead");
+    this.reader.setDaemon(true);
+    this.reader.start();
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (!fill()) {
+      return -1;
+    }
+
+    int value = current.bytes[position++] & 0xFF;
+    release();
+
+    return value;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    if (!fill()) {
+      return -1;
+    }
+
+    int n = Math.min(len, current.length - position);
+    System.arraycopy(current.bytes, position, b, off, n);
+    position += n;
+    release();
+
+    return n;
+  }
+
+  @Override
+  public int available() throws IOException {
+    return current == null ? 0 : current.length - position;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+
+    closed = true;
+    reader.interrupt();
+    delegate.close();
+  }
+
+  private boolean fill() throws IOException {
+    if (current != null) {
+      return true;
+    }
+    if (eof) {
+      return false;
+    }
+    if (error != null) {
+      // Sticky, so that every read after a failure fails the same way
+      throw error;
+    }
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+
+    try {
+      current = full.take();
+      position = 0;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for read ahead");
+    }
+
+    if (current == END) {
+      current = null;
+      eof = true;
+
+      return false;
+    }
+    if (current.error != null) {
+      error = current.error;
+      current = null;
+
+      throw error;
+    }
+
+    return true;
+  }
+
+  private void release() {
+    if (position == current.length) {
+      free.add(current);
+      current = null;
+    }
+  }
+
+  private void readAhead() {
+    try {
+      while (!closed) {
+        Chunk chunk = free.take();
+        try {
+          chunk.length = ByteStreams.read(delegate, chunk.bytes, 0, chunk.bytes.length);
+        } catch (IOException e) {
+          if (!closed) {
+            full.put(Chunk.error(e));
+          }
+
+          return;
+        }
+
+        if (chunk.length > 0) {
+          full.put(chunk);
+        }
+        if (chunk.length < chunk.bytes.length) {
+          full.put(END);
+
+          return;
+        }
+      }
+    } catch (InterruptedException e) {
+      // Closed by the consumer
+    }
+  }
+
+  private static class Chunk {
+
+    final byte[] bytes;
+    int length;
+    IOException error;
+
+    Chunk(int size) {
+      this.bytes = new byte[size];
+    }
+
+    static Chunk error(IOException error) {
+      Chunk chunk = new Chunk(0);
+      chunk.error = error;
+
+      return chunk;
+    }
+
+  }
+
+}
@@ -31,6 +31,7 @@ import java.net.URL;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 import org.icgc.dcc.common.core.util.URLs;
 
@@ -121,6 +122,14 @@ public final class Jackson {
     return getRootArray(URLs.getUrl(file.toURI()));
   }
 
+  /**
+   * Streaming alternative to {@link #getRootArray(File)} that holds one element in memory at a time. The stream must be
+   * closed.
+   */
+  public static Stream<ObjectNode> streamRootArray(@NonNull final File file) {
+    return JsonArrayReader.of(file).stream();
+  }
+
   /**
    * Jackson doesn't seem to provide a "ArrayMapper" nor an "ObjectMapper#readValues" method, so we use this workaround
    * instead.
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.core.json;
+
+import static com.fasterxml.jackson.core.JsonToken.END_ARRAY;
+import static com.fasterxml.jackson.core.JsonToken.START_ARRAY;
+import static java.util.Spliterator.ORDERED;
+import static org.icgc.dcc.common.core.json.Jackson.DEFAULT;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import lombok.NonNull;
+import lombok.SneakyThrows;
+import lombok.val;
+
+/**
+ * Streaming reader of the elements of a root-level JSON array.
+ * <p>
+ * Unlike {@link Jackson#getRootArray(URL)}, only the current element is held in memory, so memory use is independent of
+ * the document size. Elements are read as {@link ObjectNode}s or bound to a POJO type. The underlying input is closed
+ * once the array is exhausted, on {@link #close()}, or when the {@link #stream()} is closed.
+ * 
+ * <pre>
+ * try (val donors = JsonArrayReader.of(file, Donor.class).stream()) {
+ *   donors.forEach(...);
+ * }
+ * </pre>
+ */
+public final class JsonArrayReader<T> implements Iterator<T>, Closeable {
+
+  /**
+   * Dependencies.
+   */
+  private final ObjectMapper mapper;
+  private final Class<T> type;
+
+  /**
+   * State.
+   */
+  private final JsonParser parser;
+  private boolean advanced;
+  private boolean finished;
+
+  private JsonArrayReader(ObjectMapper mapper, JsonParser parser, Class<T> type) throws IOException {
+    this.mapper = mapper;
+    this.parser = parser;
+    this.type = type;
+
+    val token = parser.nextToken();
+    if (token != START_ARRAY) {
+      parser.close();
+      throw new IOException("Expected a root level JSON array, instead got: '" + token + "'");
+    }
+  }
+
+  public static JsonArrayReader<ObjectNode> of(@NonNull File file) {
+    return of(file, ObjectNode.class);
+  }
+
+  public static JsonArrayReader<ObjectNode> of(@NonNull URL url) {
+    return of(url, ObjectNode.class);
+  }
+
+  public static JsonArrayReader<ObjectNode> of(@NonNull InputStream inputStream) {
+    return of(inputStream, ObjectNode.class);
+  }
+
+  @SneakyThrows
+  public static <T> JsonArrayReader<T> of(@NonNull File file, @NonNull Class<T> type) {
+    return of(DEFAULT, DEFAULT.getFactory().createParser(file), type);
+  }
+
+  @SneakyThrows
+  public static <T> JsonArrayReader<T> of(@NonNull URL url, @NonNull Class<T> type) {
+    return of(DEFAULT, DEFAULT.getFactory().createParser(url), type);
+  }
+
+  @SneakyThrows
+  public static <T> JsonArrayReader<T> of(@NonNull InputStream inputStream, @NonNull Class<T> type) {
+    return of(DEFAULT, DEFAULT.getFactory().createParser(inputStream), type);
+  }
+
+  /**
+   * Reads from an existing {@code parser} positioned before the array, binding elements with {@code mapper}.
+   */
+  @SneakyThrows
+  public static <T> JsonArrayReader<T> of(@NonNull ObjectMapper mapper, @NonNull JsonParser parser,
+      @NonNull Class<T> type) {
+    return new JsonArrayReader<T>(mapper, parser, type);
+  }
+
+  @Override
+  public boolean hasNext() {
+    advance();
+    return !finished;
+  }
+
+  @Override
+  public T next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+
+    advanced = false;
+    try {
+      return mapper.readValue(parser, type);
+    } catch (IOException e) {
+      close();
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * @return a sequential stream of the remaining elements that closes this reader when closed
+   */
+  public Stream<T> stream() {
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, ORDERED), false)
+        .onClose(this::close);
+  }
+
+  @Override
+  public void close() {
+    finished = true;
+    try {
+      parser.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void advance() {
+    if (advanced || finished) {
+      return;
+    }
+
+    try {
+      val token = parser.nextToken();
+      if (token == END_ARRAY || token == null) {
+        close();
+      } else {
+        advanced = true;
+      }
+    } catch (IOException e) {
+      close();
+      throw new UncheckedIOException(e);
+    }
+  }
+
+}
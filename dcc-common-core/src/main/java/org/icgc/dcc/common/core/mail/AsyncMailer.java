@@ -0,0 +1,291 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.core.mail;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.io.Closeable;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.Transport;
+
+import org.icgc.dcc.common.core.mail.Mailer.Email;
+import org.icgc.dcc.common.core.mail.Mailer.Format;
+
+import com.google.common.collect.Sets;
+
+import lombok.NonNull;
+import lombok.Value;
+import lombok.val;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Asynchronous counterpart of {@link Mailer}.
+ * <p>
+ * Emails are put on a bounded queue and sent by a single background thread that keeps one SMTP connection open for as
+ * long as there is mail to send. An email identical to one still waiting in the queue is coalesced into it rather than
+ * sent twice. When the queue is full new emails are dropped (and counted) instead of blocking the caller. Pending
+ * emails are flushed on {@link #close()} and on JVM shutdown.
+ */
+@Slf4j
+public class AsyncMailer implements Closeable {
+
+  /**
+   * Constants.
+   */
+  public static final int DEFAULT_QUEUE_CAPACITY = 100;
+  private static final long IDLE_DISCONNECT_MILLIS = SECONDS.toMillis(30);
+  private static final long SHUTDOWN_FLUSH_SECONDS = 30;
+
+  /**
+   * Open instances, all flushed by a single shutdown hook.
+   */
+  private static final Set<AsyncMailer> INSTANCES = Sets.newConcurrentHashSet();
+
+  static {
+    Runtime.getRuntime().addShutdownHook(new Thread(AsyncMailer::flushOnShutdown, "mailer-shutdown"));
+  }
+
+  /**
+   * Dependencies.
+   */
+  private final Mailer mailer;
+  private final Session session;
+
+  /**
+   * State.
+   */
+  private final BlockingQueue<Key> queue;
+  private final ConcurrentMap<Key, Integer> pending = new ConcurrentHashMap<>(); // Duplicates per queued email
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicLong dropped = new AtomicLong();
+  private final AtomicLong coalesced = new AtomicLong();
+  private final Thread sender;
+  private volatile boolean closed;
+
+  AsyncMailer(@NonNull Mailer mailer, int queueCapacity) {
+    this.mailer = mailer;
+    this.session = Session.getInstance(mailer.properties(), null);
+    this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+    this.sender = new Thread(this::run, "mailer");
+    this.sender.setDaemon(true);
+    this.sender.start();
+
+    INSTANCES.add(this);
+  }
+
+  public void sendMail(@NonNull Email email) {
+    sendMail(email.getSubject(), email.getBody(), email.getFormat());
+  }
+
+  public void sendMail(@NonNull String subject, @NonNull String body) {
+    sendMail(subject, body, mailer.getFormat());
+  }
+
+  /**
+   * Enqueues an email to the configured recipient without blocking.
+   */
+  public void sendMail(@NonNull String subject, @NonNull String body, @NonNull Format format) {
+    if (!mailer.isEnabled()) {
+      log.info("Mail not enabled. Skipping...");
+      return;
+    }
+    if (closed) {
+      log.warn("Mailer closed. Dropping email '{}'", subject);
+      dropped.incrementAndGet();
+      return;
+    }
+
+    // Atomic per key with the sender's removal, so an email is either coalesced into one still queued or enqueued
+    val key = new Key(subject, body, format);
+    val accepted = pending.compute(key, (k, duplicates) -> {
+      if (duplicates != null) {
+        coalesced.incrementAndGet();
+        return duplicates + 1;
+      }
+
+      inFlight.incrementAndGet();
+      if (queue.offer(k)) {
+        return 0;
+      }
+
+      inFlight.decrementAndGet();
+      return null;
+    });
+
+    if (accepted == null) {
+      dropped.incrementAndGet();
+      log.warn("Mail queue full. Dropping email '{}'", subject);
+    }
+  }
+
+  /**
+   * Waits until every email enqueued so far has been sent (or has failed).
+   * 
+   * @return {@code true} if the queue drained within the timeout
+   */
+  public boolean flush(long timeout, @NonNull TimeUnit unit) throws InterruptedException {
+    val deadline = System.nanoTime() + unit.toNanos(timeout);
+    synchronized (inFlight) {
+      while (inFlight.get() > 0) {
+        val remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+          return false;
+        }
+
+        MILLISECONDS.timedWait(inFlight, Math.max(1, TimeUnit.NANOSECONDS.toMillis(remaining)));
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * @return the number of emails dropped because the queue was full or the mailer was closed
+   */
+  public long getDroppedCount() {
+    return dropped.get();
+  }
+
+  /**
+   * @return the number of emails merged into an identical queued email
+   */
+  public long getCoalescedCount() {
+    return coalesced.get();
+  }
+
+  /**
+   * Stops accepting email, flushes the queue and stops the sender.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    try {
+      flush(SHUTDOWN_FLUSH_SECONDS, SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    sender.interrupt();
+    INSTANCES.remove(this);
+  }
+
+  private static void flushOnShutdown() {
+    for (val instance : INSTANCES) {
+      instance.closed = true;
+    }
+
+    // Shared deadline so that the hook is bounded regardless of the number of instances
+    val deadline = System.nanoTime() + SECONDS.toNanos(SHUTDOWN_FLUSH_SECONDS);
+    for (val instance : INSTANCES) {
+      try {
+        if (!instance.flush(deadline - System.nanoTime(), NANOSECONDS)) {
+          log.warn("Timed out flushing {} pending email(s) on shutdown", instance.inFlight.get());
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  private void run() {
+    Transport transport = null;
+    try {
+      while (true) {
+        // Block indefinitely while disconnected; otherwise disconnect once idle
+        val key = transport == null ? queue.take() : queue.poll(IDLE_DISCONNECT_MILLIS, MILLISECONDS);
+        if (key == null) {
+          transport = disconnect(transport);
+          continue;
+        }
+
+        transport = send(transport, key);
+      }
+    } catch (InterruptedException e) {
+      // Closed
+    } finally {
+      disconnect(transport);
+    }
+  }
+
+  private Transport send(Transport transport, Key key) {
+    val duplicates = pending.remove(key);
+    try {
+      val message = mailer.createMessage(session, key.getSubject(), key.getBody(), key.getFormat());
+      if (transport == null || !transport.isConnected()) {
+        disconnect(transport);
+        transport = session.getTransport("smtp");
+        transport.connect();
+      }
+
+      log.info("Sending email '{}' to {}{}...", message.getSubject(), Arrays.toString(message.getAllRecipients()),
+          duplicates > 0 ? " (coalesced " + duplicates + " duplicate(s))" : "");
+      message.saveChanges();
+      transport.sendMessage(message, message.getAllRecipients());
+      log.info("Sent email '{}' to {}", message.getSubject(), Arrays.toString(message.getAllRecipients()));
+    } catch (Exception e) {
+      log.error("An error occured while emailing: ", e);
+
+      // Reconnect on the next message
+      transport = disconnect(transport);
+    } finally {
+      synchronized (inFlight) {
+        inFlight.decrementAndGet();
+        inFlight.notifyAll();
+      }
+    }
+
+    return transport;
+  }
+
+  private static Transport disconnect(Transport transport) {
+    if (transport != null) {
+      try {
+        transport.close();
+      } catch (MessagingException e) {
+        log.debug("Error closing mail transport: ", e);
+      }
+    }
+
+    return null;
+  }
+
+  @Value
+  private static class Key {
+
+    String subject;
+    String body;
+    Format format;
+
+  }
+
+}
@@ -24,6 +24,7 @@ import java.io.UnsupportedEncodingException;
 import java.util.Arrays;
 import java.util.Properties;
 
+import javax.mail.MessagingException;
 import javax.mail.Session;
 import javax.mail.Transport;
 import javax.mail.internet.InternetAddress;
@@ -127,16 +128,7 @@ public class Mailer {
     }
 
     try {
-      val message = message();
-      message.setFrom(address(from));
-      message.addRecipient(TO, address(recipient));
-      message.setSubject(subject);
-
-      if (format == Format.HTML) {
-        message.setText(body, "utf-8", "html");
-      } else {
-        message.setText(body);
-      }
+      val message = createMessage(Session.getDefaultInstance(properties(), null), subject, body, format);
 
       log.info("Sending email '{}' to {}...", message.getSubject(), Arrays.toString(message.getAllRecipients()));
       Transport.send(message);
@@ -159,14 +151,38 @@ public class Mailer {
     sendMail(subject, body, format);
   }
 
-  private MimeMessage message() {
+  boolean isEnabled() {
+    return enabled;
+  }
+
+  Format getFormat() {
+    return format;
+  }
+
+  MimeMessage createMessage(Session session, String subject, String body, Format format) throws MessagingException,
+      UnsupportedEncodingException {
+    val message = new MimeMessage(session);
+    message.setFrom(address(from));
+    message.addRecipient(TO, address(recipient));
+    message.setSubject(subject);
+
+    if (format == Format.HTML) {
+      message.setText(body, "utf-8", "html");
+    } else {
+      message.setText(body);
+    }
+
+    return message;
+  }
+
+  Properties properties() {
     val props = new Properties();
     props.put(MAIL_SMTP_HOST, host);
     props.put(MAIL_SMTP_PORT, port);
     props.put(MAIL_SMTP_TIMEOUT, "5000");
     props.put(MAIL_SMTP_CONNECTION_TIMEOUT, "5000");
 
-    return new MimeMessage(Session.getDefaultInstance(props, null));
+    return props;
   }
 
   private static InternetAddress address(String email) throws UnsupportedEncodingException {
@@ -186,11 +202,21 @@ public class Mailer {
     private String recipient = DEFAULT_MAIL_RECIPIENT;
     private Format format = DEFAULT_MAIL_FORMAT;
     private boolean enabled = DEFAULT_MAIL_ENABLED;
+    private int queueCapacity = AsyncMailer.DEFAULT_QUEUE_CAPACITY;
 
     public Mailer build() {
       return new Mailer(host, port, from, recipient, format, enabled);
     }
 
+    /**
+     * Builds a mailer that sends in the background.
+     * 
+     * @see AsyncMailer
+     */
+    public AsyncMailer buildAsync() {
+      return new AsyncMailer(build(), queueCapacity);
+    }
+
   }
 
 }
@@ -17,15 +17,19 @@
  */
 package org.icgc.dcc.common.core.meta;
 
+import static com.google.common.base.Preconditions.checkState;
 import static org.icgc.dcc.common.core.dcc.DccResources.DICTIONARY_VERSION;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
 import org.icgc.dcc.common.core.util.Optionals;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Optional;
 
@@ -35,24 +39,41 @@ import lombok.val;
 
 public abstract class AbstractArtifactoryResolver implements Resolver {
 
+  /**
+   * Constants.
+   */
+  private static final String SNAPSHOT = "-SNAPSHOT";
+
   private static String getDefaultVersion() {
     return DICTIONARY_VERSION;
   }
 
-  protected static <T> T read(String fileName, Class<T> type) {
+  protected static <T extends JsonNode> T read(String fileName, Class<T> type) {
     return read(fileName, type, Optional.of(getDefaultVersion()));
   }
 
+  /**
+   * Released artifacts are immutable, so only snapshots are revalidated against Artifactory.
+   */
+  @SneakyThrows
+  protected static <T extends JsonNode> T read(String fileName, Class<T> type, Optional<String> version) {
+    val url = getUrl(version);
+    val immutable = !url.getPath().contains(SNAPSHOT);
+
+    return ResolverCache.getDefault().read(url.toString(), null, immutable, fileName,
+        jar -> readEntry(jar, fileName, type));
+  }
+
   @SneakyThrows
-  protected static <T> T read(String fileName, Class<T> type, Optional<String> version) {
-    // Resolve
+  private static <T> T readEntry(Path jar, String fileName, Class<T> type) {
     @Cleanup
-    val zip = new ZipInputStream(getUrl(version).openStream());
+    val zip = new ZipInputStream(Files.newInputStream(jar));
     ZipEntry entry;
 
     val entryName = "org/icgc/dcc/resources/" + fileName;
     do {
       entry = zip.getNextEntry();
+      checkState(entry != null, "Could not find '%s' in '%s'", entryName, jar);
     } while (!entryName.equals(entry.getName()));
 
     return new ObjectMapper().readValue(zip, type);
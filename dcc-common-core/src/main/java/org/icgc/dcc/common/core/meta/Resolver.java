@@ -17,14 +17,13 @@
  */
 package org.icgc.dcc.common.core.meta;
 
-import static com.google.common.net.HttpHeaders.ACCEPT;
+import static org.icgc.dcc.common.core.json.Jackson.DEFAULT;
 
-import java.io.InputStream;
-import java.net.URL;
+import java.nio.file.Path;
 
 import lombok.SneakyThrows;
-import lombok.val;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.base.Function;
@@ -72,12 +71,18 @@ public interface Resolver {
 
   static class Resolvers {
 
-    @SneakyThrows
-    static InputStream getContent(String url) {
-      val connection = new URL(url).openConnection();
-      connection.setRequestProperty(ACCEPT, "application/json");
+    private static final String JSON = "application/json";
+
+    /**
+     * Reads JSON through the {@link ResolverCache}, revalidating it against the remote.
+     */
+    static <T extends JsonNode> T getJson(String url, Class<T> type) {
+      return ResolverCache.getDefault().read(url, JSON, false, type.getSimpleName(), file -> readJson(file, type));
+    }
 
-      return (InputStream) connection.getContent();
+    @SneakyThrows
+    private static <T> T readJson(Path file, Class<T> type) {
+      return DEFAULT.readValue(file.toFile(), type);
     }
 
   }
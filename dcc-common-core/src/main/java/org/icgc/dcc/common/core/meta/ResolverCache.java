@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.core.meta;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static com.google.common.net.HttpHeaders.ACCEPT;
+import static com.google.common.net.HttpHeaders.ETAG;
+import static com.google.common.net.HttpHeaders.IF_MODIFIED_SINCE;
+import static com.google.common.net.HttpHeaders.IF_NONE_MATCH;
+import static com.google.common.net.HttpHeaders.LAST_MODIFIED;
+import static java.net.HttpURLConnection.HTTP_NOT_MODIFIED;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.hash.Hashing;
+
+import lombok.Cleanup;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.Value;
+import lombok.val;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Local cache of remote resolver content.
+ * <p>
+ * Content is stored on disk under the SHA-1 of its URL next to a small properties file recording the validators
+ * ({@code ETag}, {@code Last-Modified}) of the response. Mutable resources are revalidated with a conditional request
+ * on every resolution and only downloaded again when they changed; immutable resources (e.g. released artifacts) are
+ * served from disk without contacting the remote. Files are replaced atomically, so concurrent processes sharing the
+ * directory never observe partial content. If the remote is unreachable a previously cached copy is used.
+ * <p>
+ * Parsed JSON is additionally kept in memory for as long as the file it was parsed from is unchanged.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ResolverCache {
+
+  /**
+   * Constants.
+   */
+  public static final String CACHE_DIR_PROPERTY = "org.icgc.dcc.resolver.cache.dir";
+  private static final String DEFAULT_CACHE_DIR = System.getProperty("java.io.tmpdir") + "/dcc-resolver-cache";
+  private static final String META_SUFFIX = ".properties";
+  private static final String META_URL = "url";
+  private static final int TIMEOUT_MILLIS = 30 * 1000;
+
+  /**
+   * Default instance.
+   */
+  private static final ResolverCache DEFAULT =
+      new ResolverCache(Paths.get(System.getProperty(CACHE_DIR_PROPERTY, DEFAULT_CACHE_DIR)));
+
+  /**
+   * Configuration.
+   */
+  @Getter
+  @NonNull
+  private final Path directory;
+
+  /**
+   * State.
+   */
+  private final Map<String, Entry> memory = new ConcurrentHashMap<>();
+
+  public static ResolverCache getDefault() {
+    return DEFAULT;
+  }
+
+  /**
+   * Resolves the parsed JSON of {@code url}, or of the {@code part} of it extracted by {@code parser}.
+   * 
+   * @param url the remote location
+   * @param accept the {@code Accept} header to send, if any
+   * @param immutable whether the content of {@code url} never changes once published
+   * @param part distinguishes the values parsed from the same file
+   * @param parser parses the local copy
+   * @return a private copy of the parsed value
+   */
+  @SneakyThrows
+  @SuppressWarnings("unchecked")
+  public <T extends JsonNode> T read(@NonNull String url, String accept, boolean immutable, @NonNull String part,
+      @NonNull Function<Path, T> parser) {
+    val file = resolve(url, accept, immutable);
+    val attributes = Files.readAttributes(file, BasicFileAttributes.class);
+    val token = attributes.fileKey() + ":" + attributes.lastModifiedTime().toMillis() + ":" + attributes.size();
+    val key = url + "#" + part;
+
+    Entry entry = memory.get(key);
+    if (entry == null || !entry.getToken().equals(token)) {
+      entry = new Entry(token, parser.apply(file));
+      memory.put(key, entry);
+    }
+
+    // Callers are free to mutate what they get
+    return (T) entry.getValue().deepCopy();
+  }
+
+  /**
+   * Resolves {@code url} to an up to date local file.
+   * 
+   * @param url the remote location
+   * @param accept the {@code Accept} header to send, if any
+   * @param immutable whether the content of {@code url} never changes once published
+   */
+  public Path resolve(@NonNull String url, String accept, boolean immutable) throws IOException {
+    val name = Hashing.sha1().hashString(url, UTF_8).toString();
+    val file = directory.resolve(name);
+    val metaFile = directory.resolve(name + META_SUFFIX);
+    val cached = Files.isRegularFile(file);
+    if (cached && immutable) {
+      return file;
+    }
+
+    try {
+      Files.createDirectories(directory);
+      val meta = cached ? readMeta(metaFile) : new Properties();
+
+      val connection = new URL(url).openConnection();
+      connection.setConnectTimeout(TIMEOUT_MILLIS);
+      connection.setReadTimeout(TIMEOUT_MILLIS);
+      if (accept != null) {
+        connection.setRequestProperty(ACCEPT, accept);
+      }
+      if (cached && meta.containsKey(ETAG)) {
+        connection.setRequestProperty(IF_NONE_MATCH, meta.getProperty(ETAG));
+      }
+      if (cached && meta.containsKey(LAST_MODIFIED)) {
+        connection.setRequestProperty(IF_MODIFIED_SINCE, meta.getProperty(LAST_MODIFIED));
+      }
+
+      if (connection instanceof HttpURLConnection) {
+        val code = ((HttpURLConnection) connection).getResponseCode();
+        if (code == HTTP_NOT_MODIFIED && cached) {
+          log.debug("'{}' not modified, using '{}'", url, file);
+          return file;
+        } else if (code >= 400) {
+          throw new IOException("Unexpected HTTP status " + code + " resolving '" + url + "'");
+        }
+      }
+
+      log.info("Downloading '{}' to '{}'...", url, file);
+      @Cleanup
+      InputStream inputStream = connection.getInputStream();
+      replace(file, inputStream);
+
+      val newMeta = new Properties();
+      newMeta.setProperty(META_URL, url);
+      if (connection.getHeaderField(ETAG) != null) {
+        newMeta.setProperty(ETAG, connection.getHeaderField(ETAG));
+      }
+      if (connection.getHeaderField(LAST_MODIFIED) != null) {
+        newMeta.setProperty(LAST_MODIFIED, connection.getHeaderField(LAST_MODIFIED));
+      }
+      writeMeta(metaFile, newMeta);
+
+      return file;
+    } catch (IOException e) {
+      if (!cached) {
+        throw e;
+      }
+
+      log.warn("Could not revalidate '{}', using cached '{}': {}", url, file, e.getMessage());
+      return file;
+    }
+  }
+
+  private void replace(Path file, InputStream inputStream) throws IOException {
+    val temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+    try {
+      Files.copy(inputStream, temp, REPLACE_EXISTING);
+      Files.move(temp, file, ATOMIC_MOVE, REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  private static Properties readMeta(Path metaFile) {
+    val meta = new Properties();
+    try {
+      @Cleanup
+      InputStream inputStream = Files.newInputStream(metaFile);
+      meta.load(inputStream);
+    } catch (IOException e) {
+      // Missing or unreadable validators only cost a full download
+      log.debug("Could not read '{}': {}", metaFile, e.getMessage());
+    }
+
+    return meta;
+  }
+
+  private void writeMeta(Path metaFile, Properties meta) throws IOException {
+    val temp = Files.createTempFile(directory, metaFile.getFileName().toString(), ".tmp");
+    try {
+      try (OutputStream outputStream = Files.newOutputStream(temp)) {
+        meta.store(outputStream, null);
+      }
+
+      Files.move(temp, metaFile, ATOMIC_MOVE, REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  @Value
+  private static class Entry {
+
+    String token;
+    JsonNode value;
+
+  }
+
+}
@@ -21,10 +21,6 @@ import static com.google.common.base.Preconditions.checkArgument;
 
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
-import lombok.SneakyThrows;
-import lombok.val;
-
-import static org.icgc.dcc.common.core.json.Jackson.DEFAULT;
 
 import org.icgc.dcc.common.core.meta.Resolver.SubmissionSystemResolver.SubmissionSystemCodeListsResolver;
 
@@ -42,11 +38,8 @@ public class RestfulCodeListsResolver implements SubmissionSystemCodeListsResolv
     return getCodeList();
   }
 
-  @SneakyThrows
   private ArrayNode getCodeList() {
-    val content = Resolvers.getContent(getSubmissionSystemUrl(Optional.<String> absent()));
-
-    return DEFAULT.readValue(content, ArrayNode.class);
+    return Resolvers.getJson(getSubmissionSystemUrl(Optional.<String> absent()), ArrayNode.class);
   }
 
   @Override
@@ -17,13 +17,11 @@
  */
 package org.icgc.dcc.common.core.meta;
 
-import static org.icgc.dcc.common.core.json.Jackson.DEFAULT;
-import static org.icgc.dcc.common.core.meta.Resolver.Resolvers.getContent;
+import static org.icgc.dcc.common.core.meta.Resolver.Resolvers.getJson;
 import static org.icgc.dcc.common.core.util.Joiners.PATH;
 
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
-import lombok.SneakyThrows;
 
 import org.icgc.dcc.common.core.meta.Resolver.SubmissionSystemResolver.SubmissionSystemDictionaryResolver;
 
@@ -46,11 +44,9 @@ public class RestfulDictionaryResolver implements SubmissionSystemDictionaryReso
     return getDictionary(version);
   }
 
-  @SneakyThrows
   private ObjectNode getDictionary(Optional<String> version) {
-    return DEFAULT.readValue(
-        getContent(
-        getSubmissionSystemUrl(version)),
+    return getJson(
+        getSubmissionSystemUrl(version),
         ObjectNode.class);
   }
 
@@ -30,6 +30,8 @@ import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.val;
 
+import com.google.common.base.Optional;
+
 /**
  * Represents a Chromosome, with a name and the allowed max position.
  */
@@ -78,15 +80,27 @@ public enum Chromosome {
 
   private static final Map<String, Chromosome> LOOKUP_TABLE_BY_NAME;
 
+  /**
+   * Every accepted expression: the constant name ("CHR1", "X"), the name ("1", "X") and the prefixed name ("CHRX").
+   */
+  private static final IdentifierResolver<Chromosome> EXPRESSION_RESOLVER;
+
   static {
     Chromosome[] values = Chromosome.values();
     val lookup = new HashMap<String, Chromosome>(values.length);
+    val expressions = IdentifierResolver.<Chromosome> builder(Chromosome.class.getSimpleName()).caseInsensitive();
 
     for (val value : values) {
-      lookup.put(enforcesUppercase(value.name), value);
+      val name = enforcesUppercase(value.name);
+      lookup.put(name, value);
+
+      expressions.add(value.name(), value);
+      expressions.add(name, value);
+      expressions.add(PREFIX + name, value);
     }
 
     LOOKUP_TABLE_BY_NAME = Collections.unmodifiableMap(lookup);
+    EXPRESSION_RESOLVER = expressions.build();
   }
 
   private static String enforcesUppercase(final String input) {
@@ -115,20 +129,25 @@ public enum Chromosome {
   public static Chromosome byExpression(final String expression) {
     checkArgument(!isNullOrEmpty(expression), "The name of a chromosome must not empty or null.");
 
-    val input = enforcesUppercase(expression.trim());
+    val result = tryByExpression(expression);
+    if (!result.isPresent()) {
+      val input = enforcesUppercase(expression.trim());
+      val name =
+          (input.startsWith(PREFIX) && input.length() > PREFIX_LENGTH) ? input.substring(PREFIX_LENGTH) : input;
 
-    // Try the fast way first.
-    try {
-      return Chromosome.valueOf(input);
-    } catch (Exception e) {
-      /*
-       * This empty catch is intentional so that the function can continue on.
-       */
+      return byName(name);
     }
 
-    val name =
-        (input.startsWith(PREFIX) && input.length() > PREFIX_LENGTH) ? input.substring(PREFIX_LENGTH) : input;
-    return byName(name);
+    return result.get();
+  }
+
+  /**
+   * Exception-free variant of {@link #byExpression(String)} for per-record parsing.
+   * 
+   * @return the matching chromosome or absent if {@code expression} is {@code null} or unknown
+   */
+  public static Optional<Chromosome> tryByExpression(final String expression) {
+    return expression == null ? Optional.<Chromosome> absent() : EXPRESSION_RESOLVER.tryResolve(expression.trim());
   }
 
   @Override
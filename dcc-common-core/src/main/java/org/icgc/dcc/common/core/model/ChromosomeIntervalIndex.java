@@ -0,0 +1,471 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.core.model;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static lombok.AccessLevel.PRIVATE;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+
+/**
+ * Immutable index of closed intervals {@code [start, end]} keyed by {@link Chromosome}, answering point and range
+ * overlap queries in {@code O(log n + k)}.
+ * <p>
+ * Intervals of each chromosome are stored in flat arrays sorted by start, with an implicit augmented interval tree laid
+ * over the sorted order (each node at level {@code k} covers the {@code 2^(k+1) - 1} neighbouring slots and records
+ * their maximum end). There are no per-interval node objects, so millions of features stay compact and cache
+ * friendly. Results are returned in ascending start order.
+ * 
+ * @see <a href="https://github.com/lh3/cgranges">cgranges</a>
+ */
+@RequiredArgsConstructor(access = PRIVATE)
+public final class ChromosomeIntervalIndex<T> {
+
+  /**
+   * Constants.
+   */
+  private static final int FORMAT_VERSION = 1;
+  private static final int SCAN_LEVEL = 3;
+  private static final int MAX_STACK_DEPTH = 64;
+
+  /**
+   * Data.
+   */
+  private final Map<Chromosome, Intervals> intervals;
+
+  public static <T> Builder<T> builder() {
+    return new Builder<T>();
+  }
+
+  /**
+   * @return the total number of intervals
+   */
+  public int size() {
+    int size = 0;
+    for (val values : intervals.values()) {
+      size += values.size();
+    }
+
+    return size;
+  }
+
+  public int size(@NonNull Chromosome chromosome) {
+    val values = intervals.get(chromosome);
+    return values == null ? 0 : values.size();
+  }
+
+  /**
+   * Returns the values of all intervals containing {@code position}.
+   */
+  public List<T> overlapping(@NonNull Chromosome chromosome, int position) {
+    return overlapping(chromosome, position, position);
+  }
+
+  /**
+   * Returns the values of all intervals overlapping the closed range {@code [start, end]}.
+   */
+  public List<T> overlapping(@NonNull Chromosome chromosome, int start, int end) {
+    val results = new ArrayList<T>();
+    overlapping(chromosome, start, end, results::add);
+
+    return results;
+  }
+
+  /**
+   * Returns the values of all intervals overlapping {@code location}. A missing start or end is treated as the start or
+   * end of the chromosome respectively.
+   */
+  public List<T> overlapping(@NonNull ChromosomeLocation location) {
+    val chromosome = location.getChromosome();
+    val start = location.hasStart() ? location.getStart() : 0;
+    val end = location.hasEnd() ? location.getEnd() : chromosome.getLength();
+
+    return overlapping(chromosome, start, end);
+  }
+
+  /**
+   * Visits the values of all intervals overlapping the closed range {@code [start, end]} without materializing a
+   * result list.
+   */
+  @SuppressWarnings("unchecked")
+  public void overlapping(@NonNull Chromosome chromosome, int start, int end, @NonNull Consumer<? super T> consumer) {
+    checkArgument(start <= end, "Query start %s is after end %s", start, end);
+    val values = intervals.get(chromosome);
+    if (values == null) {
+      return;
+    }
+
+    values.query(start, end, index -> consumer.accept((T) values.values[index]));
+  }
+
+  /**
+   * Returns {@code true} if any interval overlaps the closed range {@code [start, end]}.
+   */
+  public boolean overlaps(@NonNull Chromosome chromosome, int start, int end) {
+    return count(chromosome, start, end) > 0;
+  }
+
+  public int count(@NonNull Chromosome chromosome, int start, int end) {
+    checkArgument(start <= end, "Query start %s is after end %s", start, end);
+    val values = intervals.get(chromosome);
+    if (values == null) {
+      return 0;
+    }
+
+    val count = new int[1];
+    values.query(start, end, index -> count[0]++);
+
+    return count[0];
+  }
+
+  /**
+   * Writes the index in a compact binary form: per chromosome, the delta-encoded starts and the interval lengths as
+   * variable length integers, followed by the values written by {@code writer}. The tree is rebuilt on read.
+   */
+  @SuppressWarnings("unchecked")
+  public void writeTo(@NonNull DataOutput output, @NonNull ValueWriter<? super T> writer) throws IOException {
+    output.writeByte(FORMAT_VERSION);
+    output.writeByte(intervals.size());
+    for (val entry : intervals.entrySet()) {
+      val values = entry.getValue();
+      output.writeByte(entry.getKey().ordinal());
+      writeVarInt(output, values.size());
+
+      int previousStart = 0;
+      for (int i = 0; i < values.size(); i++) {
+        writeVarInt(output, values.starts[i] - previousStart);
+        writeVarInt(output, values.ends[i] - values.starts[i]);
+        previousStart = values.starts[i];
+      }
+      for (int i = 0; i < values.size(); i++) {
+        writer.write(output, (T) values.values[i]);
+      }
+    }
+  }
+
+  /**
+   * Reads an index written by {@link #writeTo(DataOutput, ValueWriter)}.
+   */
+  public static <T> ChromosomeIntervalIndex<T> readFrom(@NonNull DataInput input, @NonNull ValueReader<? extends T> reader)
+      throws IOException {
+    val version = input.readUnsignedByte();
+    if (version != FORMAT_VERSION) {
+      throw new IOException("Unsupported chromosome interval index format version " + version);
+    }
+
+    val chromosomes = Chromosome.values();
+    val intervals = new EnumMap<Chromosome, Intervals>(Chromosome.class);
+    val count = input.readUnsignedByte();
+    for (int c = 0; c < count; c++) {
+      val chromosome = chromosomes[input.readUnsignedByte()];
+      val size = readVarInt(input);
+
+      val starts = new int[size];
+      val ends = new int[size];
+      int start = 0;
+      for (int i = 0; i < size; i++) {
+        start += readVarInt(input);
+        starts[i] = start;
+        ends[i] = start + readVarInt(input);
+      }
+
+      val values = new Object[size];
+      for (int i = 0; i < size; i++) {
+        values[i] = reader.read(input);
+      }
+
+      intervals.put(chromosome, new Intervals(starts, ends, values));
+    }
+
+    return new ChromosomeIntervalIndex<T>(intervals);
+  }
+
+  private static void writeVarInt(DataOutput output, int value) throws IOException {
+    while ((value & ~0x7F) != 0) {
+      output.writeByte((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    output.writeByte(value);
+  }
+
+  private static int readVarInt(DataInput input) throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      val b = input.readUnsignedByte();
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+
+    throw new IOException("Malformed variable length integer");
+  }
+
+  /**
+   * Writes a single value of the compact serialized form.
+   */
+  public interface ValueWriter<T> {
+
+    void write(DataOutput output, T value) throws IOException;
+
+  }
+
+  /**
+   * Reads a single value of the compact serialized form.
+   */
+  public interface ValueReader<T> {
+
+    T read(DataInput input) throws IOException;
+
+  }
+
+  /**
+   * Bulk loader. Intervals may be added in any order; sorting and tree construction happen once in {@link #build()}.
+   */
+  public static final class Builder<T> {
+
+    private final Map<Chromosome, Loader> loaders = new EnumMap<Chromosome, Loader>(Chromosome.class);
+
+    private Builder() {
+    }
+
+    /**
+     * Adds the closed interval {@code [start, end]}.
+     */
+    public Builder<T> add(@NonNull Chromosome chromosome, int start, int end, T value) {
+      checkArgument(start >= 0, "Interval start %s must not be negative", start);
+      checkArgument(start <= end, "Interval start %s is after end %s", start, end);
+
+      Loader loader = loaders.get(chromosome);
+      if (loader == null) {
+        loader = new Loader();
+        loaders.put(chromosome, loader);
+      }
+
+      loader.add(start, end, value);
+      return this;
+    }
+
+    /**
+     * Adds {@code location}. A missing start or end is treated as the start or end of the chromosome respectively.
+     */
+    public Builder<T> add(@NonNull ChromosomeLocation location, T value) {
+      val chromosome = location.getChromosome();
+      val start = location.hasStart() ? location.getStart() : 0;
+      val end = location.hasEnd() ? location.getEnd() : chromosome.getLength();
+
+      return add(chromosome, start, end, value);
+    }
+
+    public ChromosomeIntervalIndex<T> build() {
+      val intervals = new EnumMap<Chromosome, Intervals>(Chromosome.class);
+      for (val entry : loaders.entrySet()) {
+        intervals.put(entry.getKey(), entry.getValue().build());
+      }
+
+      return new ChromosomeIntervalIndex<T>(intervals);
+    }
+
+  }
+
+  /**
+   * Growable, unsorted interval buffer of a single chromosome.
+   */
+  private static final class Loader {
+
+    private int size;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private Object[] values = new Object[16];
+
+    private void add(int start, int end, Object value) {
+      if (size == starts.length) {
+        val capacity = size * 2;
+        starts = Arrays.copyOf(starts, capacity);
+        ends = Arrays.copyOf(ends, capacity);
+        values = Arrays.copyOf(values, capacity);
+      }
+
+      starts[size] = start;
+      ends[size] = end;
+      values[size] = value;
+      size++;
+    }
+
+    private Intervals build() {
+      // Sort by (start, insertion order) using packed keys to avoid boxing
+      val keys = new long[size];
+      for (int i = 0; i < size; i++) {
+        keys[i] = ((long) starts[i] << 32) | i;
+      }
+      Arrays.sort(keys);
+
+      val sortedStarts = new int[size];
+      val sortedEnds = new int[size];
+      val sortedValues = new Object[size];
+      for (int i = 0; i < size; i++) {
+        val j = (int) keys[i];
+        sortedStarts[i] = starts[j];
+        sortedEnds[i] = ends[j];
+        sortedValues[i] = values[j];
+      }
+
+      return new Intervals(sortedStarts, sortedEnds, sortedValues);
+    }
+
+  }
+
+  /**
+   * Intervals of a single chromosome sorted by start, with the implicit interval tree in {@code maxEnds}.
+   */
+  private static final class Intervals {
+
+    private final int[] starts;
+    private final int[] ends;
+    private final Object[] values;
+    private final int[] maxEnds;
+    private final int maxLevel;
+
+    private Intervals(int[] starts, int[] ends, Object[] values) {
+      this.starts = starts;
+      this.ends = ends;
+      this.values = values;
+      this.maxEnds = new int[starts.length];
+      this.maxLevel = index();
+    }
+
+    private int size() {
+      return starts.length;
+    }
+
+    /**
+     * Computes the maximum end of every implicit tree node bottom up.
+     * 
+     * @return the level of the root
+     */
+    private int index() {
+      val n = starts.length;
+      if (n == 0) {
+        return -1;
+      }
+
+      int lastIndex = 0;
+      int last = 0;
+      for (int i = 0; i < n; i += 2) {
+        lastIndex = i;
+        last = maxEnds[i] = ends[i];
+      }
+
+      int k = 1;
+      for (; 1 << k <= n; k++) {
+        val x = 1 << (k - 1);
+        val first = (x << 1) - 1;
+        val step = x << 2;
+        for (int i = first; i < n; i += step) {
+          val left = maxEnds[i - x];
+          val right = i + x < n ? maxEnds[i + x] : last;
+          maxEnds[i] = Math.max(ends[i], Math.max(left, right));
+        }
+
+        lastIndex = ((lastIndex >> k) & 1) != 0 ? lastIndex - x : lastIndex + x;
+        if (lastIndex < n && maxEnds[lastIndex] > last) {
+          last = maxEnds[lastIndex];
+        }
+      }
+
+      return k - 1;
+    }
+
+    /**
+     * Visits, in ascending order, the indexes of all intervals overlapping the closed range {@code [start, end]}.
+     */
+    private void query(int start, int end, IndexConsumer consumer) {
+      val n = starts.length;
+      if (n == 0) {
+        return;
+      }
+
+      // Explicit stack of (node, level, visited) triples
+      val nodes = new int[MAX_STACK_DEPTH];
+      val levels = new int[MAX_STACK_DEPTH];
+      val visited = new boolean[MAX_STACK_DEPTH];
+      int top = 0;
+
+      nodes[top] = (1 << maxLevel) - 1;
+      levels[top] = maxLevel;
+      visited[top++] = false;
+
+      while (top > 0) {
+        top--;
+        val x = nodes[top];
+        val k = levels[top];
+
+        if (k <= SCAN_LEVEL) {
+          // Small subtree: linear scan
+          val first = x >> k << k;
+          val last = Math.min(first + (1 << (k + 1)) - 1, n);
+          for (int i = first; i < last && starts[i] <= end; i++) {
+            if (ends[i] >= start) {
+              consumer.accept(i);
+            }
+          }
+        } else if (!visited[top]) {
+          val left = x - (1 << (k - 1));
+
+          nodes[top] = x;
+          levels[top] = k;
+          visited[top++] = true;
+
+          if (left >= n || maxEnds[left] >= start) {
+            nodes[top] = left;
+            levels[top] = k - 1;
+            visited[top++] = false;
+          }
+        } else if (x < n && starts[x] <= end) {
+          if (ends[x] >= start) {
+            consumer.accept(x);
+          }
+
+          nodes[top] = x + (1 << (k - 1));
+          levels[top] = k - 1;
+          visited[top++] = false;
+        }
+      }
+    }
+
+  }
+
+  private interface IndexConsumer {
+
+    void accept(int index);
+
+  }
+
+}
@@ -30,6 +30,8 @@ import org.icgc.dcc.common.core.model.FeatureTypes.FeatureType;
 import org.icgc.dcc.common.core.model.FileTypes.FileSubType;
 import org.icgc.dcc.common.core.model.FileTypes.FileType;
 
+import com.google.common.base.Optional;
+
 /**
  * Represents a (the only one for now) type of clinical data, see {@link FeatureType} for the observation counterpart.
  * <p>
@@ -48,6 +50,9 @@ public enum ClinicalType implements DataType, Identifiable {
   // @Override
   private final String id;
 
+  private static final IdentifierResolver<ClinicalType> ID_RESOLVER =
+      IdentifierResolver.byId(ClinicalType.class, values());
+
   @Override
   public boolean isClinicalType() {
     return true;
@@ -87,15 +92,14 @@ public enum ClinicalType implements DataType, Identifiable {
    * Returns an enum matching the type name provided.
    */
   public static DataType from(String typeName) {
-    if (typeName.equals(CLINICAL_CORE_TYPE.getId())) {
-      return CLINICAL_CORE_TYPE;
-    }
-    if (typeName.equals(CLINICAL_SUPPLEMENTAL_TYPE.getId())) {
-      return CLINICAL_SUPPLEMENTAL_TYPE;
-    }
-
-    throw new IllegalArgumentException(
-        "Unknown " + ClinicalType.class.getSimpleName() + "  for type name'" + typeName + "'");
+    return ID_RESOLVER.resolve(typeName);
+  }
+
+  /**
+   * Exception-free variant of {@link #from(String)} for per-record parsing.
+   */
+  public static Optional<ClinicalType> tryFrom(String typeName) {
+    return ID_RESOLVER.tryResolve(typeName);
   }
 
   public Set<FileType> getOptionalDataTypeFileTypes() {
@@ -21,11 +21,11 @@ import static lombok.AccessLevel.PRIVATE;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
-import lombok.val;
 
 import org.icgc.dcc.common.core.util.IdentifiableSerializer;
 
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.google.common.base.Optional;
 
 @Getter
 @RequiredArgsConstructor(access = PRIVATE)
@@ -77,16 +77,20 @@ public enum ConsequenceType implements Identifiable {
   MISSENSE_VARIANT("missense_variant"),
   FRAMESHIFT_VARIANT("frameshift_variant");
 
+  private static final IdentifierResolver<ConsequenceType> ID_RESOLVER =
+      IdentifierResolver.byId(ConsequenceType.class, values());
+
   private final String id;
 
   public static ConsequenceType byId(@NonNull String id) {
-    for (val value : values()) {
-      if (value.getId().equals(id)) {
-        return value;
-      }
-    }
+    return ID_RESOLVER.resolve(id);
+  }
 
-    throw new IllegalArgumentException("Unknown id '" + id + "'  for " + ConsequenceType.class);
+  /**
+   * Exception-free variant of {@link #byId(String)} for per-record parsing.
+   */
+  public static Optional<ConsequenceType> tryById(String id) {
+    return ID_RESOLVER.tryResolve(id);
   }
 
   public int getPriority() {
@@ -37,6 +37,7 @@ import org.icgc.dcc.common.core.model.FeatureTypes.FeatureType;
 import org.icgc.dcc.common.core.model.FileTypes.FileType;
 
 import com.google.common.base.Function;
+import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
@@ -106,21 +107,22 @@ public interface DataType extends Identifiable {
      * Returns an enum matching the type like "donor", "ssm", "meth_seq", ...
      */
     public static DataType from(String typeName) {
-      DataType type = null;
-      try {
-        return FeatureType.from(typeName);
-      } catch (IllegalArgumentException e) {
-        // Do nothing
-      }
-      try {
-        return ClinicalType.from(typeName);
-      } catch (IllegalArgumentException e) {
-        // Do nothing
-      }
+      val type = tryFrom(typeName);
+      checkArgument(type.isPresent(), "Could not find a match for type '%s'", typeName);
+
+      return type.get();
+    }
 
-      checkArgument(type != null, "Could not find a match for type '%s'", typeName);
+    /**
+     * Exception-free variant of {@link #from(String)} for per-record parsing.
+     */
+    public static Optional<DataType> tryFrom(String typeName) {
+      val featureType = FeatureType.tryFrom(typeName);
+      if (featureType.isPresent()) {
+        return Optional.<DataType> of(featureType.get());
+      }
 
-      return null;
+      return Optional.<DataType> fromNullable(ClinicalType.tryFrom(typeName).orNull());
     }
 
     /**
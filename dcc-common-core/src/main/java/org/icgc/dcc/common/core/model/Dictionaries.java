@@ -17,10 +17,8 @@
  */
 package org.icgc.dcc.common.core.model;
 
-import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.Iterables.find;
-import static com.google.common.collect.Iterables.transform;
 import static com.google.common.collect.Iterables.tryFind;
 import static com.google.common.collect.Maps.newTreeMap;
 import static lombok.AccessLevel.PRIVATE;
@@ -29,7 +27,6 @@ import static org.icgc.dcc.common.core.util.Optionals.ABSENT_STRING_MAP;
 
 import java.io.Serializable;
 import java.util.Map;
-import java.util.Set;
 
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
@@ -118,20 +115,6 @@ public class Dictionaries {
         ABSENT_STRING;
   }
 
-  private static Set<FileType> getFileTypes(@NonNull final JsonNode dictionaryRoot) {
-
-    return ImmutableSet.<FileType> copyOf(transform(
-        dictionaryRoot.path(FILE_SCHEMATA_KEY),
-        new Function<JsonNode, FileType>() {
-
-          @Override
-          public FileType apply(JsonNode fileSchema) {
-            return getFileType(fileSchema, FILE_SCHEMA_NAME_KEY);
-          }
-
-        }));
-  }
-
   private static JsonNode getFileSchema(
       @NonNull final JsonNode dictionaryRoot,
       @NonNull final FileType fileType) {
@@ -166,22 +149,6 @@ public class Dictionaries {
         });
   }
 
-  private static Set<String> getFieldNames(
-      @NonNull final JsonNode dictionaryRoot,
-      @NonNull final FileType fileType) {
-    return ImmutableSet.<String> copyOf(transform(
-        getFileSchema(dictionaryRoot, fileType)
-            .path(FIELDS_KEY),
-        new Function<JsonNode, String>() {
-
-          @Override
-          public String apply(JsonNode field) {
-            return getString(field, FIELD_NAME_KEY);
-          }
-
-        }));
-  }
-
   private static JsonNode getRestrictions(
       @NonNull final JsonNode dictionaryRoot,
       @NonNull final FileType fileType,
@@ -214,54 +181,7 @@ public class Dictionaries {
   public static Map<String, String> getMapping(
       @NonNull final JsonNode codeListsRoot,
       @NonNull final String codeListName) {
-    checkArgument(codeListsRoot.isArray(), // By design
-        "Codelist json file is expected to have an array as root node, instead got: '%s'",
-        codeListsRoot.getNodeType());
-    val codeListTerms = getCodeListTerms(codeListsRoot, codeListName);
-    checkState(codeListTerms.isArray()); // By design
-
-    return SerializableMaps.transformListToMap(
-        codeListTerms,
-        new Function<JsonNode, String>() {
-
-          @Override
-          public String apply(JsonNode term) {
-            return getString(term, CODELIST_CODE_KEY);
-          }
-
-        },
-        new Function<JsonNode, String>() {
-
-          @Override
-          public String apply(JsonNode term) {
-            return getString(term, CODELIST_VALUE_KEY);
-          }
-
-        });
-  }
-
-  private static JsonNode getCodeListTerms(
-      @NonNull final JsonNode codeListsRoot,
-      @NonNull final String codeListName) {
-
-    return getCodeList(codeListsRoot, codeListName)
-        .path(TERMS_KEY);
-  }
-
-  private static JsonNode getCodeList(
-      @NonNull final JsonNode codeListsRoot,
-      @NonNull final String codeListName) {
-
-    return find(
-        codeListsRoot,
-        new Predicate<JsonNode>() {
-
-          @Override
-          public boolean apply(JsonNode codeList) {
-            return codeListName.equals(getString(codeList, CODELIST_NAME_KEY));
-          }
-
-        });
+    return DictionaryIndex.indexCodeList(codeListsRoot, codeListName).getCodeToValue();
   }
 
   public static Optional<Map<String, String>> getMapping(
@@ -282,12 +202,12 @@ public class Dictionaries {
         ABSENT_STRING_MAP;
   }
 
-  private static FileType getFileType(
-      @NonNull final JsonNode node,
-      @NonNull final String key) {
-
-    return FileType.from(
-        getString(node, key));
+  /**
+   * Indexes the supplied dictionary in a single pass. The helpers above only scan the parts of the dictionary they need,
+   * so callers performing repeated lookups should build the index once and query it directly instead.
+   */
+  public static DictionaryIndex getIndex(@NonNull final JsonNode dictionaryRoot) {
+    return DictionaryIndex.of(dictionaryRoot);
   }
 
   private static String getString(
@@ -330,29 +250,24 @@ public class Dictionaries {
 
     }
 
-    /**
-     * TODO: needs cleanup
-     */
     public static CodeListModel getInstance(
         @NonNull final JsonNode dictionaryRoot,
         @NonNull final JsonNode codeListsRoot) {
 
       CodeListModel mappingModel = new CodeListModel();
 
-      for (val fileType : getFileTypes(dictionaryRoot)) {
+      val index = DictionaryIndex.of(dictionaryRoot, codeListsRoot);
+      for (val fileType : index.getFileTypes()) {
 
         SchemaMapping schemaMapping = new SchemaMapping();
         mappingModel.fileTypeToSchemaMapping.put(fileType, schemaMapping);
 
-        for (val fieldName : getFieldNames(dictionaryRoot, fileType)) {
-          val optionalCodeListName = getCodeListName(dictionaryRoot, fileType, fieldName);
+        for (val fieldName : index.getFieldNames(fileType)) {
+          val optionalCodeToValue = index.getCodeToValue(fileType, fieldName);
           schemaMapping.fieldToOptionalMapping.put(
               fieldName,
-              optionalCodeListName.isPresent() ?
-                  Optional.of(FieldMapping.getInstance(
-                      getMapping(
-                          codeListsRoot,
-                          optionalCodeListName.get()))) :
+              optionalCodeToValue.isPresent() ?
+                  Optional.of(FieldMapping.getInstance(optionalCodeToValue.get())) :
                   Optional.<FieldMapping> absent()
               );
         }
@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.core.model;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static lombok.AccessLevel.PRIVATE;
+import static org.icgc.dcc.common.core.model.Dictionaries.CODELIST_CODE_KEY;
+import static org.icgc.dcc.common.core.model.Dictionaries.CODELIST_KEY;
+import static org.icgc.dcc.common.core.model.Dictionaries.CODELIST_NAME_KEY;
+import static org.icgc.dcc.common.core.model.Dictionaries.CODELIST_VALUE_KEY;
+import static org.icgc.dcc.common.core.model.Dictionaries.CONFIG_KEY;
+import static org.icgc.dcc.common.core.model.Dictionaries.CONFIG_NAME_KEY;
+import static org.icgc.dcc.common.core.model.Dictionaries.FIELDS_KEY;
+import static org.icgc.dcc.common.core.model.Dictionaries.FIELD_NAME_KEY;
+import static org.icgc.dcc.common.core.model.Dictionaries.FILE_SCHEMATA_KEY;
+import static org.icgc.dcc.common.core.model.Dictionaries.FILE_SCHEMA_NAME_KEY;
+import static org.icgc.dcc.common.core.model.Dictionaries.FILE_SCHEMA_PATTERN_KEY;
+import static org.icgc.dcc.common.core.model.Dictionaries.RESTRICTIONS_KEY;
+import static org.icgc.dcc.common.core.model.Dictionaries.TYPE_KEY;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+
+import org.icgc.dcc.common.core.model.FileTypes.FileType;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+
+/**
+ * Immutable, pre-indexed view of a dictionary and (optionally) its code lists.
+ * <p>
+ * Built once from the JSON with a single pass over each document, after which every lookup is a hash map access.
+ * Lookups of unknown file types, fields or code lists throw {@link NoSuchElementException}, consistent with the
+ * {@link Dictionaries} helpers.
+ */
+@RequiredArgsConstructor(access = PRIVATE)
+public final class DictionaryIndex implements Serializable {
+
+  /**
+   * Indexes.
+   */
+  @Getter
+  private final String version;
+  @Getter
+  private final Map<FileType, String> patterns;
+  private final Map<FileType, FileSchema> fileSchemata;
+  private final Map<String, CodeList> codeLists;
+
+  public static DictionaryIndex of(@NonNull JsonNode dictionaryRoot) {
+    return build(dictionaryRoot, ImmutableMap.<String, CodeList> of());
+  }
+
+  public static DictionaryIndex of(@NonNull JsonNode dictionaryRoot, @NonNull JsonNode codeListsRoot) {
+    return build(dictionaryRoot, indexCodeLists(codeListsRoot));
+  }
+
+  public Set<FileType> getFileTypes() {
+    return fileSchemata.keySet();
+  }
+
+  public String getPattern(@NonNull FileType fileType) {
+    return getFileSchema(fileType).getPattern();
+  }
+
+  /**
+   * @return the field names of the file type in dictionary order
+   */
+  public Set<String> getFieldNames(@NonNull FileType fileType) {
+    return getFileSchema(fileType).getFieldNames();
+  }
+
+  /**
+   * Returns the name of the code list restricting the given field, if any.
+   */
+  public Optional<String> getCodeListName(@NonNull FileType fileType, @NonNull String fieldName) {
+    val fileSchema = getFileSchema(fileType);
+    if (!fileSchema.getFieldNames().contains(fieldName)) {
+      throw new NoSuchElementException("No field '" + fieldName + "' in " + fileType);
+    }
+
+    return Optional.fromNullable(fileSchema.getCodeListNames().get(fieldName));
+  }
+
+  public Map<String, String> getCodeToValue(@NonNull String codeListName) {
+    return getCodeList(codeListName).getCodeToValue();
+  }
+
+  public Map<String, String> getValueToCode(@NonNull String codeListName) {
+    return getCodeList(codeListName).getValueToCode();
+  }
+
+  /**
+   * Returns the code to value translation of the given field, if it has a code list restriction.
+   */
+  public Optional<Map<String, String>> getCodeToValue(@NonNull FileType fileType, @NonNull String fieldName) {
+    val codeListName = getCodeListName(fileType, fieldName);
+
+    return codeListName.isPresent() ?
+        Optional.of(getCodeToValue(codeListName.get())) :
+        Optional.<Map<String, String>> absent();
+  }
+
+  /**
+   * Returns the value to code translation of the given field, if it has a code list restriction.
+   */
+  public Optional<Map<String, String>> getValueToCode(@NonNull FileType fileType, @NonNull String fieldName) {
+    val codeListName = getCodeListName(fileType, fieldName);
+
+    return codeListName.isPresent() ?
+        Optional.of(getValueToCode(codeListName.get())) :
+        Optional.<Map<String, String>> absent();
+  }
+
+  private FileSchema getFileSchema(FileType fileType) {
+    return getRequired(fileSchemata, fileType, "file schema", "dictionary");
+  }
+
+  private CodeList getCodeList(String codeListName) {
+    return getRequired(codeLists, codeListName, "code list", "code lists");
+  }
+
+  static Map<String, CodeList> indexCodeLists(@NonNull JsonNode codeListsRoot) {
+    checkArgument(codeListsRoot.isArray(), // By design
+        "Codelist json file is expected to have an array as root node, instead got: '%s'",
+        codeListsRoot.getNodeType());
+
+    val codeLists = ImmutableMap.<String, CodeList> builder();
+    for (val codeList : codeListsRoot) {
+      codeLists.put(getString(codeList, CODELIST_NAME_KEY), indexCodeList(codeList));
+    }
+
+    return codeLists.build();
+  }
+
+  /**
+   * Indexes only the named code list, for one-off lookups.
+   */
+  static CodeList indexCodeList(@NonNull JsonNode codeListsRoot, @NonNull String codeListName) {
+    checkArgument(codeListsRoot.isArray(), // By design
+        "Codelist json file is expected to have an array as root node, instead got: '%s'",
+        codeListsRoot.getNodeType());
+
+    for (val codeList : codeListsRoot) {
+      if (codeListName.equals(getString(codeList, CODELIST_NAME_KEY))) {
+        return indexCodeList(codeList);
+      }
+    }
+
+    throw new NoSuchElementException("No code list '" + codeListName + "' in code lists");
+  }
+
+  private static CodeList indexCodeList(JsonNode codeList) {
+    val codeToValue = ImmutableMap.<String, String> builder();
+    val valueToCode = Maps.<String, String> newLinkedHashMap();
+    for (val term : codeList.path(Dictionaries.TERMS_KEY)) {
+      val code = getString(term, CODELIST_CODE_KEY);
+      val value = getString(term, CODELIST_VALUE_KEY);
+      codeToValue.put(code, value);
+      if (!valueToCode.containsKey(value)) {
+        valueToCode.put(value, code);
+      }
+    }
+
+    return new CodeList(codeToValue.build(), ImmutableMap.copyOf(valueToCode));
+  }
+
+  private static DictionaryIndex build(JsonNode dictionaryRoot, Map<String, CodeList> codeLists) {
+    val patterns = ImmutableMap.<FileType, String> builder();
+    val fileSchemata = ImmutableMap.<FileType, FileSchema> builder();
+    for (val fileSchema : dictionaryRoot.path(FILE_SCHEMATA_KEY)) {
+      val fileType = FileType.from(getString(fileSchema, FILE_SCHEMA_NAME_KEY));
+      val pattern = getString(fileSchema, FILE_SCHEMA_PATTERN_KEY);
+
+      val fieldNames = ImmutableSet.<String> builder();
+      val codeListNames = ImmutableMap.<String, String> builder();
+      for (val field : fileSchema.path(FIELDS_KEY)) {
+        val fieldName = getString(field, FIELD_NAME_KEY);
+        fieldNames.add(fieldName);
+
+        // There should be only 1 if any
+        for (val restriction : field.path(RESTRICTIONS_KEY)) {
+          if (CODELIST_KEY.equals(getString(restriction, TYPE_KEY))) {
+            codeListNames.put(fieldName, getString(restriction.path(CONFIG_KEY), CONFIG_NAME_KEY));
+            break;
+          }
+        }
+      }
+
+      patterns.put(fileType, pattern);
+      fileSchemata.put(fileType, new FileSchema(pattern, fieldNames.build(), codeListNames.build()));
+    }
+
+    return new DictionaryIndex(
+        Dictionaries.getDictionaryVersion(dictionaryRoot),
+        patterns.build(),
+        fileSchemata.build(),
+        codeLists);
+  }
+
+  private static <K, V> V getRequired(Map<K, V> map, K key, String kind, Object container) {
+    val value = map.get(key);
+    if (value == null) {
+      throw new NoSuchElementException("No " + kind + " '" + key + "' in " + container);
+    }
+
+    return value;
+  }
+
+  private static String getString(JsonNode node, String key) {
+    return node.path(key).asText();
+  }
+
+  @Getter
+  @RequiredArgsConstructor(access = PRIVATE)
+  private static final class FileSchema implements Serializable {
+
+    private final String pattern;
+    private final Set<String> fieldNames;
+    private final Map<String, String> codeListNames;
+
+  }
+
+  @Getter
+  @RequiredArgsConstructor(access = PRIVATE)
+  static final class CodeList implements Serializable {
+
+    private final Map<String, String> codeToValue;
+    private final Map<String, String> valueToCode;
+
+  }
+
+}
@@ -103,6 +103,12 @@ public class FeatureTypes {
 
     private final SummaryType summaryType;
 
+    private static final IdentifierResolver<FeatureType> TYPE_NAME_RESOLVER =
+        IdentifierResolver.<FeatureType> builder(FeatureType.class.getSimpleName())
+            .caseInsensitive()
+            .addAll(values(), FeatureType::getId)
+            .build();
+
     @Override
     public boolean isClinicalType() {
       return false;
@@ -231,7 +237,14 @@ public class FeatureTypes {
      * Returns an enum matching the type like "ssm", "meth_seq", ...
      */
     public static FeatureType from(String typeName) {
-      return valueOf(typeName.toUpperCase() + TYPE_SUFFIX);
+      return TYPE_NAME_RESOLVER.resolve(typeName);
+    }
+
+    /**
+     * Exception-free variant of {@link #from(String)} for per-record parsing.
+     */
+    public static Optional<FeatureType> tryFrom(String typeName) {
+      return TYPE_NAME_RESOLVER.tryResolve(typeName);
     }
 
     /**
@@ -28,6 +28,7 @@ import static org.icgc.dcc.common.core.model.FileTypes.FileSubType.META_SUBTYPE;
 import static org.icgc.dcc.common.core.model.FileTypes.FileSubType.PRIMARY_SUBTYPE;
 import static org.icgc.dcc.common.core.model.FileTypes.FileSubType.SECONDARY_SUBTYPE;
 import static org.icgc.dcc.common.core.util.Strings2.getFirstCharacter;
+import static org.icgc.dcc.common.core.util.Strings2.removeTarget;
 
 import java.util.List;
 import java.util.Set;
@@ -37,6 +38,7 @@ import org.icgc.dcc.common.core.model.FeatureTypes.FeatureType;
 
 import com.google.common.base.Function;
 import com.google.common.base.Joiner;
+import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
 import com.google.common.collect.ImmutableSet;
 
@@ -286,6 +288,11 @@ public final class FileTypes {
     private static final String PROBES = "probes";
     private static final String TYPE_SUFFIX = "_TYPE";
     private static final Joiner JOINER = Joiner.on("_");
+    private static final IdentifierResolver<FileType> TYPE_NAME_RESOLVER =
+        IdentifierResolver.<FileType> builder(FileType.class.getSimpleName())
+            .caseInsensitive()
+            .addAll(values(), type -> removeTarget(type.name(), TYPE_SUFFIX).toLowerCase())
+            .build();
 
     public static final Set<FileType> MANDATORY_TYPES = newLinkedHashSet(
         filter(
@@ -393,7 +400,14 @@ public final class FileTypes {
      * TODO: phase out as Strings are replaced with enums.
      */
     public static FileType from(String typeName) {
-      return valueOf(typeName.toUpperCase() + TYPE_SUFFIX);
+      return TYPE_NAME_RESOLVER.resolve(typeName);
+    }
+
+    /**
+     * Exception-free variant of {@link #from(String)} for per-record parsing.
+     */
+    public static Optional<FileType> tryFrom(String typeName) {
+      return TYPE_NAME_RESOLVER.tryResolve(typeName);
     }
 
     public static Function<FileType, FileSubType> getGetSubTypeFunction() {
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.core.model;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static lombok.AccessLevel.PRIVATE;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Resolves model values from their string identifiers through a precomputed immutable hash table.
+ * <p>
+ * Meant for per-record parsing of identifiers: unknown identifiers are reported through {@link Optional} or a sentinel
+ * rather than exceptions, and case-insensitive tables try the identifier as given before upper-casing it, so canonical
+ * input costs a single hash lookup.
+ */
+@RequiredArgsConstructor(access = PRIVATE)
+public final class IdentifierResolver<T> {
+
+  /**
+   * Configuration.
+   */
+  @NonNull
+  private final String description;
+  private final boolean caseInsensitive;
+
+  /**
+   * State.
+   */
+  @NonNull
+  private final Map<String, T> lookup;
+
+  /**
+   * Creates a case-sensitive resolver keyed by {@link Identifiable#getId()}.
+   */
+  public static <T extends Identifiable> IdentifierResolver<T> byId(@NonNull Class<?> type, @NonNull T[] values) {
+    return IdentifierResolver.<T> builder(type.getSimpleName()).addAll(values, Identifiable::getId).build();
+  }
+
+  public static <T> Builder<T> builder(@NonNull String description) {
+    return new Builder<T>(description);
+  }
+
+  /**
+   * @return the matching value or absent if {@code id} is {@code null} or unknown
+   */
+  public Optional<T> tryResolve(String id) {
+    return Optional.fromNullable(resolve(id, null));
+  }
+
+  /**
+   * @return the matching value or {@code defaultValue} if {@code id} is {@code null} or unknown
+   */
+  public T resolve(String id, T defaultValue) {
+    if (id == null) {
+      return defaultValue;
+    }
+
+    T value = lookup.get(id);
+    if (value == null && caseInsensitive) {
+      value = lookup.get(id.toUpperCase());
+    }
+
+    return value == null ? defaultValue : value;
+  }
+
+  /**
+   * @throws IllegalArgumentException if {@code id} is unknown
+   */
+  public T resolve(@NonNull String id) {
+    val value = resolve(id, null);
+    checkArgument(value != null, "Unknown %s '%s'", description, id);
+
+    return value;
+  }
+
+  public boolean contains(String id) {
+    return resolve(id, null) != null;
+  }
+
+  @RequiredArgsConstructor(access = PRIVATE)
+  public static final class Builder<T> {
+
+    @NonNull
+    private final String description;
+    private final Map<String, T> lookup = new HashMap<String, T>();
+    private boolean caseInsensitive;
+
+    /**
+     * Makes the resolver ignore case. Must be called before adding any identifier.
+     */
+    public Builder<T> caseInsensitive() {
+      checkArgument(lookup.isEmpty(), "Case sensitivity must be set before adding identifiers");
+      this.caseInsensitive = true;
+      return this;
+    }
+
+    /**
+     * Registers {@code id} (or an alias) for {@code value}. Identifiers must resolve to a single value.
+     */
+    public Builder<T> add(@NonNull String id, @NonNull T value) {
+      put(id, value);
+      if (caseInsensitive) {
+        put(id.toUpperCase(), value);
+      }
+
+      return this;
+    }
+
+    public Builder<T> addAll(@NonNull T[] values, @NonNull Function<? super T, String> idFunction) {
+      for (val value : values) {
+        add(idFunction.apply(value), value);
+      }
+
+      return this;
+    }
+
+    public IdentifierResolver<T> build() {
+      return new IdentifierResolver<T>(description, caseInsensitive, ImmutableMap.copyOf(lookup));
+    }
+
+    private void put(String id, T value) {
+      val previous = lookup.put(id, value);
+      checkArgument(previous == null || previous.equals(value),
+          "Identifier '%s' of %s is ambiguous between '%s' and '%s'", id, description, previous, value);
+    }
+
+  }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.core.report;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe counterpart of {@link BaseReport} whose counters are striped, so that many threads can share a single
+ * report on hot paths without contending on a single memory location.
+ */
+public abstract class ConcurrentBaseReport implements Report {
+
+  /**
+   * Statistics.
+   */
+  private final LongAdder infoCount = new LongAdder();
+  private final LongAdder warningCount = new LongAdder();
+  private final LongAdder errorCount = new LongAdder();
+  private final LongAdder exceptionCount = new LongAdder();
+
+  @Override
+  public void addInfo(String info, Object... args) {
+    infoCount.increment();
+  }
+
+  @Override
+  public void addWarning(String warning, Object... args) {
+    warningCount.increment();
+  }
+
+  @Override
+  public void addError(String error, Object... args) {
+    errorCount.increment();
+  }
+
+  @Override
+  public void addException(Exception e) {
+    exceptionCount.increment();
+  }
+
+  @Override
+  public int getInfoCount() {
+    return infoCount.intValue();
+  }
+
+  @Override
+  public int getWarningCount() {
+    return warningCount.intValue();
+  }
+
+  @Override
+  public int getErrorCount() {
+    return errorCount.intValue();
+  }
+
+  @Override
+  public int getExceptionCount() {
+    return exceptionCount.intValue();
+  }
+
+}
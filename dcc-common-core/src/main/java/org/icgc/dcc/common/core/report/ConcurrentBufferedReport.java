@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.core.report;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import lombok.Getter;
+import lombok.ToString;
+import lombok.val;
+
+/**
+ * Thread-safe counterpart of {@link BufferedReport} meant to be shared by the parallel workers of a job.
+ * <p>
+ * Each entry type is retained in its own lock-free buffer holding the first {@code maxEntries} entries; later entries
+ * are only counted. Accessors return point in time snapshots.
+ */
+@ToString
+public class ConcurrentBufferedReport extends ConcurrentBaseReport {
+
+  /**
+   * Constants.
+   */
+  private static final int DEFAULT_MAX_ENTRIES = 100;
+
+  /**
+   * Configuration.
+   */
+  @Getter
+  private final int maxEntries;
+
+  /**
+   * State.
+   */
+  private final BoundedBuffer<String> infos;
+  private final BoundedBuffer<String> warnings;
+  private final BoundedBuffer<String> errors;
+  private final BoundedBuffer<Exception> exceptions;
+  private final Map<String, Stopwatch> timers = Collections.synchronizedMap(new LinkedHashMap<>());
+
+  public ConcurrentBufferedReport() {
+    this(DEFAULT_MAX_ENTRIES);
+  }
+
+  public ConcurrentBufferedReport(int maxEntries) {
+    this.maxEntries = maxEntries;
+    this.infos = new BoundedBuffer<>(maxEntries);
+    this.warnings = new BoundedBuffer<>(maxEntries);
+    this.errors = new BoundedBuffer<>(maxEntries);
+    this.exceptions = new BoundedBuffer<>(maxEntries);
+  }
+
+  @Override
+  public void addInfo(String info, Object... args) {
+    super.addInfo(info, args);
+    if (!infos.isFull()) {
+      infos.add(formatMessage(info, args));
+    }
+  }
+
+  @Override
+  public void addWarning(String warning, Object... args) {
+    super.addWarning(warning, args);
+    if (!warnings.isFull()) {
+      warnings.add(formatMessage(warning, args));
+    }
+  }
+
+  @Override
+  public void addError(String error, Object... args) {
+    super.addError(error, args);
+    if (!errors.isFull()) {
+      errors.add(formatMessage(error, args));
+    }
+  }
+
+  @Override
+  public void addException(Exception e) {
+    super.addException(e);
+    exceptions.add(e);
+  }
+
+  @Override
+  public void addTimer(Stopwatch timer, String name) {
+    timers.put(name, timer);
+  }
+
+  @Override
+  public void addTimer(Stopwatch timer) {
+    addTimer(timer, "main");
+  }
+
+  public List<String> getInfos() {
+    return infos.snapshot();
+  }
+
+  public List<String> getWarnings() {
+    return warnings.snapshot();
+  }
+
+  public List<String> getErrors() {
+    return errors.snapshot();
+  }
+
+  public List<Exception> getExceptions() {
+    return exceptions.snapshot();
+  }
+
+  /**
+   * In insertion order, as with {@link BufferedReport}.
+   */
+  public Map<String, Stopwatch> getTimers() {
+    synchronized (timers) {
+      return ImmutableMap.copyOf(timers);
+    }
+  }
+
+  private static String formatMessage(String message, Object... args) {
+    if (args.length == 0) {
+      return message;
+    }
+
+    try {
+      return String.format(message, args);
+    } catch (Exception e) {
+      return message;
+    }
+  }
+
+  /**
+   * Fixed capacity, append-only buffer. Writers claim a slot with a single atomic increment and never block; once full,
+   * additions are dropped without touching the shared counter again.
+   */
+  @ToString(of = "size")
+  private static final class BoundedBuffer<E> {
+
+    private final AtomicReferenceArray<E> entries;
+    private final AtomicInteger size = new AtomicInteger();
+
+    private BoundedBuffer(int capacity) {
+      this.entries = new AtomicReferenceArray<>(capacity);
+    }
+
+    private boolean isFull() {
+      return size.get() >= entries.length();
+    }
+
+    private void add(E entry) {
+      if (isFull()) {
+        return;
+      }
+
+      val slot = size.getAndIncrement();
+      if (slot < entries.length()) {
+        entries.set(slot, entry);
+      }
+    }
+
+    /**
+     * Entries whose slot is claimed but not yet written are skipped.
+     */
+    private List<E> snapshot() {
+      val count = Math.min(size.get(), entries.length());
+      val snapshot = ImmutableList.<E> builder();
+      for (int i = 0; i < count; i++) {
+        val entry = entries.get(i);
+        if (entry != null) {
+          snapshot.add(entry);
+        }
+      }
+
+      return snapshot.build();
+    }
+
+  }
+
+}
@@ -19,10 +19,6 @@ package org.icgc.dcc.common.core.util;
 
 import static lombok.AccessLevel.PRIVATE;
 
-import java.nio.ByteOrder;
-import java.nio.charset.Charset;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.util.UUID;
 
 import lombok.RequiredArgsConstructor;
@@ -52,11 +48,23 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor(access = PRIVATE)
 public final class UUID5 {
 
+  /**
+   * Generators for the well-known namespaces. Must be initialized before {@link #ICGC_DCC_NAMESPACE}.
+   */
+  private static final UUID5Generator NO_NAMESPACE_GENERATOR = UUID5Generator.withoutNamespace();
+  private static final UUID5Generator NULL_NAMESPACE_GENERATOR = UUID5Generator.forNamespace(null);
+
   /**
    * The following namespace is a type-5 UUID of "org.icgc.dcc" in the null namespace
    */
   public static final UUID ICGC_DCC_NAMESPACE = getNamespace();
 
+  /**
+   * High-throughput generator for the {@link #ICGC_DCC_NAMESPACE}. Prefer this over the static methods when generating
+   * identifiers in bulk.
+   */
+  public static final UUID5Generator ICGC_DCC_GENERATOR = UUID5Generator.forNamespace(ICGC_DCC_NAMESPACE);
+
   public static UUID getNamespace() {
     return fromBytes(null, "org.icgc.dcc".getBytes());
   }
@@ -71,12 +79,7 @@ public final class UUID5 {
     if (name == null) {
       throw new NullPointerException("name == null");
     }
-    try {
-      MessageDigest md = MessageDigest.getInstance("SHA-1");
-      return makeUUID(md.digest(name), 5);
-    } catch (NoSuchAlgorithmException e) {
-      throw new AssertionError(e);
-    }
+    return NO_NAMESPACE_GENERATOR.generate(name);
   }
 
   /**
@@ -90,18 +93,7 @@ public final class UUID5 {
     if (name == null) {
       throw new NullPointerException("name == null");
     }
-    try {
-      MessageDigest md = MessageDigest.getInstance("SHA-1");
-      if (namespace == null) {
-        md.update(new byte[16]);
-      } else {
-        md.update(asBytes(namespace.getMostSignificantBits(), ByteOrder.BIG_ENDIAN));
-        md.update(asBytes(namespace.getLeastSignificantBits(), ByteOrder.BIG_ENDIAN));
-      }
-      return makeUUID(md.digest(name), 5);
-    } catch (NoSuchAlgorithmException e) {
-      throw new AssertionError(e);
-    }
+    return getGenerator(namespace).generate(name);
   }
 
   /**
@@ -111,7 +103,10 @@ public final class UUID5 {
    * @return the UUID object
    */
   public static UUID fromUTF8(String name) {
-    return UUID5.fromBytes(name.getBytes(Charset.forName("UTF-8")));
+    if (name == null) {
+      throw new NullPointerException("name == null");
+    }
+    return NO_NAMESPACE_GENERATOR.generate(name);
   }
 
   /**
@@ -122,85 +117,19 @@ public final class UUID5 {
    * @return the UUID object
    */
   public static UUID fromUTF8(UUID namespace, String name) {
-    return UUID5.fromBytes(namespace, name.getBytes(Charset.forName("UTF-8")));
-  }
-
-  /**
-   * A helper method for making uuid objects, which in java store longs not bytes
-   * 
-   * @param src An array of bytes having at least offset+8 elements
-   * @param offset Where to start extracting a long
-   * @param order either ByteOrder.BIG_ENDIAN or ByteOrder.LITTLE_ENDIAN
-   * @return a long, the specified endianness of which matches the bytes in src[offset,offset+8]
-   */
-  static long peekLong(final byte[] src, final int offset, final ByteOrder order) {
-    long ans = 0;
-    if (order == ByteOrder.BIG_ENDIAN) {
-      for (int i = offset; i < offset + 8; i += 1) {
-        ans <<= 8;
-        ans |= src[i] & 0xffL;
-      }
-    } else {
-      for (int i = offset + 7; i >= offset; i -= 1) {
-        ans <<= 8;
-        ans |= src[i] & 0xffL;
-      }
+    if (name == null) {
+      throw new NullPointerException("name == null");
     }
-    return ans;
+    return getGenerator(namespace).generate(name);
   }
 
-  /**
-   * A helper method for writing uuid objects, which in java store longs not bytes
-   * 
-   * @param data A long to write into the dest array
-   * @param dest An array of bytes having at least offset+8 elements
-   * @param offset Where to start writing a long
-   * @param order either ByteOrder.BIG_ENDIAN or ByteOrder.LITTLE_ENDIAN
-   */
-  static void putLong(long data, final byte[] dest, final int offset, final ByteOrder order) {
-    if (order == ByteOrder.BIG_ENDIAN) {
-      for (int i = offset + 7; i >= offset; i -= 1) {
-        dest[i] = (byte) (data & 0xff);
-        data >>= 8;
-      }
-    } else {
-      for (int i = offset; i < offset + 8; i += 1) {
-        dest[i] = (byte) (data & 0xff);
-        data >>= 8;
-      }
+  private static UUID5Generator getGenerator(UUID namespace) {
+    if (namespace == null) {
+      return NULL_NAMESPACE_GENERATOR;
+    } else if (namespace.equals(ICGC_DCC_NAMESPACE)) {
+      return ICGC_DCC_GENERATOR;
     }
-  }
-
-  /**
-   * A helper method for reading uuid objects, which in java store longs not bytes
-   * 
-   * @param data a long to convert to bytes
-   * @param order either ByteOrder.BIG_ENDIAN or ByteOrder.LITTLE_ENDIAN
-   * @return an array of 8 bytes
-   */
-  static byte[] asBytes(long data, final ByteOrder order) {
-    byte[] ans = new byte[8];
-    putLong(data, ans, 0, order);
-    return ans;
-  }
-
-  /**
-   * A private method from UUID pulled out here so we have access to it.
-   * 
-   * @param hash A 16 (or more) byte array to be the basis of the UUID
-   * @param version The version number to replace 4 bits of the hash (the variant code will replace 2 more bits))
-   * @return A UUID object
-   */
-  static UUID makeUUID(byte[] hash, int version) {
-    long msb = peekLong(hash, 0, ByteOrder.BIG_ENDIAN);
-    long lsb = peekLong(hash, 8, ByteOrder.BIG_ENDIAN);
-    // Set the version field
-    msb &= ~(0xfL << 12);
-    msb |= ((long) version) << 12;
-    // Set the variant field to 2
-    lsb &= ~(0x3L << 62);
-    lsb |= 2L << 62;
-    return new UUID(msb, lsb);
+    return UUID5Generator.forNamespace(namespace);
   }
 
 }
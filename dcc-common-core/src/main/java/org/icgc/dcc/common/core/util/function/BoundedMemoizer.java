@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.core.util.function;
+
+import static com.google.common.base.Preconditions.checkState;
+import static lombok.AccessLevel.PRIVATE;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.ToIntBiFunction;
+
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Bounded counterpart of {@link Memoizer} for high-cardinality keys and long-running processes.
+ * <p>
+ * Entries are evicted least recently used first once the size or weight bound is reached, and may optionally expire.
+ * Concurrent callers asking for the same key block on a single computation, so each key is computed at most once while
+ * it is cached. {@code null} results are cached like any other.
+ */
+@RequiredArgsConstructor(access = PRIVATE)
+public final class BoundedMemoizer<T, U> implements Function<T, U> {
+
+  /**
+   * Constants.
+   */
+  private static final Object NULL = new Object();
+
+  /**
+   * State.
+   */
+  @NonNull
+  private final LoadingCache<T, Object> cache;
+
+  public static <T, U> Builder<T, U> builder() {
+    return new Builder<T, U>();
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public U apply(T input) {
+    try {
+      Object value = cache.getUnchecked(input);
+      return value == NULL ? null : (U) value;
+    } catch (UncheckedExecutionException | ExecutionError e) {
+      // Surface the function's own exception rather than the cache wrapper
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      } else if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+
+      throw e;
+    }
+  }
+
+  /**
+   * @return hit, miss, load and eviction counters; all zero unless {@link Builder#recordStats()} was requested
+   */
+  public CacheStats stats() {
+    return cache.stats();
+  }
+
+  public long size() {
+    return cache.size();
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  @NoArgsConstructor(access = PRIVATE)
+  public static final class Builder<T, U> {
+
+    private final CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder();
+    private boolean bounded;
+
+    public Builder<T, U> maximumSize(long maximumSize) {
+      cacheBuilder.maximumSize(maximumSize);
+      bounded = true;
+      return this;
+    }
+
+    /**
+     * Bounds the total weight of the cached entries, as computed by {@code weigher} when each entry is loaded.
+     */
+    @SuppressWarnings("unchecked")
+    public Builder<T, U> maximumWeight(long maximumWeight, @NonNull ToIntBiFunction<? super T, ? super U> weigher) {
+      cacheBuilder.maximumWeight(maximumWeight).weigher(
+          (Object key, Object value) -> weigher.applyAsInt((T) key, value == NULL ? null : (U) value));
+      bounded = true;
+      return this;
+    }
+
+    public Builder<T, U> expireAfterWrite(long duration, @NonNull TimeUnit unit) {
+      cacheBuilder.expireAfterWrite(duration, unit);
+      return this;
+    }
+
+    public Builder<T, U> expireAfterAccess(long duration, @NonNull TimeUnit unit) {
+      cacheBuilder.expireAfterAccess(duration, unit);
+      return this;
+    }
+
+    public Builder<T, U> recordStats() {
+      cacheBuilder.recordStats();
+      return this;
+    }
+
+    /**
+     * Memoizes {@code function}. A size or weight bound is required; use {@link Memoizer} for unbounded memoization.
+     */
+    public BoundedMemoizer<T, U> build(@NonNull Function<? super T, ? extends U> function) {
+      checkState(bounded, "A maximum size or weight is required");
+
+      return new BoundedMemoizer<T, U>(cacheBuilder.build(new CacheLoader<T, Object>() {
+
+        @Override
+        public Object load(T key) {
+          U value = function.apply(key);
+          return value == null ? NULL : value;
+        }
+
+      }));
+    }
+
+  }
+
+}
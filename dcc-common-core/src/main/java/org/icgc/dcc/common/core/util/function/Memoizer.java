@@ -41,6 +41,15 @@ public final class Memoizer<T, U> {
     return new Memoizer<T, U>().doMemoize(function);
   }
 
+  /**
+   * Memoizes a supplied {@code function}, keeping at most {@code maximumSize} least recently used results.
+   * 
+   * @see BoundedMemoizer
+   */
+  public static <T, U> Function<T, U> memoize(@NonNull Function<T, U> function, long maximumSize) {
+    return BoundedMemoizer.<T, U> builder().maximumSize(maximumSize).build(function);
+  }
+
   private Function<T, U> doMemoize(Function<T, U> function) {
     return input -> cache.computeIfAbsent(input, function::apply);
   }
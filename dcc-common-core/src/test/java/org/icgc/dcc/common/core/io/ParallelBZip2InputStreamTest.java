@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.core.io;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import lombok.val;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+import org.junit.Test;
+
+import com.google.common.io.ByteStreams;
+
+public class ParallelBZip2InputStreamTest {
+
+  @Test
+  public void testMultipleBlocks() throws IOException {
+    // Smallest block size (100k) to force many blocks
+    val data = createData(1_000_000);
+    val compressed = compress(data, 1);
+
+    assertThat(decompress(compressed)).isEqualTo(data);
+  }
+
+  @Test
+  public void testConcatenatedStreams() throws IOException {
+    val data = createData(300_000);
+    val compressed = new ByteArrayOutputStream();
+    compressed.write(compress(data, 1));
+    compressed.write(compress(data, 9));
+
+    val expected = new ByteArrayOutputStream();
+    expected.write(data);
+    expected.write(data);
+
+    assertThat(decompress(compressed.toByteArray())).isEqualTo(expected.toByteArray());
+  }
+
+  @Test
+  public void testFalseEndOfStreamMagic() throws IOException {
+    // The symbol map of every block spells the end of stream magic
+    val data = createFalseMagicData(300_000);
+    val compressed = compress(data, 1);
+    assertThat(countEndOfStreamMagics(compressed)).isGreaterThan(1);
+
+    assertThat(decompress(compressed)).isEqualTo(data);
+  }
+
+  @Test
+  public void testEmpty() throws IOException {
+    assertThat(decompress(compress(new byte[0], 9))).isEmpty();
+  }
+
+  @Test(expected = IOException.class)
+  public void testTruncated() throws IOException {
+    val compressed = compress(createData(300_000), 1);
+
+    decompress(Arrays.copyOf(compressed, compressed.length / 2));
+  }
+
+  @Test(timeout = 10_000)
+  public void testCorruptBlockIsSticky() throws IOException {
+    val compressed = compress(createData(1_000_000), 1);
+    compressed[compressed.length / 2] ^= 0xFF;
+
+    assertErrorIsSticky(compressed);
+  }
+
+  @Test(timeout = 10_000)
+  public void testTruncatedIsSticky() throws IOException {
+    val compressed = compress(createData(300_000), 1);
+
+    assertErrorIsSticky(Arrays.copyOf(compressed, compressed.length / 2));
+  }
+
+  /**
+   * Asserts that reads after the first failure rethrow it rather than returning data of later blocks or blocking.
+   */
+  private static void assertErrorIsSticky(byte[] compressed) throws IOException {
+    try (InputStream in = new ParallelBZip2InputStream(new ByteArrayInputStream(compressed))) {
+      val buffer = new byte[8192];
+      IOException error = null;
+      try {
+        while (in.read(buffer, 0, buffer.length) != -1) {
+        }
+        fail("Expected error");
+      } catch (IOException e) {
+        error = e;
+      }
+
+      for (int i = 0; i < 3; i++) {
+        try {
+          if (i % 2 == 0) {
+            in.read();
+          } else {
+            in.read(buffer, 0, buffer.length);
+          }
+          fail("Expected error");
+        } catch (IOException e) {
+          assertThat(e).isSameAs(error);
+        }
+      }
+    }
+  }
+
+  private static byte[] decompress(byte[] compressed) throws IOException {
+    try (InputStream in = new ParallelBZip2InputStream(new ByteArrayInputStream(compressed))) {
+      return ByteStreams.toByteArray(in);
+    }
+  }
+
+  private static byte[] compress(byte[] data, int blockSize) throws IOException {
+    val bytes = new ByteArrayOutputStream();
+    try (OutputStream out = new BZip2CompressorOutputStream(bytes, blockSize)) {
+      out.write(data);
+    }
+
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Creates data whose bzip2 symbol map, which directly follows the block header, is the end of stream magic
+   * {@code 0x177245385090}: byte groups 3, 5, 6, 7, 9, 10, 11 and 14 are used ({@code 0x1772}), with exactly the bytes
+   * of bitmap {@code 0x4538} in group 3 and of {@code 0x5090} in group 5.
+   */
+  private static byte[] createFalseMagicData(int size) {
+    val alphabet = new byte[] {
+        '1', '5', '7', ':', ';', '<', // Group 3
+        'Q', 'S', 'X', '[', // Group 5
+        'a', 'p', (byte) 0x90, (byte) 0xA0, (byte) 0xB0, (byte) 0xE0 }; // One of each remaining group
+
+    // No repeated bytes so that run length encoding introduces no other byte values
+    val random = new Random(1);
+    val data = new byte[size];
+    for (int i = 0; i < size; i++) {
+      byte b;
+      do {
+        b = alphabet[i < alphabet.length ? i : random.nextInt(alphabet.length)];
+      } while (i > 0 && b == data[i - 1]);
+
+      data[i] = b;
+    }
+
+    return data;
+  }
+
+  private static int countEndOfStreamMagics(byte[] compressed) {
+    int count = 0;
+    long window = 0;
+    for (int i = 0; i < compressed.length; i++) {
+      window = (window << 8) | (compressed[i] & 0xFF);
+      for (int shift = 7; shift >= 0; shift--) {
+        if (i >= 6 && ((window >>> shift) & 0xFFFFFFFFFFFFL) == 0x177245385090L) {
+          count++;
+        }
+      }
+    }
+
+    return count;
+  }
+
+  private static byte[] createData(int size) {
+    val random = new Random(1);
+    val text = new StringBuilder();
+    for (int i = 0; text.length() < size; i++) {
+      text.append("line\t").append(i).append('\t').append(random.nextInt(1000)).append('\n');
+    }
+
+    return text.toString().getBytes();
+  }
+
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.core.io;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+
+import lombok.val;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+import org.junit.Test;
+
+import com.google.common.io.ByteStreams;
+
+public class ParallelBZip2OutputStreamTest {
+
+  /**
+   * Constants.
+   */
+  private static final long BLOCK_MAGIC = 0x314159265359L;
+  private static final long END_OF_STREAM_MAGIC = 0x177245385090L;
+  private static final long MAGIC_MASK = (1L << 48) - 1;
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    // Smallest block size (100k) to force many streams
+    val data = createData(1_000_000);
+    val bytes = new ByteArrayOutputStream();
+    try (OutputStream out = new ParallelBZip2OutputStream(bytes, 1)) {
+      out.write(data);
+    }
+    val compressed = bytes.toByteArray();
+
+    assertThat(ByteStreams.toByteArray(new BZip2CompressorInputStream(new ByteArrayInputStream(compressed), true)))
+        .isEqualTo(data);
+    try (InputStream in = new ParallelBZip2InputStream(new ByteArrayInputStream(compressed))) {
+      assertThat(ByteStreams.toByteArray(in)).isEqualTo(data);
+    }
+  }
+
+  @Test
+  public void testEmpty() throws IOException {
+    val bytes = new ByteArrayOutputStream();
+    new ParallelBZip2OutputStream(bytes).close();
+
+    assertThat(ByteStreams.toByteArray(new BZip2CompressorInputStream(new ByteArrayInputStream(bytes.toByteArray()))))
+        .isEmpty();
+  }
+
+  @Test
+  public void testOneBlockPerChunk() throws IOException {
+    // Runs of 4 equal bytes are the worst case of the initial run-length encoding (4 -> 5 bytes)
+    val data = new byte[3 * ParallelBZip2OutputStream.getChunkSize(1)];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (byte) (i / 4 % 2);
+    }
+
+    val bytes = new ByteArrayOutputStream();
+    try (OutputStream out = new ParallelBZip2OutputStream(bytes, 1)) {
+      out.write(data);
+    }
+    val compressed = bytes.toByteArray();
+
+    assertThat(countMagic(compressed, BLOCK_MAGIC)).isEqualTo(3);
+    assertThat(countMagic(compressed, END_OF_STREAM_MAGIC)).isEqualTo(3);
+    try (InputStream in = new ParallelBZip2InputStream(new ByteArrayInputStream(compressed))) {
+      assertThat(ByteStreams.toByteArray(in)).isEqualTo(data);
+    }
+  }
+
+  /**
+   * Counts the occurrences of a 48-bit magic at any bit offset.
+   */
+  private static int countMagic(byte[] bytes, long magic) {
+    int count = 0;
+    long window = 0;
+    for (int i = 0; i < 8 * bytes.length; i++) {
+      window = (window << 1 | bytes[i / 8] >> 7 - i % 8 & 1) & MAGIC_MASK;
+      if (i >= 47 && window == magic) {
+        count++;
+      }
+    }
+
+    return count;
+  }
+
+  private static byte[] createData(int size) {
+    val random = new Random(1);
+    val text = new StringBuilder();
+    for (int i = 0; text.length() < size; i++) {
+      text.append("line\t").append(i).append('\t').append(random.nextInt(1000)).append('\n');
+    }
+
+    return text.toString().getBytes();
+  }
+
+}
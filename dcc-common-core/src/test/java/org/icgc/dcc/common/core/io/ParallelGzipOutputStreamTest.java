@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.core.io;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+
+import lombok.val;
+
+import org.junit.Test;
+
+import com.google.common.io.ByteStreams;
+
+public class ParallelGzipOutputStreamTest {
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    val data = createData(1_000_000);
+    val compressed = compress(data);
+
+    assertThat(ParallelGzipInputStream.isBlockGzip(new BufferedInputStream(new ByteArrayInputStream(compressed))))
+        .isTrue();
+    assertThat(ByteStreams.toByteArray(new GZIPInputStream(new ByteArrayInputStream(compressed)))).isEqualTo(data);
+    try (InputStream in = new ParallelGzipInputStream(new ByteArrayInputStream(compressed))) {
+      assertThat(ByteStreams.toByteArray(in)).isEqualTo(data);
+    }
+  }
+
+  @Test
+  public void testIncompressible() throws IOException {
+    val data = new byte[3 * ParallelGzipOutputStream.BLOCK_SIZE + 1];
+    new Random(1).nextBytes(data);
+
+    assertThat(ByteStreams.toByteArray(new GZIPInputStream(new ByteArrayInputStream(compress(data))))).isEqualTo(data);
+  }
+
+  @Test
+  public void testEmpty() throws IOException {
+    val compressed = compress(new byte[0]);
+
+    assertThat(ByteStreams.toByteArray(new GZIPInputStream(new ByteArrayInputStream(compressed)))).isEmpty();
+  }
+
+  private static byte[] compress(byte[] data) throws IOException {
+    val bytes = new ByteArrayOutputStream();
+    try (OutputStream out = new ParallelGzipOutputStream(bytes)) {
+      // Uneven writes to cross block boundaries
+      for (int i = 0; i < data.length; i += 10_000) {
+        out.write(data, i, Math.min(10_000, data.length - i));
+      }
+    }
+
+    return bytes.toByteArray();
+  }
+
+  private static byte[] createData(int size) {
+    val random = new Random(1);
+    val text = new StringBuilder();
+    for (int i = 0; text.length() < size; i++) {
+      text.append("line\t").append(i).append('\t').append(random.nextInt(1000)).append('\n');
+    }
+
+    return text.toString().getBytes();
+  }
+
+}
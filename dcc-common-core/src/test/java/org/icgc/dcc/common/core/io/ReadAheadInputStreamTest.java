@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.core.io;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.Random;
+
+import lombok.val;
+
+import org.junit.Test;
+
+import com.google.common.io.ByteStreams;
+
+public class ReadAheadInputStreamTest {
+
+  @Test
+  public void testRead() throws IOException {
+    val data = new byte[100_000];
+    new Random(1).nextBytes(data);
+
+    try (InputStream in = new ReadAheadInputStream(new ByteArrayInputStream(data), 1000, 3)) {
+      assertThat(in.read()).isEqualTo(data[0] & 0xFF);
+      val rest = ByteStreams.toByteArray(in);
+
+      assertThat(rest.length).isEqualTo(data.length - 1);
+      assertThat(rest[0]).isEqualTo(data[1]);
+      assertThat(in.read()).isEqualTo(-1);
+    }
+  }
+
+  @Test
+  public void testErrorIsSticky() throws IOException {
+    val error = new IOException("boom");
+    val failing = new InputStream() {
+
+      @Override
+      public int read() throws IOException {
+        throw error;
+      }
+
+    };
+
+    val buffer = new byte[10];
+    try (InputStream in = new ReadAheadInputStream(new SequenceInputStream(new ByteArrayInputStream(buffer), failing),
+        10, 2)) {
+      assertThat(in.read(buffer, 0, buffer.length)).isEqualTo(10);
+
+      for (int i = 0; i < 3; i++) {
+        try {
+          if (i % 2 == 0) {
+            in.read();
+          } else {
+            in.read(buffer, 0, buffer.length);
+          }
+          fail("Expected error");
+        } catch (IOException e) {
+          assertThat(e).isSameAs(error);
+        }
+      }
+    }
+  }
+
+}
@@ -0,0 +1,49 @@
+package org.icgc.dcc.common.core.json;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import org.junit.Test;
+
+import lombok.val;
+
+public class JsonArrayReaderTest {
+
+  @Test
+  public void testObjects() throws Exception {
+    try (val stream = JsonArrayReader.of(input("[{\"id\":\"a\"},{\"id\":\"b\",\"x\":[1,2]}]")).stream()) {
+      val ids = stream.map(node -> node.path("id").asText()).collect(toList());
+      assertThat(ids).containsExactly("a", "b");
+    }
+  }
+
+  @Test
+  public void testPojos() throws Exception {
+    val reader = JsonArrayReader.of(input("[{\"id\":\"a\",\"count\":1},{\"id\":\"b\",\"count\":2}]"), Value.class);
+
+    assertThat(reader.next().count).isEqualTo(1);
+    assertThat(reader.next().id).isEqualTo("b");
+    assertThat(reader.hasNext()).isFalse();
+  }
+
+  @Test
+  public void testEmpty() throws Exception {
+    assertThat(JsonArrayReader.of(input("[]")).hasNext()).isFalse();
+  }
+
+  private static InputStream input(String json) {
+    return new ByteArrayInputStream(json.getBytes(UTF_8));
+  }
+
+  public static class Value {
+
+    public String id;
+    public int count;
+
+  }
+
+}
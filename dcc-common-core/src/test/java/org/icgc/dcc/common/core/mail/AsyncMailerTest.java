@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.core.mail;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import lombok.Cleanup;
+import lombok.SneakyThrows;
+import lombok.val;
+
+public class AsyncMailerTest {
+
+  /**
+   * In-process SMTP stand-in.
+   */
+  ServerSocket server;
+  AtomicInteger connections = new AtomicInteger();
+  List<String> messages = new CopyOnWriteArrayList<>();
+
+  /**
+   * Class under test.
+   */
+  AsyncMailer mailer;
+
+  @Before
+  @SneakyThrows
+  public void setUp() {
+    server = new ServerSocket(0);
+    val thread = new Thread(this::serve);
+    thread.setDaemon(true);
+    thread.start();
+
+    mailer = Mailer.builder()
+        .host("localhost")
+        .port(String.valueOf(server.getLocalPort()))
+        .recipient("test@example.com")
+        .format(Mailer.Format.PLAIN)
+        .buildAsync();
+  }
+
+  @After
+  @SneakyThrows
+  public void tearDown() {
+    mailer.close();
+    server.close();
+  }
+
+  @Test
+  public void testSendMail() throws Exception {
+    mailer.sendMail("subject 1", "body");
+    mailer.sendMail("subject 2", "body");
+    mailer.sendMail("subject 3", "body");
+
+    assertThat(mailer.flush(10, SECONDS)).isTrue();
+    assertThat(messages).hasSize(3);
+    assertThat(messages.get(0)).contains("Subject: subject 1");
+    assertThat(connections.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void testCoalesce() throws Exception {
+    for (int i = 0; i < 10; i++) {
+      mailer.sendMail("report", "same body");
+    }
+
+    assertThat(mailer.flush(10, SECONDS)).isTrue();
+    assertThat(messages.size() + mailer.getCoalescedCount()).isEqualTo(10);
+  }
+
+  @Test
+  public void testConcurrentAccounting() throws Exception {
+    mailer.close();
+    mailer = Mailer.builder()
+        .host("localhost")
+        .port(String.valueOf(server.getLocalPort()))
+        .recipient("test@example.com")
+        .format(Mailer.Format.PLAIN)
+        .queueCapacity(2)
+        .buildAsync();
+
+    // Few distinct emails and a tiny queue, so that coalescing and dropping race with sending
+    val threads = 8;
+    val emails = 200;
+    val executor = Executors.newFixedThreadPool(threads);
+    for (int i = 0; i < threads; i++) {
+      executor.execute(() -> {
+        for (int j = 0; j < emails; j++) {
+          mailer.sendMail("subject " + j % 5, "body");
+        }
+      });
+    }
+
+    executor.shutdown();
+    assertThat(executor.awaitTermination(30, SECONDS)).isTrue();
+    assertThat(mailer.flush(30, SECONDS)).isTrue();
+
+    // Every email is either sent, coalesced into a sent one or dropped
+    assertThat(messages.size() + mailer.getCoalescedCount() + mailer.getDroppedCount())
+        .isEqualTo((long) threads * emails);
+  }
+
+  private void serve() {
+    try {
+      while (true) {
+        @Cleanup
+        val socket = server.accept();
+        connections.incrementAndGet();
+        converse(socket);
+      }
+    } catch (Exception e) {
+      // Closed
+    }
+  }
+
+  @SneakyThrows
+  private void converse(Socket socket) {
+    val reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), "US-ASCII"));
+    val writer = new PrintWriter(socket.getOutputStream(), true);
+    reply(writer, "220 localhost ESMTP");
+
+    String line;
+    while ((line = reader.readLine()) != null) {
+      val command = line.toUpperCase();
+      if (command.startsWith("DATA")) {
+        reply(writer, "354 End data with <CR><LF>.<CR><LF>");
+        val message = new StringBuilder();
+        while (!(line = reader.readLine()).equals(".")) {
+          message.append(line).append('\n');
+        }
+
+        messages.add(message.toString());
+        reply(writer, "250 OK");
+      } else if (command.startsWith("QUIT")) {
+        reply(writer, "221 Bye");
+        return;
+      } else {
+        reply(writer, "250 OK");
+      }
+    }
+  }
+
+  private static void reply(PrintWriter writer, String reply) {
+    writer.print(reply + "\r\n");
+    writer.flush();
+  }
+
+}
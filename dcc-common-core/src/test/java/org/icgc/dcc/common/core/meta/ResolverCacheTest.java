@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.core.meta;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.icgc.dcc.common.core.json.Jackson;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpServer;
+
+import lombok.val;
+
+public class ResolverCacheTest {
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  /**
+   * Local HTTP stub.
+   */
+  HttpServer server;
+  String url;
+  AtomicInteger requests = new AtomicInteger();
+  AtomicInteger downloads = new AtomicInteger();
+  volatile String etag = "\"v1\"";
+  volatile String body = "{\"version\":\"1\"}";
+
+  /**
+   * Class under test.
+   */
+  ResolverCache cache;
+
+  @Before
+  public void setUp() throws Exception {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/dictionary", exchange -> {
+      requests.incrementAndGet();
+      exchange.getResponseHeaders().set("ETag", etag);
+      if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+        exchange.sendResponseHeaders(304, -1);
+      } else {
+        downloads.incrementAndGet();
+        val bytes = body.getBytes(UTF_8);
+        exchange.sendResponseHeaders(200, bytes.length);
+        exchange.getResponseBody().write(bytes);
+      }
+      exchange.close();
+    });
+    server.start();
+
+    url = "http://localhost:" + server.getAddress().getPort() + "/dictionary";
+    cache = new ResolverCache(tmp.newFolder().toPath());
+  }
+
+  @After
+  public void tearDown() {
+    server.stop(0);
+  }
+
+  @Test
+  public void testRevalidate() throws Exception {
+    assertThat(read().path("version").asText()).isEqualTo("1");
+    assertThat(read().path("version").asText()).isEqualTo("1");
+    assertThat(requests.get()).isEqualTo(2);
+    assertThat(downloads.get()).isEqualTo(1);
+
+    etag = "\"v2\"";
+    body = "{\"version\":\"2\"}";
+    assertThat(read().path("version").asText()).isEqualTo("2");
+    assertThat(downloads.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void testImmutable() throws Exception {
+    val file = cache.resolve(url, null, true);
+    assertThat(cache.resolve(url, null, true)).isEqualTo(file);
+    assertThat(new String(Files.readAllBytes(file), UTF_8)).isEqualTo(body);
+    assertThat(requests.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void testOffline() throws Exception {
+    read();
+    server.stop(0);
+
+    assertThat(read().path("version").asText()).isEqualTo("1");
+  }
+
+  private ObjectNode read() {
+    return cache.read(url, "application/json", false, "dictionary",
+        file -> Jackson.asObjectNode(Jackson.readFile(file.toFile())));
+  }
+
+}
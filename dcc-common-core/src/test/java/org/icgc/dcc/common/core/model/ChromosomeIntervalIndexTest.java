@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.core.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.icgc.dcc.common.core.model.Chromosome.CHR1;
+import static org.icgc.dcc.common.core.model.Chromosome.X;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+
+import org.junit.Test;
+
+public class ChromosomeIntervalIndexTest {
+
+  @Test
+  public void testOverlapping() throws Exception {
+    ChromosomeIntervalIndex<String> index = ChromosomeIntervalIndex.<String> builder()
+        .add(CHR1, 300, 400, "c")
+        .add(CHR1, 100, 200, "a")
+        .add(CHR1, 150, 10000, "b")
+        .add(ChromosomeLocation.parse("X:5-10"), "x")
+        .build();
+
+    assertThat(index.size()).isEqualTo(4);
+    assertThat(index.overlapping(CHR1, 50)).isEmpty();
+    assertThat(index.overlapping(CHR1, 200)).containsExactly("a", "b");
+    assertThat(index.overlapping(CHR1, 201, 350)).containsExactly("b", "c");
+    assertThat(index.overlapping(ChromosomeLocation.parse("chr1:400"))).containsExactly("b", "c");
+    assertThat(index.count(X, 10, 20)).isEqualTo(1);
+    assertThat(index.overlaps(Chromosome.Y, 0, 100)).isFalse();
+  }
+
+  @Test
+  public void testSerialization() throws Exception {
+    ChromosomeIntervalIndex.Builder<Integer> builder = ChromosomeIntervalIndex.builder();
+    for (int i = 0; i < 1000; i++) {
+      builder.add(CHR1, i * 10, i * 10 + 25, i);
+    }
+    ChromosomeIntervalIndex<Integer> index = builder.build();
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    index.writeTo(new DataOutputStream(bytes), (output, value) -> output.writeInt(value));
+    ChromosomeIntervalIndex<Integer> copy =
+        ChromosomeIntervalIndex.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())),
+            DataInput::readInt);
+
+    assertThat(copy.size()).isEqualTo(1000);
+    assertThat(copy.overlapping(CHR1, 5000)).containsExactly(498, 499, 500);
+  }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.core.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.icgc.dcc.common.core.model.FileTypes.FileType.DONOR_TYPE;
+
+import java.util.NoSuchElementException;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableMap;
+
+public class DictionaryIndexTest {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  @Test
+  public void testIndex() throws Exception {
+    JsonNode dictionary = MAPPER.readTree(("{'version':'0.1a','files':[{'name':'donor','pattern':'^donor.*$','fields':["
+        + "{'name':'donor_id','restrictions':[]},"
+        + "{'name':'donor_sex','restrictions':[{'type':'required'},{'type':'codelist','config':{'name':'sex'}}]}]}]}")
+        .replace('\'', '"'));
+    JsonNode codeLists = MAPPER.readTree("[{'name':'sex','terms':[{'code':'1','value':'male'},{'code':'2','value':'female'}]}]"
+        .replace('\'', '"'));
+
+    DictionaryIndex index = DictionaryIndex.of(dictionary, codeLists);
+
+    assertThat(index.getVersion()).isEqualTo("0.1a");
+    assertThat(index.getPattern(DONOR_TYPE)).isEqualTo("^donor.*$");
+    assertThat(index.getFieldNames(DONOR_TYPE)).containsExactly("donor_id", "donor_sex");
+    assertThat(index.getCodeListName(DONOR_TYPE, "donor_id").isPresent()).isFalse();
+    assertThat(index.getCodeListName(DONOR_TYPE, "donor_sex").get()).isEqualTo("sex");
+    assertThat(index.getCodeToValue(DONOR_TYPE, "donor_sex").get()).isEqualTo(ImmutableMap.of("1", "male", "2", "female"));
+    assertThat(index.getValueToCode("sex")).isEqualTo(ImmutableMap.of("male", "1", "female", "2"));
+
+    assertThat(Dictionaries.getMapping(dictionary, codeLists, DONOR_TYPE, "donor_sex").get())
+        .isEqualTo(ImmutableMap.of("1", "male", "2", "female"));
+  }
+
+  @Test
+  public void testHelpersReflectMutations() throws Exception {
+    JsonNode dictionary = MAPPER.readTree("{\"files\":[{\"name\":\"donor\",\"pattern\":\"a\",\"fields\":[]}]}");
+    assertThat(Dictionaries.getPatterns(dictionary).get(DONOR_TYPE)).isEqualTo("a");
+
+    ((ObjectNode) dictionary.path("files").get(0)).put("pattern", "b");
+    assertThat(Dictionaries.getPatterns(dictionary).get(DONOR_TYPE)).isEqualTo("b");
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void testMissingCodeList() throws Exception {
+    Dictionaries.getMapping(MAPPER.readTree("[]"), "sex");
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void testMissingField() throws Exception {
+    JsonNode dictionary = MAPPER.readTree("{\"files\":[{\"name\":\"donor\",\"fields\":[]}]}");
+
+    DictionaryIndex.of(dictionary).getCodeListName(DONOR_TYPE, "donor_id");
+  }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.core.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.icgc.dcc.common.core.model.FeatureTypes.FeatureType;
+import org.icgc.dcc.common.core.model.FileTypes.FileType;
+import org.junit.Test;
+
+public class IdentifierResolverTest {
+
+  @Test
+  public void testCaseInsensitive() throws Exception {
+    IdentifierResolver<Integer> resolver = IdentifierResolver.<Integer> builder("number")
+        .caseInsensitive()
+        .add("one", 1)
+        .add("Two", 2)
+        .build();
+
+    assertThat(resolver.resolve("ONE")).isEqualTo(1);
+    assertThat(resolver.resolve("two")).isEqualTo(2);
+    assertThat(resolver.tryResolve("three").isPresent()).isFalse();
+    assertThat(resolver.resolve(null, -1)).isEqualTo(-1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testAmbiguous() throws Exception {
+    IdentifierResolver.<Integer> builder("number").caseInsensitive().add("one", 1).add("ONE", 2);
+  }
+
+  @Test
+  public void testModelTypes() throws Exception {
+    assertThat(FileType.from("SSM_m")).isEqualTo(FileType.SSM_M_TYPE);
+    assertThat(FeatureType.tryFrom("meth_seq").get()).isEqualTo(FeatureType.METH_SEQ_TYPE);
+    assertThat(DataType.DataTypes.tryFrom("donor").get()).isEqualTo(ClinicalType.CLINICAL_CORE_TYPE);
+    assertThat(DataType.DataTypes.tryFrom("unknown").isPresent()).isFalse();
+    assertThat(ConsequenceType.tryById("missense_variant").get()).isEqualTo(ConsequenceType.MISSENSE_VARIANT);
+    assertThat(Chromosome.tryByExpression(" chrX ").get()).isEqualTo(Chromosome.X);
+    assertThat(Chromosome.tryByExpression("chr").isPresent()).isFalse();
+  }
+
+}
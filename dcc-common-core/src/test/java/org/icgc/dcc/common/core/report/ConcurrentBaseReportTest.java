@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.core.report;
+
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+
+import lombok.val;
+
+import org.junit.Test;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.Lists;
+
+public class ConcurrentBaseReportTest {
+
+  /**
+   * Constants.
+   */
+  static final int THREADS = 8;
+  static final int INCREMENTS = 10_000;
+
+  @Test
+  public void testConcurrentIncrements() throws Exception {
+    val report = new ConcurrentBaseReport() {
+
+      @Override
+      public void addTimer(Stopwatch timer) {
+        // No-op
+      }
+
+      @Override
+      public void addTimer(Stopwatch timer, String name) {
+        // No-op
+      }
+
+    };
+
+    runConcurrently(new Runnable() {
+
+      @Override
+      public void run() {
+        report.addInfo("info");
+        report.addWarning("warning");
+        report.addError("error");
+        report.addException(new RuntimeException());
+      }
+
+    });
+
+    assertThat(report.getInfoCount()).isEqualTo(THREADS * INCREMENTS);
+    assertThat(report.getWarningCount()).isEqualTo(THREADS * INCREMENTS);
+    assertThat(report.getErrorCount()).isEqualTo(THREADS * INCREMENTS);
+    assertThat(report.getExceptionCount()).isEqualTo(THREADS * INCREMENTS);
+  }
+
+  /**
+   * Runs {@code action} {@link #INCREMENTS} times on each of {@link #THREADS} threads, all started at once.
+   */
+  static void runConcurrently(final Runnable action) throws Exception {
+    val executor = newFixedThreadPool(THREADS);
+    try {
+      val start = new CountDownLatch(1);
+      val futures = Lists.<Future<Void>> newArrayList();
+      for (int i = 0; i < THREADS; i++) {
+        futures.add(executor.submit(new Callable<Void>() {
+
+          @Override
+          public Void call() throws Exception {
+            start.await();
+            for (int j = 0; j < INCREMENTS; j++) {
+              action.run();
+            }
+
+            return null;
+          }
+
+        }));
+      }
+
+      start.countDown();
+      for (val future : futures) {
+        future.get(30, SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.core.report;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.icgc.dcc.common.core.report.ConcurrentBaseReportTest.INCREMENTS;
+import static org.icgc.dcc.common.core.report.ConcurrentBaseReportTest.THREADS;
+import static org.icgc.dcc.common.core.report.ConcurrentBaseReportTest.runConcurrently;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.val;
+
+import org.junit.Test;
+
+import com.google.common.base.Stopwatch;
+
+public class ConcurrentBufferedReportTest {
+
+  @Test
+  public void testOverflow() {
+    val report = new ConcurrentBufferedReport(2);
+    report.addInfo("Info %s", 1);
+    report.addInfo("Info %s", 2);
+    report.addInfo("Info %s", 3);
+    report.addWarning("Warning");
+    report.addException(new RuntimeException("1"));
+    report.addException(new RuntimeException("2"));
+    report.addException(new RuntimeException("3"));
+
+    assertThat(report.getInfoCount()).isEqualTo(3);
+    assertThat(report.getInfos()).containsExactly("Info 1", "Info 2");
+    assertThat(report.getWarningCount()).isEqualTo(1);
+    assertThat(report.getWarnings()).containsExactly("Warning");
+    assertThat(report.getErrors()).isEmpty();
+    assertThat(report.getExceptionCount()).isEqualTo(3);
+    assertThat(report.getExceptions()).hasSize(2);
+  }
+
+  @Test
+  public void testConcurrentOverflow() throws Exception {
+    val report = new ConcurrentBufferedReport(100);
+    val counter = new AtomicInteger();
+
+    runConcurrently(new Runnable() {
+
+      @Override
+      public void run() {
+        report.addError("Error %s", counter.incrementAndGet());
+      }
+
+    });
+
+    assertThat(report.getErrorCount()).isEqualTo(THREADS * INCREMENTS);
+    assertThat(report.getErrors()).hasSize(100).doesNotHaveDuplicates();
+  }
+
+  @Test
+  public void testTimers() {
+    val report = new ConcurrentBufferedReport();
+    val main = Stopwatch.createUnstarted();
+    report.addTimer(Stopwatch.createUnstarted(), "b");
+    report.addTimer(main);
+    report.addTimer(Stopwatch.createUnstarted(), "a");
+
+    assertThat(report.getTimers().keySet()).containsExactly("b", "main", "a");
+    assertThat(report.getTimers().get("main")).isSameAs(main);
+  }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.core.util;
+
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+public class UUID5GeneratorTest {
+
+  @Test
+  public void testNamespace() throws Exception {
+    // Matches Python's uuid.uuid5(uuid.UUID(int=0), 'org.icgc.dcc')
+    assertThat(UUID5.ICGC_DCC_NAMESPACE).isEqualTo(UUID.fromString("3c6831e3-9864-5d05-8c57-5c3e0f767fa2"));
+  }
+
+  @Test
+  public void testGenerateMatchesUUID5() throws Exception {
+    String[] names = { "", "DO1234", "é中😀", "x\ud800y" };
+    for (String name : names) {
+      UUID expected = UUID5.fromBytes(UUID5.ICGC_DCC_NAMESPACE, name.getBytes("UTF-8"));
+      assertThat(UUID5.ICGC_DCC_GENERATOR.generate(name)).isEqualTo(expected);
+      assertThat(expected.version()).isEqualTo(5);
+    }
+  }
+
+  @Test
+  public void testBatch() throws Exception {
+    String[] names = { "a", "b", "c" };
+    UUID[] uuids = UUID5.ICGC_DCC_GENERATOR.generate(names);
+
+    assertThat(uuids).containsExactly(
+        UUID5.fromUTF8(UUID5.ICGC_DCC_NAMESPACE, "a"),
+        UUID5.fromUTF8(UUID5.ICGC_DCC_NAMESPACE, "b"),
+        UUID5.fromUTF8(UUID5.ICGC_DCC_NAMESPACE, "c"));
+    assertThat(UUID5.ICGC_DCC_GENERATOR.generate(Stream.of(names)).collect(toList())).containsExactly(uuids);
+  }
+
+}
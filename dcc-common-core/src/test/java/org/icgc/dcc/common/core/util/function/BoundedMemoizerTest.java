@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.core.util.function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.icgc.dcc.common.core.util.function.Memoizer.memoize;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+import java.util.function.Function;
+
+import lombok.val;
+
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+
+public class BoundedMemoizerTest {
+
+  /**
+   * State.
+   */
+  private final List<Integer> calls = Lists.newArrayList();
+
+  @Test
+  public void testReuse() {
+    val memoized = memoize(square(), 10);
+
+    assertThat(memoized.apply(2)).isEqualTo(4);
+    assertThat(memoized.apply(2)).isEqualTo(4);
+    assertThat(memoized.apply(3)).isEqualTo(9);
+    assertThat(calls).containsExactly(2, 3);
+  }
+
+  @Test
+  public void testEviction() {
+    val memoized = BoundedMemoizer.<Integer, Integer> builder().maximumSize(2).recordStats().build(square());
+
+    memoized.apply(1);
+    memoized.apply(2);
+    memoized.apply(1);
+
+    // Evicts 2, the least recently used
+    memoized.apply(3);
+    assertThat(memoized.size()).isEqualTo(2);
+    memoized.apply(1);
+    memoized.apply(2);
+
+    assertThat(calls).containsExactly(1, 2, 3, 2);
+    assertThat(memoized.size()).isEqualTo(2);
+    assertThat(memoized.stats().evictionCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void testNull() {
+    val memoized = memoize((Integer input) -> {
+      calls.add(input);
+      return (String) null;
+    }, 10);
+
+    assertThat(memoized.apply(1)).isNull();
+    assertThat(memoized.apply(1)).isNull();
+    assertThat(calls).containsExactly(1);
+  }
+
+  @Test
+  public void testException() {
+    Function<Integer, Integer> memoized = memoize(input -> {
+      calls.add(input);
+      throw new IllegalArgumentException("Invalid: " + input);
+    }, 10);
+
+    for (int i = 0; i < 2; i++) {
+      try {
+        memoized.apply(1);
+        fail("Expected exception");
+      } catch (IllegalArgumentException e) {
+        // Thrown as is rather than wrapped by the cache
+        assertThat(e.getMessage()).isEqualTo("Invalid: 1");
+      }
+    }
+
+    // Failures are not memoized
+    assertThat(calls).containsExactly(1, 1);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testUnbounded() {
+    BoundedMemoizer.<Integer, Integer> builder().build(square());
+  }
+
+  private Function<Integer, Integer> square() {
+    return input -> {
+      calls.add(input);
+      return input * input;
+    };
+  }
+
+}
@@ -26,17 +26,25 @@ import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
 import static java.net.HttpURLConnection.HTTP_OK;
 import static java.net.HttpURLConnection.HTTP_UNAUTHORIZED;
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.icgc.dcc.common.core.json.Jackson.DEFAULT;
 import static org.icgc.dcc.common.core.json.JsonNodeBuilders.object;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.SocketTimeoutException;
 import java.net.URL;
-import java.net.URLConnection;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongConsumer;
 
 import javax.net.ssl.HttpsURLConnection;
 import javax.net.ssl.SSLContext;
@@ -50,12 +58,12 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.io.ByteStreams;
 
-import lombok.Getter;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
-import lombok.Synchronized;
 import lombok.val;
 import lombok.extern.slf4j.Slf4j;
 
@@ -63,6 +71,11 @@ import lombok.extern.slf4j.Slf4j;
  * Client for the main EGA API.
  * <p>
  * Currently only covers metadata related endpoints.
+ * <p>
+ * Thread safe and lock free: concurrent calls share one session, which is refreshed by a single login when it expires.
+ * Response bodies are always fully read and closed so connections are reused from the JDK keep-alive pool (sized by
+ * the {@code http.maxConnections} system property). Failed calls are retried with jittered exponential backoff, drawing
+ * on a retry budget that successful calls replenish.
  * 
  * @see https://www.ebi.ac.uk/ega/about/your_EGA_account/download_streaming_client#API_overview
  */
@@ -83,12 +96,25 @@ public class EGAAPIClient {
    */
   private static final SSLSocketFactory SSL_SOCKET_FACTORY = createSSLSocketFactory();
 
-  private static final int MAX_ATTEMPTS = 50;
+  private static final int MAX_ATTEMPTS = 10;
   private static final int READ_TIMEOUT = (int) SECONDS.toMillis(5);
 
   private static final String METHOD_POST = "POST";
   private static final String APPLICATION_JSON = "application/json";
 
+  /**
+   * Constants - Retries
+   * <p>
+   * The sleep before retry {@code n} is uniformly random up to {@code BACKOFF_BASE * 2^n}, capped at
+   * {@code BACKOFF_MAX}. Each retry withdraws one unit from the budget and each success deposits a tenth of one, so
+   * sustained failure stops retries instead of multiplying load on a struggling server. In milli units.
+   */
+  private static final long BACKOFF_BASE_MILLIS = 100;
+  private static final long BACKOFF_MAX_MILLIS = SECONDS.toMillis(10);
+  private static final long RETRY_COST = 1000;
+  private static final long RETRY_DEPOSIT = 100;
+  private static final long RETRY_BUDGET = 50 * RETRY_COST;
+
   public EGAAPIClient() {
     this(System.getProperty("ega.username"), System.getProperty("ega.password"));
   }
@@ -120,59 +146,35 @@ public class EGAAPIClient {
   /**
    * State.
    */
-  @Getter(onMethod = @__(@Synchronized))
-  private String sessionId;
-  @Getter(onMethod = @__(@Synchronized))
-  private int timeoutCount;
-  @Getter(onMethod = @__(@Synchronized))
-  private int reconnectCount;
-  @Getter(onMethod = @__(@Synchronized))
-  private int errorCount;
+  private final AtomicReference<CompletableFuture<String>> session = new AtomicReference<>();
+  private final AtomicLong retryBudget = new AtomicLong(RETRY_BUDGET);
+  private final AtomicInteger timeoutCount = new AtomicInteger();
+  private final AtomicInteger reconnectCount = new AtomicInteger();
+  private final AtomicInteger errorCount = new AtomicInteger();
 
-  @SneakyThrows
-  @Synchronized
-  public EGAAPIClient login() {
-    int attempts = 0;
-    while (++attempts <= MAX_ATTEMPTS) {
-      try {
-        val path = "/users/login";
-        val connection = openConnection(path);
-        connection.setRequestMethod(METHOD_POST);
-        connection.setRequestProperty(CONTENT_TYPE, APPLICATION_JSON);
-        connection.setDoOutput(true);
-
-        val request = createLoginRequest(userName, password);
-        connection.setRequestProperty(CONTENT_LENGTH, Integer.toString(request.length()));
-        connection.getOutputStream().write(request.getBytes(UTF_8));
-
-        val response = readResponse(connection);
-        checkResponse(path, response);
-
-        this.sessionId = getSessionId(response);
+  /**
+   * Dependencies.
+   */
+  @VisibleForTesting
+  LongConsumer sleeper = millis -> sleepUninterruptibly(millis, MILLISECONDS);
 
-        return this;
-      } catch (IllegalStateException e) {
-        log.warn("Invalid login after {} attempt(s): {}", attempts, e.getMessage());
-      } catch (Exception e) {
-        log.error("Error logging in: {}", e.getMessage());
-        throw e;
-      }
-    }
+  /**
+   * Logs in, replacing any current session.
+   */
+  public EGAAPIClient login() {
+    refreshSession(session.get());
 
-    throw new IllegalStateException("Could login with user " + userName);
+    return this;
   }
 
-  @Synchronized
   public List<String> getDatasetIds() {
     return get("/datasets", new TypeReference<List<String>>() {});
   }
 
-  @Synchronized
   public List<ObjectNode> getDatasetFiles(@NonNull String datasetId) {
     return get("/datasets/" + datasetId + "/files", new TypeReference<List<ObjectNode>>() {});
   }
 
-  @Synchronized
   public ArrayNode getFile(@NonNull String fileId) {
     return get("/files/" + fileId, new TypeReference<ArrayNode>() {});
   }
@@ -182,57 +184,165 @@ public class EGAAPIClient {
     return new URL(DEFAULT_DOWNLOAD_API_URL + "/metadata/" + datasetId);
   }
 
+  /**
+   * Returns the current session id, or {@code null} while not logged in.
+   */
+  public String getSessionId() {
+    val current = session.get();
+    return current != null && current.isDone() && !current.isCompletedExceptionally() ? current.join() : null;
+  }
+
+  public int getTimeoutCount() {
+    return timeoutCount.get();
+  }
+
+  public int getReconnectCount() {
+    return reconnectCount.get();
+  }
+
+  public int getErrorCount() {
+    return errorCount.get();
+  }
+
   private <T> T get(String path, TypeReference<T> responseType) {
     checkState(isSessionActive(), "You must login first before calling API methods.");
 
     int attempts = 0;
     while (++attempts <= MAX_ATTEMPTS) {
+      val current = session.get();
       try {
-        val connection = openConnection(path + "?session=" + sessionId);
-
-        val response = readResponse(connection);
+        // A failed login is retried by the next caller
+        val sessionId = current.isCompletedExceptionally() ? refreshSession(current) : await(current);
+        val response = readResponse(openConnection(path + "?session=" + sessionId));
         val code = getCode(response);
 
         if (isRetryLogin(code)) {
           log.warn("Lost session, reconnecting... {}", response);
-          reconnectCount++;
-          login();
+          refreshSession(current);
 
-          // Recurse
-          return get(path, responseType);
+          continue;
         }
 
         checkResponse(path, response);
+        depositRetry();
+
         return DEFAULT.convertValue(getResult(response), responseType);
       } catch (SocketTimeoutException e) {
-        timeoutCount++;
+        timeoutCount.incrementAndGet();
         log.warn("*** Attempt [{}/{}] failed: Socket timeout requesting {}", attempts, MAX_ATTEMPTS, path);
-      } catch (@SuppressWarnings("hiding") IOException e) {
+      } catch (IOException e) {
         // This could happen due to 500 in the reading of the json response. Seems transient...
-        errorCount++;
+        errorCount.incrementAndGet();
         log.warn("*** Attempt [{}/{}] failed: Error requesting {}: {}", attempts, MAX_ATTEMPTS, path, e.getMessage());
       }
 
-      // Let tensions settle...
-      sleepUninterruptibly(attempts * 100, TimeUnit.MILLISECONDS);
+      if (attempts < MAX_ATTEMPTS) {
+        backoff(path, attempts);
+      }
     }
 
     throw new IllegalStateException("Could not get " + path);
   }
 
+  /**
+   * Replaces {@code expired} with a new session unless another thread already has. Concurrent callers holding the
+   * same expired session all wait on the single login of the thread that won.
+   */
+  private String refreshSession(CompletableFuture<String> expired) {
+    val login = new CompletableFuture<String>();
+    if (session.compareAndSet(expired, login)) {
+      if (expired != null) {
+        reconnectCount.incrementAndGet();
+      }
+
+      try {
+        login.complete(createSession());
+      } catch (Throwable t) {
+        login.completeExceptionally(t);
+      }
+    }
+
+    return await(session.get());
+  }
+
+  @SneakyThrows
+  private String createSession() {
+    int attempts = 0;
+    while (++attempts <= MAX_ATTEMPTS) {
+      try {
+        val path = "/users/login";
+        val connection = openConnection(path);
+        connection.setRequestMethod(METHOD_POST);
+        connection.setRequestProperty(CONTENT_TYPE, APPLICATION_JSON);
+        connection.setDoOutput(true);
+
+        val request = createLoginRequest(userName, password).getBytes(UTF_8);
+        connection.setRequestProperty(CONTENT_LENGTH, Integer.toString(request.length));
+        try (OutputStream output = connection.getOutputStream()) {
+          output.write(request);
+        }
+
+        val response = readResponse(connection);
+        checkResponse(path, response);
+
+        return getSessionId(response);
+      } catch (IllegalStateException e) {
+        log.warn("Invalid login after {} attempt(s): {}", attempts, e.getMessage());
+      } catch (Exception e) {
+        log.error("Error logging in: {}", e.getMessage());
+        throw e;
+      }
+
+      if (attempts < MAX_ATTEMPTS) {
+        backoff("/users/login", attempts);
+      }
+    }
+
+    throw new IllegalStateException("Could login with user " + userName);
+  }
+
+  private void backoff(String path, int attempts) {
+    if (!withdrawRetry()) {
+      throw new IllegalStateException("Retry budget exhausted requesting " + path);
+    }
+
+    val bound = Math.min(BACKOFF_MAX_MILLIS, BACKOFF_BASE_MILLIS << Math.min(attempts, 16));
+    sleeper.accept(ThreadLocalRandom.current().nextLong(bound + 1));
+  }
+
+  private boolean withdrawRetry() {
+    long balance;
+    do {
+      balance = retryBudget.get();
+      if (balance < RETRY_COST) {
+        return false;
+      }
+    } while (!retryBudget.compareAndSet(balance, balance - RETRY_COST));
+
+    return true;
+  }
+
+  private void depositRetry() {
+    if (retryBudget.get() < RETRY_BUDGET) {
+      retryBudget.updateAndGet(balance -> Math.min(RETRY_BUDGET, balance + RETRY_DEPOSIT));
+    }
+  }
+
   @SneakyThrows
   private HttpURLConnection openConnection(String path) throws SocketTimeoutException {
-    val connection = (HttpsURLConnection) new URL(url + path).openConnection();
+    val connection = (HttpURLConnection) new URL(url + path).openConnection();
     connection.setRequestProperty(ACCEPT, APPLICATION_JSON);
     connection.setReadTimeout(READ_TIMEOUT);
     connection.setConnectTimeout(READ_TIMEOUT);
-    connection.setSSLSocketFactory(SSL_SOCKET_FACTORY);
+    if (connection instanceof HttpsURLConnection) {
+      ((HttpsURLConnection) connection).setSSLSocketFactory(SSL_SOCKET_FACTORY);
+    }
 
     return connection;
   }
 
   private boolean isSessionActive() {
-    return sessionId != null;
+    return session.get() != null;
   }
 
   private boolean isRetryLogin(int code) {
@@ -252,9 +362,36 @@ public class EGAAPIClient {
     }
   }
 
+  /**
+   * Reads and closes the body, returning the connection to the keep-alive pool. On error the error body is drained and
+   * closed too, as otherwise the connection is dropped.
+   */
+  private static JsonNode readResponse(HttpURLConnection connection) throws IOException {
+    try (InputStream input = connection.getInputStream()) {
+      return DEFAULT.readTree(input);
+    } catch (IOException e) {
+      drainErrorStream(connection);
+      throw e;
+    }
+  }
+
+  private static void drainErrorStream(HttpURLConnection connection) {
+    try (InputStream error = connection.getErrorStream()) {
+      if (error != null) {
+        ByteStreams.exhaust(error);
+      }
+    } catch (IOException e) {
+      log.debug("Error draining error stream: {}", e.getMessage());
+    }
+  }
+
   @SneakyThrows
-  private static JsonNode readResponse(URLConnection connection) {
-    return DEFAULT.readTree(connection.getInputStream());
+  private static String await(CompletableFuture<String> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      throw e.getCause();
+    }
   }
 
   private static String createLoginRequest(String userName, String password) {
@@ -29,9 +29,13 @@ import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.TimeZone;
 import java.util.regex.Pattern;
 
+import com.google.common.collect.Maps;
+
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.SneakyThrows;
@@ -82,6 +86,10 @@ public class EGAFTPClient {
       .map(this::parseDatasetId)
       .collect(toList());
 
+  @Accessors(fluent = true)
+  @Getter(lazy = true, value = PRIVATE)
+  private final Map<String, String> archiveVersions = readArchiveVersions();
+
   public EGAFTPClient() {
     this(System.getProperty("ega.ftp.username", DEFAULT_USERNAME), System.getProperty("ega.ftp.password"));
   }
@@ -102,6 +110,7 @@ public class EGAFTPClient {
   public List<Item> getListing() {
     val dirUrl = getFileURL(METADATA_DIR);
     return readLines(dirUrl, UTF_8).stream()
+        .filter(line -> LISTING_PATTERN.matcher(line).find())
         .map(this::parseItem)
         .collect(toImmutableList());
   }
@@ -111,7 +120,15 @@ public class EGAFTPClient {
   }
 
   public URL getArchiveURL(@NonNull String datasetId) {
-    return getFileURL(METADATA_DIR + "/" + datasetId + ".tar.gz");
+    return getFileURL(getArchivePath(datasetId));
+  }
+
+  /**
+   * Returns the size and time of the archive as listed, which change whenever it is replaced, or {@code null} if it is
+   * not listed.
+   */
+  public String getArchiveVersion(@NonNull String datasetId) {
+    return archiveVersions().get(getArchiveFileName(datasetId));
   }
 
   private String parseDatasetId(String fileName) {
@@ -127,6 +144,23 @@ public class EGAFTPClient {
         .collect(toImmutableList());
   }
 
+  private Map<String, String> readArchiveVersions() {
+    val versions = Maps.<String, String> newHashMap();
+    for (val item : getListing()) {
+      versions.put(item.getFileName().trim(), item.getSize() + " " + item.getUpdated().getTime());
+    }
+
+    return versions;
+  }
+
+  private static String getArchivePath(String datasetId) {
+    return METADATA_DIR + "/" + getArchiveFileName(datasetId);
+  }
+
+  private static String getArchiveFileName(String datasetId) {
+    return datasetId + ".tar.gz";
+  }
+
   private URL getDirURL(String path) {
     return getFileURL(path + ";type=d");
   }
@@ -148,10 +182,13 @@ public class EGAFTPClient {
 
   @SneakyThrows
   private static Date parseDate(String date) {
-    val dateFormat = new SimpleDateFormat("MMM dd HH:mm yyyy");
+    // Listings show the year instead of the time for files older than six months
+    val recent = date.contains(":");
+    val dateFormat = new SimpleDateFormat(recent ? "MMM dd HH:mm yyyy" : "MMM dd yyyy", Locale.ENGLISH);
     dateFormat.setTimeZone(TimeZone.getTimeZone("CET"));
 
-    val fullDate = date + " " + Calendar.getInstance().get(Calendar.YEAR);
+    val normalized = date.replaceAll("\\s+", " ");
+    val fullDate = recent ? normalized + " " + Calendar.getInstance().get(Calendar.YEAR) : normalized;
     return dateFormat.parse(fullDate);
   }
 
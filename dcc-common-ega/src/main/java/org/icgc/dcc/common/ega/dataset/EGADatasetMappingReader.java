@@ -20,22 +20,18 @@ package org.icgc.dcc.common.ega.dataset;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static org.icgc.dcc.common.core.json.Jackson.DEFAULT;
-import static org.icgc.dcc.common.core.util.Splitters.PIPE;
-import static org.icgc.dcc.common.core.util.Splitters.SEMICOLON;
-import static org.icgc.dcc.common.core.util.Splitters.TAB;
-import static org.icgc.dcc.common.core.util.stream.Collectors.toImmutableList;
 
 import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Pattern;
-import java.util.stream.Stream;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 import org.icgc.dcc.common.core.io.ForwardingInputStream;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableList;
 
 import lombok.NonNull;
@@ -44,25 +40,36 @@ import lombok.val;
 
 /**
  * Reads an EGA mapping file into an in-memory representation.
+ * <p>
+ * Each line is tokenized in a single pass without regular expressions and records are emitted as they are read.
  */
 public class EGADatasetMappingReader {
 
   /**
    * Constants.
    */
-  private static final Splitter EQUALS = Splitter.on('=').trimResults().omitEmptyStrings();
+  private static final char PIPE = '|';
+  private static final char TAB = '\t';
+  private static final char SEMICOLON = ';';
+  private static final char EQUALS = '=';
+  private static final String ATTRIBUTES_FIELD_NAME = "ATTRIBUTES";
 
-  @SneakyThrows
   public List<ObjectNode> read(@NonNull String fileName, @NonNull InputStream inputStream) {
+    val records = ImmutableList.<ObjectNode> builder();
+    read(fileName, inputStream, records::add);
+
+    return records.build();
+  }
+
+  @SneakyThrows
+  public void read(@NonNull String fileName, @NonNull InputStream inputStream, @NonNull Consumer<ObjectNode> consumer) {
     try {
-      val lines = readLines(inputStream);
-
-      if (isSemiColonDelimited(fileName)) {
-        return readSemiColonDelimited(lines);
-      } else if (isPipeDelimited(fileName)) {
-        return readPipeDelimited(fileName, lines);
-      } else {
-        return readTabDelimited(fileName, lines);
+      val parser = createParser(fileName);
+      val reader = createReader(inputStream);
+
+      String line;
+      while ((line = reader.readLine()) != null) {
+        consumer.accept(parser.apply(line));
       }
     } catch (Exception e) {
       throw new IllegalStateException("Error processing " + fileName, e);
@@ -81,89 +88,134 @@ public class EGADatasetMappingReader {
     return fileName.equals("Run_Sample_meta_info.map");
   }
 
-  @SuppressWarnings("resource")
-  private static Stream<String> readLines(InputStream inputStream) {
-    return new BufferedReader(new InputStreamReader(new ForwardingInputStream(inputStream, false))).lines();
+  private static BufferedReader createReader(InputStream inputStream) {
+    // Caller owns the stream
+    return new BufferedReader(new InputStreamReader(new ForwardingInputStream(inputStream, false)));
   }
 
-  private static List<ObjectNode> readSemiColonDelimited(Stream<String> lines) {
-    return lines
-        .map(SEMICOLON.trimResults().omitEmptyStrings()::splitToList)
-        .map(fields -> createRecord(fields))
-        .collect(toImmutableList());
-  }
+  private static Function<String, ObjectNode> createParser(String fileName) {
+    if (isSemiColonDelimited(fileName)) {
+      return line -> parseKeyValues(line);
+    }
 
-  private static List<ObjectNode> readPipeDelimited(String fileName, Stream<String> lines) {
+    // Resolved once per file rather than once per line
     val headers = getHeaders(fileName);
-
-    return lines.map(PIPE.trimResults()::splitToList)
-        .map(fields -> createRecord(headers, fields))
-        .map(record -> {
-          String fieldName = "ATTRIBUTES";
-          if (record.has(fieldName)) {
-            String text = record.get(fieldName).textValue();
-            record.put(fieldName, parseAttributes(text));
-          }
-
-          return record;
-        })
-        .collect(toImmutableList());
+    if (isPipeDelimited(fileName)) {
+      val attributesIndex = headers.indexOf(ATTRIBUTES_FIELD_NAME);
+      return line -> parseDelimited(line, PIPE, headers, attributesIndex);
+    } else {
+      return line -> parseDelimited(line, TAB, headers, -1);
+    }
   }
 
-  private static List<ObjectNode> readTabDelimited(String fileName, Stream<String> lines) {
-    val headers = getHeaders(fileName);
+  private static ObjectNode parseKeyValues(String line) {
+    val record = DEFAULT.createObjectNode();
 
-    return lines.map(TAB.trimResults()::splitToList)
-        .map(fields -> createRecord(headers, fields))
-        .collect(toImmutableList());
-  }
+    int start = 0;
+    while (start <= line.length()) {
+      int end = line.indexOf(SEMICOLON, start);
+      if (end < 0) {
+        end = line.length();
+      }
 
-  private static ObjectNode createRecord(List<String> fields) {
-    val record = DEFAULT.createObjectNode();
-    checkState(!fields.isEmpty(), "No fields present");
+      val field = line.substring(start, end).trim();
+      if (!field.isEmpty()) {
+        val equals = field.indexOf(EQUALS);
+        checkState(equals > 0 && equals < field.length() - 1, "Malformed key value pair '%s'", field);
+
+        record.put(field.substring(0, equals).trim(), field.substring(equals + 1).trim());
+      }
 
-    for (val field : fields) {
-      val parts = EQUALS.splitToList(field);
-      record.put(parts.get(0), parts.get(1));
+      start = end + 1;
     }
 
+    checkState(record.size() > 0, "No fields present");
     return record;
   }
 
-  private static ObjectNode createRecord(List<String> headers, List<String> fields) {
+  private static ObjectNode parseDelimited(String line, char separator, List<String> headers, int attributesIndex) {
     val record = DEFAULT.createObjectNode();
-    checkState(headers.size() == fields.size(), "Header size (%s) not equal to fields size (%s) for mapping",
-        headers.size(), fields.size());
 
-    for (int i = 0; i < headers.size(); i++) {
-      record.put(headers.get(i), fields.get(i));
+    int fieldCount = 0;
+    int start = 0;
+    while (start <= line.length()) {
+      int end = line.indexOf(separator, start);
+      if (end < 0) {
+        end = line.length();
+      }
+
+      if (fieldCount < headers.size()) {
+        val fieldName = headers.get(fieldCount);
+        val value = line.substring(start, end).trim();
+        if (fieldCount == attributesIndex) {
+          record.set(fieldName, parseAttributes(value));
+        } else {
+          record.put(fieldName, value);
+        }
+      }
+
+      fieldCount++;
+      start = end + 1;
     }
 
+    checkState(headers.size() == fieldCount, "Header size (%s) not equal to fields size (%s) for mapping",
+        headers.size(), fieldCount);
+
     return record;
   }
 
+  /**
+   * Parses {@code key1=a;b;key2=c} into {@code {"key1": ["a", "b"], "key2": "c"}}. A {@code ;} separated token
+   * containing {@code =} starts a new key, all other tokens are additional values of the current key.
+   */
   private static ObjectNode parseAttributes(String text) {
     val attributes = DEFAULT.createObjectNode();
     if (isNullOrEmpty(text)) {
       return attributes;
     }
 
-    val pattern = Pattern.compile("([^=]+)=([^=]+)(?:;|$)");
-    val matcher = pattern.matcher(text);
-    while (matcher.find()) {
-      val key = matcher.group(1);
-      val value = matcher.group(2);
-      val values = SEMICOLON.splitToList(value);
-      if (values.size() > 1) {
-        attributes.putPOJO(key, values);
-      } else {
-        attributes.put(key, values.get(0));
+    String key = null;
+    List<String> values = null;
+
+    int start = 0;
+    int equals = -1;
+    for (int i = 0; i <= text.length(); i++) {
+      val c = i < text.length() ? text.charAt(i) : SEMICOLON;
+      if (c == EQUALS && equals < 0) {
+        equals = i;
+      } else if (c == SEMICOLON) {
+        if (equals >= 0) {
+          addAttribute(attributes, key, values);
+
+          // Leading tokens without a key are part of the first key
+          key = text.substring(key == null ? 0 : start, equals);
+          values = new ArrayList<>();
+          values.add(text.substring(equals + 1, i));
+        } else if (key != null) {
+          values.add(text.substring(start, i));
+        }
+
+        start = i + 1;
+        equals = -1;
       }
     }
 
+    addAttribute(attributes, key, values);
     return attributes;
   }
 
+  private static void addAttribute(ObjectNode attributes, String key, List<String> values) {
+    if (key == null) {
+      return;
+    }
+
+    if (values.size() > 1) {
+      attributes.putPOJO(key, values);
+    } else {
+      attributes.put(key, values.get(0));
+    }
+  }
+
   private static List<String> getHeaders(String fileName) {
     // *.map
     if (fileName.equals("Analysis_Sample_meta_info.map")) {
@@ -0,0 +1,356 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.ega.dataset;
+
+import static com.google.common.net.HttpHeaders.ETAG;
+import static com.google.common.net.HttpHeaders.IF_MODIFIED_SINCE;
+import static com.google.common.net.HttpHeaders.IF_NONE_MATCH;
+import static com.google.common.net.HttpHeaders.LAST_MODIFIED;
+import static java.net.HttpURLConnection.HTTP_NOT_MODIFIED;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.Comparator.comparing;
+import static java.util.stream.Collectors.toList;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+import com.google.common.hash.Hashing;
+import com.google.common.hash.HashingInputStream;
+import com.google.common.io.ByteStreams;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.SneakyThrows;
+import lombok.Synchronized;
+import lombok.Value;
+import lombok.val;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Local cache of EGA dataset metadata archives, keyed by dataset id.
+ * <p>
+ * Each archive is stored next to a properties file recording where it came from, its SHA-256 and size, and the
+ * validators to revalidate it with: the version supplied by the caller (e.g. the FTP listing size and date) or else the
+ * {@code ETag} / {@code Last-Modified} of the HTTP response for a conditional request. Cached archives are checked
+ * against their recorded size and modification time before use, or against their checksum when verification is
+ * enabled, and downloaded again if they do not match. Files are replaced atomically, and when
+ * the cache exceeds its size budget the least recently used archives are evicted. If the remote is unreachable a
+ * previously cached copy is used.
+ */
+@Slf4j
+public class EGADatasetMetaArchiveCache {
+
+  /**
+   * Constants.
+   */
+  public static final String CACHE_DIR_PROPERTY = "ega.archive.cache.dir";
+  public static final String CACHE_SIZE_PROPERTY = "ega.archive.cache.size";
+  public static final String CACHE_VERIFY_PROPERTY = "ega.archive.cache.verify";
+
+  private static final String DEFAULT_CACHE_DIR = System.getProperty("java.io.tmpdir") + "/ega-archive-cache";
+  private static final long DEFAULT_CACHE_SIZE = 10L * 1024 * 1024 * 1024;
+
+  private static final String ARCHIVE_SUFFIX = ".tar.gz";
+  private static final String META_SUFFIX = ".properties";
+  private static final String META_URL = "url";
+  private static final String META_VERSION = "version";
+  private static final String META_SHA256 = "sha256";
+  private static final String META_SIZE = "size";
+  private static final String META_MODIFIED = "modified";
+  private static final int TIMEOUT_MILLIS = 30 * 1000;
+
+  /**
+   * Default instance.
+   */
+  private static final EGADatasetMetaArchiveCache DEFAULT = new EGADatasetMetaArchiveCache(
+      Paths.get(System.getProperty(CACHE_DIR_PROPERTY, DEFAULT_CACHE_DIR)),
+      Long.getLong(CACHE_SIZE_PROPERTY, DEFAULT_CACHE_SIZE),
+      Boolean.getBoolean(CACHE_VERIFY_PROPERTY));
+
+  /**
+   * Configuration.
+   */
+  @Getter
+  @NonNull
+  private final Path directory;
+  @Getter
+  private final long maxSize;
+  /**
+   * Whether to checksum cached archives before every use instead of only comparing size and modification time.
+   */
+  @Getter
+  private final boolean verify;
+
+  public EGADatasetMetaArchiveCache(@NonNull Path directory, long maxSize) {
+    this(directory, maxSize, false);
+  }
+
+  public EGADatasetMetaArchiveCache(@NonNull Path directory, long maxSize, boolean verify) {
+    this.directory = directory;
+    this.maxSize = maxSize;
+    this.verify = verify;
+  }
+
+  public static EGADatasetMetaArchiveCache getDefault() {
+    return DEFAULT;
+  }
+
+  /**
+   * Resolves the archive of {@code datasetId} to an up to date local file.
+   * 
+   * @param datasetId the cache key
+   * @param url the remote location
+   * @param version identifies the current remote content if known up front, so that a matching cached archive is used
+   * without contacting the remote. Otherwise HTTP archives are revalidated with a conditional request.
+   */
+  public Path resolve(@NonNull String datasetId, @NonNull URL url, String version) throws IOException {
+    val file = directory.resolve(datasetId + ARCHIVE_SUFFIX);
+    val metaFile = directory.resolve(datasetId + META_SUFFIX);
+    val meta = readMeta(metaFile);
+    val cached = isIntact(file, meta, verify);
+    if (cached && !meta.containsKey(META_MODIFIED)) {
+      // Cached before modification times were recorded and just checksummed instead
+      meta.setProperty(META_MODIFIED, Long.toString(Files.getLastModifiedTime(file).toMillis()));
+      writeMeta(metaFile, meta);
+    }
+    if (cached && version != null && version.equals(meta.getProperty(META_VERSION))) {
+      return touch(file, metaFile);
+    }
+
+    try {
+      Files.createDirectories(directory);
+
+      val connection = url.openConnection();
+      connection.setConnectTimeout(TIMEOUT_MILLIS);
+      connection.setReadTimeout(TIMEOUT_MILLIS);
+      if (cached && meta.containsKey(ETAG)) {
+        connection.setRequestProperty(IF_NONE_MATCH, meta.getProperty(ETAG));
+      }
+      if (cached && meta.containsKey(LAST_MODIFIED)) {
+        connection.setRequestProperty(IF_MODIFIED_SINCE, meta.getProperty(LAST_MODIFIED));
+      }
+
+      if (connection instanceof HttpURLConnection) {
+        val code = ((HttpURLConnection) connection).getResponseCode();
+        if (code == HTTP_NOT_MODIFIED && cached) {
+          log.debug("Archive of {} not modified, using '{}'", datasetId, file);
+          return touch(file, metaFile);
+        } else if (code >= 400) {
+          throw new IOException("Unexpected HTTP status " + code + " downloading archive from '" + url + "'");
+        }
+      }
+
+      log.info("Downloading archive of {} from '{}'...", datasetId, url);
+      Download download;
+      try (InputStream inputStream = connection.getInputStream()) {
+        download = download(file, inputStream);
+      }
+
+      val newMeta = new Properties();
+      newMeta.setProperty(META_URL, url.toString());
+      newMeta.setProperty(META_SHA256, download.getSha256());
+      newMeta.setProperty(META_SIZE, Long.toString(download.getSize()));
+      newMeta.setProperty(META_MODIFIED, Long.toString(Files.getLastModifiedTime(file).toMillis()));
+      if (version != null) {
+        newMeta.setProperty(META_VERSION, version);
+      }
+      if (connection.getHeaderField(ETAG) != null) {
+        newMeta.setProperty(ETAG, connection.getHeaderField(ETAG));
+      }
+      if (connection.getHeaderField(LAST_MODIFIED) != null) {
+        newMeta.setProperty(LAST_MODIFIED, connection.getHeaderField(LAST_MODIFIED));
+      }
+      writeMeta(metaFile, newMeta);
+
+      evict(file);
+
+      return file;
+    } catch (IOException e) {
+      if (!cached) {
+        throw e;
+      }
+
+      log.warn("Could not revalidate archive of {}, using cached '{}': {}", datasetId, file, e.getMessage());
+      return touch(file, metaFile);
+    }
+  }
+
+  /**
+   * Removes the least recently used archives, except {@code keep}, until the cache is within its size budget.
+   */
+  @Synchronized
+  private void evict(Path keep) throws IOException {
+    val archives = listArchives();
+    long size = archives.stream().mapToLong(CachedArchive::getSize).sum();
+    for (val archive : archives) {
+      if (size <= maxSize) {
+        break;
+      }
+      if (archive.getFile().equals(keep)) {
+        continue;
+      }
+
+      log.info("Evicting '{}' to stay within cache size of {} bytes", archive.getFile(), maxSize);
+      Files.deleteIfExists(archive.getFile());
+      Files.deleteIfExists(getMetaFile(archive.getFile()));
+      size -= archive.getSize();
+    }
+  }
+
+  /**
+   * Returns the cached archives, least recently used first.
+   */
+  private List<CachedArchive> listArchives() throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files
+          .filter(file -> file.getFileName().toString().endsWith(ARCHIVE_SUFFIX))
+          .map(EGADatasetMetaArchiveCache::getCachedArchive)
+          .filter(Objects::nonNull)
+          .sorted(comparing(CachedArchive::getLastUsed))
+          .collect(toList());
+    }
+  }
+
+  private Download download(Path file, InputStream inputStream) throws IOException {
+    val temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+    try {
+      val hashing = new HashingInputStream(Hashing.sha256(), inputStream);
+      val size = Files.copy(hashing, temp, REPLACE_EXISTING);
+      Files.move(temp, file, ATOMIC_MOVE, REPLACE_EXISTING);
+
+      return new Download(hashing.hash().toString(), size);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  private void writeMeta(Path metaFile, Properties meta) throws IOException {
+    val temp = Files.createTempFile(directory, metaFile.getFileName().toString(), ".tmp");
+    try {
+      try (OutputStream outputStream = Files.newOutputStream(temp)) {
+        meta.store(outputStream, null);
+      }
+
+      Files.move(temp, metaFile, ATOMIC_MOVE, REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  /**
+   * The archive was checksummed while downloading, so unless {@code verify} is set it is only checked for having been
+   * replaced or modified since.
+   */
+  private static boolean isIntact(Path file, Properties meta, boolean verify) {
+    if (!Files.isRegularFile(file) || !meta.containsKey(META_SHA256)) {
+      return false;
+    }
+
+    try {
+      if (Files.size(file) != Long.parseLong(meta.getProperty(META_SIZE, "-1"))) {
+        return false;
+      }
+      if (!verify && meta.containsKey(META_MODIFIED)) {
+        return Files.getLastModifiedTime(file).toMillis() == Long.parseLong(meta.getProperty(META_MODIFIED));
+      }
+
+      try (HashingInputStream hashing = new HashingInputStream(Hashing.sha256(), Files.newInputStream(file))) {
+        ByteStreams.exhaust(hashing);
+
+        return hashing.hash().toString().equals(meta.getProperty(META_SHA256));
+      }
+    } catch (IOException | NumberFormatException e) {
+      log.warn("Could not verify cached '{}': {}", file, e.getMessage());
+
+      return false;
+    }
+  }
+
+  private static Properties readMeta(Path metaFile) {
+    val meta = new Properties();
+    if (!Files.isRegularFile(metaFile)) {
+      return meta;
+    }
+
+    try (InputStream inputStream = Files.newInputStream(metaFile)) {
+      meta.load(inputStream);
+    } catch (IOException e) {
+      // Missing or unreadable metadata only costs a full download
+      log.debug("Could not read '{}': {}", metaFile, e.getMessage());
+    }
+
+    return meta;
+  }
+
+  /**
+   * Records use of a cached archive for eviction ordering.
+   */
+  @SneakyThrows
+  private static Path touch(Path file, Path metaFile) {
+    Files.setLastModifiedTime(metaFile, FileTime.fromMillis(System.currentTimeMillis()));
+
+    return file;
+  }
+
+  private static CachedArchive getCachedArchive(Path file) {
+    try {
+      val metaFile = getMetaFile(file);
+      val lastUsed = Files.exists(metaFile) ? Files.getLastModifiedTime(metaFile) : Files.getLastModifiedTime(file);
+
+      return new CachedArchive(file, Files.size(file), lastUsed);
+    } catch (IOException e) {
+      // Concurrently removed
+      return null;
+    }
+  }
+
+  private static Path getMetaFile(Path file) {
+    val name = file.getFileName().toString();
+    return file.resolveSibling(name.substring(0, name.length() - ARCHIVE_SUFFIX.length()) + META_SUFFIX);
+  }
+
+  @Value
+  private static class Download {
+
+    String sha256;
+    long size;
+
+  }
+
+  @Value
+  private static class CachedArchive {
+
+    Path file;
+    long size;
+    FileTime lastUsed;
+
+  }
+
+}
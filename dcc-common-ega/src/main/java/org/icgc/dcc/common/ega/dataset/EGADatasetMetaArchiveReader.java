@@ -25,6 +25,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.SocketTimeoutException;
 import java.net.URL;
+import java.nio.file.Files;
 import java.text.MessageFormat;
 import java.util.List;
 import java.util.zip.GZIPInputStream;
@@ -44,7 +45,8 @@ import lombok.val;
 import lombok.extern.slf4j.Slf4j;
 
 /**
- * Reads a remote EGA metadata tarball into a {@link EGADatasetMetaArchive}.
+ * Reads a remote EGA metadata tarball into a {@link EGADatasetMetaArchive}, optionally through a
+ * {@link EGADatasetMetaArchiveCache}.
  */
 @Slf4j
 @RequiredArgsConstructor
@@ -66,20 +68,33 @@ public class EGADatasetMetaArchiveReader {
    */
   @NonNull
   private final String apiUrl;
+  private final EGADatasetMetaArchiveCache cache;
 
   public EGADatasetMetaArchiveReader() {
     this(DEFAULT_API_URL);
   }
 
+  public EGADatasetMetaArchiveReader(String apiUrl) {
+    this(apiUrl, null);
+  }
+
   @SneakyThrows
   public EGADatasetMetaArchive read(@NonNull String datasetId) {
     return read(datasetId, getArchiveUrl(datasetId));
   }
 
-  @SneakyThrows
   public EGADatasetMetaArchive read(String datasetId, URL url) {
+    return read(datasetId, url, null);
+  }
+
+  /**
+   * @param version identifies the current remote content if known, see
+   * {@link EGADatasetMetaArchiveCache#resolve(String, URL, String)}
+   */
+  @SneakyThrows
+  public EGADatasetMetaArchive read(String datasetId, URL url, String version) {
     @Cleanup
-    val tarball = readTarball(url, datasetId);
+    val tarball = readTarball(url, datasetId, version);
 
     TarArchiveEntry entry = null;
     val archive = new EGADatasetMetaArchive(datasetId);
@@ -138,7 +153,8 @@ public class EGADatasetMetaArchiveReader {
   }
 
   private static ObjectNode parseXml(InputStream inputStream) {
-    return XML_READER.read(new ForwardingInputStream(inputStream, false));
+    // Streamed without closing the entry
+    return XML_READER.read(inputStream);
   }
 
   private static List<ObjectNode> parseMapping(String fileName, InputStream inputStream) {
@@ -146,16 +162,12 @@ public class EGADatasetMetaArchiveReader {
     return MAPPING_READER.read(fileName, new ForwardingInputStream(inputStream, false));
   }
 
-  private TarArchiveInputStream readTarball(URL url, String datasetId) throws IOException {
+  private TarArchiveInputStream readTarball(URL url, String datasetId, String version) throws IOException {
     int attempts = 0;
     String lastError = null;
     while (++attempts <= MAX_ATTEMPTS) {
       try {
-        val connection = url.openConnection();
-        connection.setReadTimeout(READ_TIMEOUT);
-        connection.setConnectTimeout(READ_TIMEOUT);
-
-        val gzip = new GZIPInputStream(connection.getInputStream());
+        val gzip = new GZIPInputStream(openTarball(url, datasetId, version));
         return new TarArchiveInputStream(gzip);
       } catch (SocketTimeoutException e) {
         lastError = String.format("*** Attempt [%s/%s] failed: Socket timeout for %s after %s attempt(s)",
@@ -171,6 +183,18 @@ public class EGADatasetMetaArchiveReader {
     throw new IllegalStateException("Could not read " + datasetId + " from " + url + ": " + lastError);
   }
 
+  private InputStream openTarball(URL url, String datasetId, String version) throws IOException {
+    if (cache != null) {
+      return Files.newInputStream(cache.resolve(datasetId, url, version));
+    }
+
+    val connection = url.openConnection();
+    connection.setReadTimeout(READ_TIMEOUT);
+    connection.setConnectTimeout(READ_TIMEOUT);
+
+    return connection.getInputStream();
+  }
+
   @SneakyThrows
   private URL getArchiveUrl(String datasetId) {
     // TODO: Is this needed?
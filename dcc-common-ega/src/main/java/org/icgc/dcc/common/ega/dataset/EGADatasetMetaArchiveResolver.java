@@ -35,7 +35,8 @@ public class EGADatasetMetaArchiveResolver {
    * Constants.
    */
   public static final String DEFAULT_API_URL = "http://ega.ebi.ac.uk/ega/rest/download/v2";
-  private static final EGADatasetMetaArchiveReader ARCHIVE_READER = new EGADatasetMetaArchiveReader();
+  private static final EGADatasetMetaArchiveReader ARCHIVE_READER =
+      new EGADatasetMetaArchiveReader(DEFAULT_API_URL, EGADatasetMetaArchiveCache.getDefault());
 
   /**
    * Dependencies.
@@ -59,7 +60,18 @@ public class EGADatasetMetaArchiveResolver {
 
   public EGADatasetMetaArchive resolveArchive(@NonNull String datasetId) {
     val url = resolveArchiveUrl(datasetId);
-    return ARCHIVE_READER.read(datasetId, url);
+    return readArchive(datasetId, url);
+  }
+
+  public EGADatasetMetaArchive readArchive(@NonNull String datasetId, @NonNull URL url) {
+    return ARCHIVE_READER.read(datasetId, url, resolveArchiveVersion(datasetId));
+  }
+
+  /**
+   * FTP archives are versioned by their listing, download API archives are revalidated over HTTP instead.
+   */
+  public String resolveArchiveVersion(String datasetId) {
+    return ftp.hasDatasetId(datasetId) ? ftp.getArchiveVersion(datasetId) : null;
   }
 
   public URL resolveArchiveUrl(String datasetId) {
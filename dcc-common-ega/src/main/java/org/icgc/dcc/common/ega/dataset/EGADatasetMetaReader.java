@@ -17,61 +17,121 @@
  */
 package org.icgc.dcc.common.ega.dataset;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Throwables.getCausalChain;
 import static java.util.Collections.emptyList;
+import static java.util.Spliterator.NONNULL;
+import static java.util.Spliterators.spliteratorUnknownSize;
+import static java.util.concurrent.CompletableFuture.allOf;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+import static java.util.concurrent.Executors.newFixedThreadPool;
 import static java.util.stream.Collectors.joining;
 import static org.icgc.dcc.common.core.util.Formats.formatCount;
-import static org.icgc.dcc.common.core.util.function.Predicates.isNotNull;
 import static org.icgc.dcc.common.ega.core.EGAProjectDatasets.getDatasetProjectCodes;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.icgc.dcc.common.ega.client.EGAAPIClient;
 import org.icgc.dcc.common.ega.client.EGACatalogClient;
 import org.icgc.dcc.common.ega.dump.EGADatasetDump;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import lombok.Getter;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
 import lombok.val;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Lazily reads all metadata for ICGC associated projects into a stream.
+ * <p>
+ * The catalog entry, file list and archive of each dataset are fetched as independent tasks on a bounded pool, so the
+ * network waits of different stages and datasets overlap. Requests are rate limited per remote host and the number of
+ * datasets in flight is bounded, so a slow consumer holds back the readers. Datasets are streamed in completion order.
  */
 @Slf4j
-@RequiredArgsConstructor
 public class EGADatasetMetaReader {
 
+  /**
+   * Constants.
+   */
+  public static final int DEFAULT_PARALLELISM = 8;
+  public static final double DEFAULT_REQUESTS_PER_SECOND = 5.0;
+
+  /**
+   * Rate limiter keys of the single host clients. Archives are keyed by the host of their URL.
+   */
+  private static final String CATALOG_HOST = "catalog";
+  private static final String API_HOST = "api";
+
   /**
    * Dependencies.
    */
-  private final EGACatalogClient catalog = new EGACatalogClient();
+  @NonNull
+  private final EGACatalogClient catalog;
   @NonNull
   private final EGAAPIClient api;
   @NonNull
   private final EGADatasetMetaArchiveResolver archiveResolver;
 
+  /**
+   * Configuration.
+   */
+  private final int parallelism;
+  private final double requestsPerSecond;
+
   /**
    * State.
    */
   @Getter
-  private final List<Exception> errors = Lists.newArrayList();
+  private final List<Exception> errors = new CopyOnWriteArrayList<Exception>();
+  private final ConcurrentMap<String, RateLimiter> rateLimiters = Maps.newConcurrentMap();
+
+  public EGADatasetMetaReader(EGAAPIClient api, EGADatasetMetaArchiveResolver archiveResolver) {
+    this(new EGACatalogClient(), api, archiveResolver, DEFAULT_PARALLELISM, DEFAULT_REQUESTS_PER_SECOND);
+  }
+
+  /**
+   * @param parallelism the number of concurrent requests
+   * @param requestsPerSecond the maximum rate of requests to each remote host
+   */
+  public EGADatasetMetaReader(@NonNull EGACatalogClient catalog, @NonNull EGAAPIClient api,
+      @NonNull EGADatasetMetaArchiveResolver archiveResolver, int parallelism, double requestsPerSecond) {
+    checkArgument(parallelism > 0, "Parallelism must be positive: %s", parallelism);
+    checkArgument(requestsPerSecond > 0, "Requests per second must be positive: %s", requestsPerSecond);
+    this.catalog = catalog;
+    this.api = api;
+    this.archiveResolver = archiveResolver;
+    this.parallelism = parallelism;
+    this.requestsPerSecond = requestsPerSecond;
+  }
 
+  /**
+   * Reads all datasets concurrently. Closing the stream stops any outstanding reads.
+   */
   public Stream<EGADatasetDump> readDatasets() {
     val datasetIds = resolveDatasetIds();
     log.info("Resolved {} datasets", formatCount(datasetIds));
 
-    val counter = new AtomicInteger();
-    return datasetIds.stream().peek(datasetId -> {
-      log.info("[{}/{}] Processing dataset {}...", counter.incrementAndGet(), datasetIds.size(), datasetId);
-    }).map(this::readDataset).filter(isNotNull());
+    val pipeline = new Pipeline(datasetIds);
+    return StreamSupport.stream(spliteratorUnknownSize(pipeline, NONNULL), false).onClose(pipeline::close);
   }
 
   public EGADatasetDump readDataset(@NonNull String datasetId) {
@@ -92,6 +152,7 @@ public class EGADatasetMetaReader {
 
   public List<ObjectNode> readDatasetFiles(String datasetId) {
     try {
+      acquire(API_HOST);
       return api.getDatasetFiles(datasetId);
     } catch (Exception e) {
       errors.add(e);
@@ -106,11 +167,15 @@ public class EGADatasetMetaReader {
   }
 
   private EGADatasetMetaArchive readArchive(String datasetId) {
-    return archiveResolver.resolveArchive(datasetId);
+    val url = archiveResolver.resolveArchiveUrl(datasetId);
+    acquire(url.getHost());
+
+    return archiveResolver.readArchive(datasetId, url);
   }
 
   private ObjectNode readCatalog(String datasetId) {
     try {
+      acquire(CATALOG_HOST);
       return catalog.getDataset(datasetId);
     } catch (Exception e) {
       log.error("Exception reading dataset {} catalog: {}", datasetId, getErrorMessage(e));
@@ -120,8 +185,117 @@ public class EGADatasetMetaReader {
     }
   }
 
+  private void acquire(String host) {
+    rateLimiters.computeIfAbsent(host, key -> RateLimiter.create(requestsPerSecond)).acquire();
+  }
+
   private static String getErrorMessage(Exception e) {
     return getCausalChain(e).stream().map(Throwable::getMessage).collect(joining(": "));
   }
 
+  /**
+   * Consumer driven iteration: every call tops up the datasets in flight before waiting for the next one to complete.
+   * Failed datasets are recorded in {@link #errors} and skipped.
+   */
+  private class Pipeline implements Iterator<EGADatasetDump> {
+
+    /**
+     * Configuration.
+     */
+    private final Iterator<String> datasetIds;
+    private final int datasetCount;
+    private final int maxInFlight = 2 * parallelism;
+
+    /**
+     * State.
+     */
+    private final ExecutorService executor = newFixedThreadPool(parallelism,
+        new ThreadFactoryBuilder().setNameFormat("ega-reader-%d").setDaemon(true).build());
+    private final BlockingQueue<Optional<EGADatasetDump>> completed = new LinkedBlockingQueue<>();
+    private int submitted;
+    private int inFlight;
+    private EGADatasetDump next;
+
+    private Pipeline(Set<String> datasetIds) {
+      this.datasetIds = datasetIds.iterator();
+      this.datasetCount = datasetIds.size();
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (next == null) {
+        while (inFlight < maxInFlight && datasetIds.hasNext()) {
+          submit(datasetIds.next());
+        }
+
+        if (inFlight == 0) {
+          close();
+
+          return false;
+        }
+
+        next = take().orElse(null);
+        inFlight--;
+      }
+
+      return true;
+    }
+
+    @Override
+    public EGADatasetDump next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+
+      val result = next;
+      next = null;
+
+      return result;
+    }
+
+    private void close() {
+      executor.shutdownNow();
+    }
+
+    private void submit(String datasetId) {
+      log.info("[{}/{}] Processing dataset {}...", ++submitted, datasetCount, datasetId);
+      inFlight++;
+
+      // Independent stages, so they overlap with each other and with other datasets
+      val catalog = supplyAsync(() -> readCatalog(datasetId), executor);
+      val files = supplyAsync(() -> readDatasetFiles(datasetId), executor);
+      val archive = supplyAsync(() -> readArchive(datasetId), executor);
+
+      allOf(catalog, files, archive).whenComplete((ignored, failure) -> complete(datasetId, catalog, files, archive));
+    }
+
+    private void complete(String datasetId, CompletableFuture<ObjectNode> catalog,
+        CompletableFuture<List<ObjectNode>> files, CompletableFuture<EGADatasetMetaArchive> archive) {
+      try {
+        val projectCodes = getDatasetProjectCodes(datasetId);
+        completed.add(Optional.of(
+            new EGADatasetDump(datasetId, catalog.join(), projectCodes, files.join(), archive.join())));
+      } catch (Throwable t) {
+        val cause = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+        val error = cause instanceof Exception ? (Exception) cause : new ExecutionException(cause);
+        errors.add(error);
+        log.error("Exception reading dataset {}: {}", datasetId, getErrorMessage(error));
+
+        completed.add(Optional.empty());
+      }
+    }
+
+    private Optional<EGADatasetDump> take() {
+      try {
+        return completed.take();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        close();
+
+        throw new IllegalStateException("Interrupted while reading datasets", e);
+      }
+    }
+
+  }
+
 }
@@ -21,10 +21,8 @@ import static com.google.common.base.Objects.firstNonNull;
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static com.google.common.base.Strings.repeat;
 import static com.google.common.collect.Iterables.getFirst;
-import static com.google.common.collect.Sets.difference;
 import static com.google.common.collect.Sets.newTreeSet;
-import static java.util.Collections.emptyList;
-import static java.util.stream.Collectors.groupingBy;
+import static java.util.Comparator.comparing;
 import static java.util.stream.Collectors.toList;
 import static org.icgc.dcc.common.core.json.JsonNodeBuilders.array;
 import static org.icgc.dcc.common.core.json.JsonNodeBuilders.object;
@@ -51,6 +49,7 @@ import com.google.common.collect.Multimaps;
 import com.google.common.collect.Sets;
 
 import lombok.Cleanup;
+import lombok.Getter;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
@@ -102,27 +101,36 @@ public class EGAMetadataDumpAnalyzer {
   @NonNull
   private final PrintWriter report;
 
+  @SneakyThrows
   public void analyze(File dumpFile) {
     val watch = Stopwatch.createStarted();
-    val datasets = read(dumpFile);// .filter(dataset -> dataset.get("datasetId").textValue().equals("EGAD00001001100"));
 
-    log.info("Analyzing data sets...");
-    val files = analyzeDatasets(datasets);
+    // Files are indexed by id in on-disk sorted runs so that memory does not grow with the dump
+    @Cleanup
+    val fileIndex = new EGAMetadataDumpSorter();
 
-    log.info("Combining files...");
-    val unique = combineFiles(files);
+    log.info("Analyzing data sets...");
+    @Cleanup
+    val datasets = read(dumpFile);// .filter(dataset -> dataset.get("datasetId").textValue().equals("EGAD00001001100"));
+    datasets.forEach(dataset -> indexFiles(analyzeDataset(dataset), fileIndex));
 
-    log.info("Reporting...");
-    report(unique);
+    log.info("Combining and reporting files...");
+    val count = fileIndex.merge((fileId, group) -> report(combineFiles(group)));
+    log.info("{} total files", formatCount(count));
 
     log.info("Finished analyzing in {}", watch);
   }
 
-  private List<ObjectNode> analyzeDatasets(Stream<ObjectNode> datasets) {
-    return datasets
-        .map(this::analyzeDataset)
-        .flatMap(Collection::stream)
-        .collect(toList());
+  private static void indexFiles(Collection<ObjectNode> files, EGAMetadataDumpSorter fileIndex) {
+    for (val file : files) {
+      if (!file.has("fileId")) {
+        // Some are unknown and can't be grouped reliably
+        continue;
+      }
+
+      String fileId = file.path("fileId").textValue();
+      fileIndex.add(isNullOrEmpty(fileId) ? "unknown" : fileId, file);
+    }
   }
 
   private Collection<ObjectNode> analyzeDataset(ObjectNode dataset) {
@@ -145,9 +153,9 @@ public class EGAMetadataDumpAnalyzer {
     val sampleTags = resolveSampleTags(dataset);
 
     log.info("Indexing files...");
-    val filesIndex = groupBy(files, "fileName");
-    val nestedFilesIndex = groupBy(nestedFiles, "fileName");
-    val sampleFileIndex = groupBy(sampleFileMappings, "fileName");
+    val filesIndex = sortBy(files, "fileName");
+    val nestedFilesIndex = sortBy(nestedFiles, "fileName");
+    val sampleFileIndex = sortBy(sampleFileMappings, "fileName");
 
     val sampleDonorIndex = groupBy(sampleDonorMappings, "sampleAlias");
     val sampleProcessIndex = groupBy(sampleProcessMappings, "sampleId");
@@ -164,47 +172,36 @@ public class EGAMetadataDumpAnalyzer {
         sampleTagsIndex);
   }
 
-  private List<ObjectNode> combineFiles(List<ObjectNode> files) {
-    val grouped = files.stream()
-        .filter(file -> file.has("fileId")) // Some are unknown and can't be grouped reliably
-        .collect(groupingBy(file -> {
-          String fileId = file.path("fileId").textValue();
-          if (!isNullOrEmpty(fileId)) return fileId;
-
-          return "unknown";
-        }));
-
-    return grouped.values().stream().map(group -> {
-      Set<String> datasetIds = newTreeSet();
-      Set<String> projectIds = newTreeSet();
-      Set<String> runIds = newTreeSet();
-      Set<String> experimentIds = newTreeSet();
-      Set<String> studyIds = newTreeSet();
-
-      group.forEach(file -> {
-        datasetIds.add(file.get("datasetId").textValue());
-        file.get("projectId").forEach(projectId -> {
-          projectIds.add(projectId.textValue());
-        });
-        file.get("runIds").forEach(runId -> {
-          runIds.add(runId.textValue());
-        });
-        file.get("experimentIds").forEach(experimentId -> {
-          experimentIds.add(experimentId.textValue());
-        });
-        file.get("studyIds").forEach(studyId -> {
-          studyIds.add(studyId.textValue());
-        });
+  private ObjectNode combineFiles(List<ObjectNode> group) {
+    Set<String> datasetIds = newTreeSet();
+    Set<String> projectIds = newTreeSet();
+    Set<String> runIds = newTreeSet();
+    Set<String> experimentIds = newTreeSet();
+    Set<String> studyIds = newTreeSet();
+
+    group.forEach(file -> {
+      datasetIds.add(file.get("datasetId").textValue());
+      file.get("projectId").forEach(projectId -> {
+        projectIds.add(projectId.textValue());
       });
-
-      return object(resolveFile(group))
-          .with("datasetId", array(datasetIds))
-          .with("projectId", array(projectIds))
-          .with("runIds", array(runIds))
-          .with("experimentIds", array(experimentIds))
-          .with("studyIds", array(studyIds))
-          .end();
-    }).collect(toList());
+      file.get("runIds").forEach(runId -> {
+        runIds.add(runId.textValue());
+      });
+      file.get("experimentIds").forEach(experimentId -> {
+        experimentIds.add(experimentId.textValue());
+      });
+      file.get("studyIds").forEach(studyId -> {
+        studyIds.add(studyId.textValue());
+      });
+    });
+
+    return object(resolveFile(group))
+        .with("datasetId", array(datasetIds))
+        .with("projectId", array(projectIds))
+        .with("runIds", array(runIds))
+        .with("experimentIds", array(experimentIds))
+        .with("studyIds", array(studyIds))
+        .end();
   }
 
   private ObjectNode resolveFile(Collection<ObjectNode> group) {
@@ -217,18 +214,14 @@ public class EGAMetadataDumpAnalyzer {
     return representative;
   }
 
-  private void report(List<ObjectNode> files) {
-    for (val file : files) {
-      report.println(file);
-    }
-
-    log.info("{} total files", formatCount(files));
+  private void report(ObjectNode file) {
+    report.println(file);
   }
 
   private Collection<ObjectNode> joinFiles(
-      Map<String, Collection<ObjectNode>> filesIndex,
-      Map<String, Collection<ObjectNode>> nestedFilesIndex,
-      Map<String, Collection<ObjectNode>> sampleFilesIndex,
+      List<ObjectNode> filesIndex,
+      List<ObjectNode> nestedFilesIndex,
+      List<ObjectNode> sampleFilesIndex,
       Map<String, Collection<ObjectNode>> sampleDonorIndex,
       Map<String, Collection<ObjectNode>> sampleProcessIndex,
       Map<String, Collection<ObjectNode>> sampleTagsIndex) {
@@ -237,19 +230,20 @@ public class EGAMetadataDumpAnalyzer {
     int n = 0;
     val size = nestedFilesIndex.size();
 
-    val fileNames = Sets.<String> newTreeSet();
-    fileNames.addAll(filesIndex.keySet());
-    fileNames.addAll(nestedFilesIndex.keySet());
-    fileNames.addAll(sampleFilesIndex.keySet());
+    // Sort-merge join on file name
+    val filesCursor = new JoinCursor(filesIndex, "fileName");
+    val nestedFilesCursor = new JoinCursor(nestedFilesIndex, "fileName");
+    val sampleFilesCursor = new JoinCursor(sampleFilesIndex, "fileName");
 
-    for (val fileName : fileNames) {
+    String fileName;
+    while ((fileName = min(filesCursor.peek(), nestedFilesCursor.peek(), sampleFilesCursor.peek())) != null) {
       if (++n % 1000 == 0) {
         log.info("Join examined [{}/{}] files", n, size);
       }
 
-      val files = filesIndex.getOrDefault(fileName, emptyList());
-      val nestedFiles = nestedFilesIndex.getOrDefault(fileName, emptyList());
-      val sampleFiles = sampleFilesIndex.getOrDefault(fileName, emptyList());
+      val files = filesCursor.next(fileName);
+      val nestedFiles = nestedFilesCursor.next(fileName);
+      val sampleFiles = sampleFilesCursor.next(fileName);
 
       // Combine sources of file metadata
       val merged = mergeFile(
@@ -264,20 +258,21 @@ public class EGAMetadataDumpAnalyzer {
       joined.add(merged);
     }
 
-    val missingFiles = difference(fileNames, filesIndex.keySet());
+    val missingFiles = filesCursor.getMissing();
     if (!missingFiles.isEmpty()) log.warn("*** {} Missing files: {}",
         formatCount(missingFiles), missingFiles);
 
-    val missingNestedFiles = difference(fileNames, nestedFilesIndex.keySet());
+    val missingNestedFiles = nestedFilesCursor.getMissing();
     if (!missingNestedFiles.isEmpty()) log.warn("*** {} Missing nested files: {}",
         formatCount(missingNestedFiles), missingNestedFiles);
 
-    val missingSampleFiles = difference(fileNames, sampleFilesIndex.keySet());
+    val missingSampleFiles = sampleFilesCursor.getMissing();
     if (!missingSampleFiles.isEmpty()) log.warn("*** {} Missing sample files: {}",
         formatCount(missingSampleFiles), missingSampleFiles);
 
     log.info("=> Files: {}, Nested files: {}, Sample files: {}, Joined files: {}",
-        formatCount(filesIndex), formatCount(nestedFilesIndex), formatCount(sampleFilesIndex), formatCount(joined));
+        formatCount(filesCursor.getKeys()), formatCount(nestedFilesCursor.getKeys()),
+        formatCount(sampleFilesCursor.getKeys()), formatCount(joined));
 
     return joined;
   }
@@ -525,10 +520,75 @@ public class EGAMetadataDumpAnalyzer {
     return Multimaps.index(values, value -> value.get(key).textValue()).asMap();
   }
 
+  private static List<ObjectNode> sortBy(List<ObjectNode> values, String key) {
+    // Stable, so equal keys keep their source order
+    val sorted = Lists.newArrayList(values);
+    sorted.sort(comparing(value -> value.get(key).textValue()));
+
+    return sorted;
+  }
+
+  private static String min(String... keys) {
+    String min = null;
+    for (val key : keys) {
+      if (key != null && (min == null || key.compareTo(min) < 0)) {
+        min = key;
+      }
+    }
+
+    return min;
+  }
+
   private static String normalizeFileName(String fileName) {
     val trimmed = fileName.trim();
     val pathless = trimmed.substring(trimmed.lastIndexOf('/') + 1);
     return pathless.replaceAll("\\.(gpg|cip)$", "");
   }
 
+  /**
+   * Position within values sorted by {@code key} used to merge join on that key.
+   */
+  @RequiredArgsConstructor
+  private static class JoinCursor {
+
+    /**
+     * Configuration.
+     */
+    private final List<ObjectNode> values;
+    private final String key;
+
+    /**
+     * State.
+     */
+    private int position;
+    @Getter
+    private int keys;
+    @Getter
+    private final List<String> missing = Lists.newArrayList();
+
+    String peek() {
+      return position < values.size() ? keyOf(position) : null;
+    }
+
+    List<ObjectNode> next(String joinKey) {
+      val start = position;
+      while (position < values.size() && keyOf(position).equals(joinKey)) {
+        position++;
+      }
+
+      if (start == position) {
+        missing.add(joinKey);
+      } else {
+        keys++;
+      }
+
+      return values.subList(start, position);
+    }
+
+    private String keyOf(int index) {
+      return values.get(index).get(key).textValue();
+    }
+
+  }
+
 }
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.ega.dump;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.stream.Collectors.toCollection;
+import static org.icgc.dcc.common.core.json.Jackson.DEFAULT;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.google.common.collect.Maps;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.NonNull;
+import lombok.SneakyThrows;
+import lombok.val;
+
+/**
+ * Index of a segmented EGA metadata dump directory.
+ * <p>
+ * Maps each data set to the content hash of its serialized record and the gzipped JSONL segment that holds it.
+ * Segments may contain superseded records which are ignored since only the manifest entry is authoritative.
+ */
+@Data
+public class EGAMetadataDumpManifest {
+
+  /**
+   * Constants.
+   */
+  public static final String FILE_NAME = "manifest.json";
+
+  /**
+   * Incremented on every write so that segment names never collide with those of a previous run.
+   */
+  int generation;
+  Map<String, Entry> datasets = Maps.newTreeMap();
+
+  /**
+   * Number of records, live or superseded, in each referenced segment. Used to decide when to compact a segment; may be
+   * missing for segments written before it was recorded.
+   */
+  Map<String, Integer> segmentSizes = Maps.newTreeMap();
+
+  @JsonIgnore
+  public Set<String> getSegments() {
+    return datasets.values().stream().map(Entry::getSegment).collect(toCollection(TreeSet::new));
+  }
+
+  public static boolean exists(@NonNull File dir) {
+    return new File(dir, FILE_NAME).isFile();
+  }
+
+  @SneakyThrows
+  public static EGAMetadataDumpManifest read(@NonNull File dir) {
+    val file = new File(dir, FILE_NAME);
+    if (!file.isFile()) {
+      return new EGAMetadataDumpManifest();
+    }
+
+    return DEFAULT.readValue(file, EGAMetadataDumpManifest.class);
+  }
+
+  @SneakyThrows
+  public void write(@NonNull File dir) {
+    // Atomic so that readers never observe a manifest referencing partially written segments
+    val file = new File(dir, FILE_NAME).toPath();
+    val temp = Files.createTempFile(dir.toPath(), FILE_NAME, ".tmp");
+    try {
+      DEFAULT.writerWithDefaultPrettyPrinter().writeValue(temp.toFile(), this);
+      Files.move(temp, file, ATOMIC_MOVE, REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Entry {
+
+    String hash;
+    String segment;
+
+  }
+
+}
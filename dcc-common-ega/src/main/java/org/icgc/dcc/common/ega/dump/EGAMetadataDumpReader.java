@@ -18,12 +18,25 @@
 package org.icgc.dcc.common.ega.dump;
 
 import static com.fasterxml.jackson.core.JsonParser.Feature.AUTO_CLOSE_SOURCE;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
+import static java.util.stream.Collectors.toSet;
 import static org.icgc.dcc.common.core.json.Jackson.DEFAULT;
 
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.BiPredicate;
 import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 
 import org.icgc.dcc.common.core.util.stream.Streams;
+import org.icgc.dcc.common.ega.dump.EGAMetadataDumpManifest.Entry;
 
 import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.node.ObjectNode;
@@ -31,10 +44,15 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
+import lombok.val;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Utility for reading EGA metadata dump
+ * <p>
+ * Supports plain or gzipped JSONL files as well as segmented dump directories written by
+ * {@link EGAMetadataDumpWriter#writeIncremental}. Segments of a directory are read concurrently when {@code parallel}
+ * is set, in which case records are not delivered in manifest order.
  */
 @Slf4j
 @RequiredArgsConstructor
@@ -45,10 +63,70 @@ public class EGAMetadataDumpReader {
    */
   private static final ObjectReader READER = DEFAULT.configure(AUTO_CLOSE_SOURCE, false).reader(ObjectNode.class);
 
+  /**
+   * Configuration.
+   */
+  private final boolean parallel;
+
+  public EGAMetadataDumpReader() {
+    this(false);
+  }
+
   @SneakyThrows
   public Stream<ObjectNode> read(@NonNull File file) {
     log.info("Reading: {}", file.getAbsolutePath());
+    if (file.isDirectory()) {
+      return readSegments(file, (datasetId, entry) -> true);
+    }
+
+    if (file.getName().endsWith(".gz")) {
+      return readRecords(new GZIPInputStream(new FileInputStream(file)));
+    }
+
     return Streams.stream(READER.readValues(file));
   }
 
+  /**
+   * Reads only the data sets of the dump directory {@code dir} that were added or changed since {@code previous},
+   * without opening segments that contain none of them.
+   */
+  public Stream<ObjectNode> readChanged(@NonNull File dir, @NonNull EGAMetadataDumpManifest previous) {
+    log.info("Reading changes: {}", dir.getAbsolutePath());
+    return readSegments(dir, (datasetId, entry) -> {
+      val previousEntry = previous.getDatasets().get(datasetId);
+      return previousEntry == null || !previousEntry.getHash().equals(entry.getHash());
+    });
+  }
+
+  private Stream<ObjectNode> readSegments(File dir, BiPredicate<String, Entry> filter) {
+    checkState(EGAMetadataDumpManifest.exists(dir), "No manifest found in dump directory %s", dir);
+    val manifest = EGAMetadataDumpManifest.read(dir);
+
+    // Segment -> selected data set ids. Segments may hold superseded records, so membership is checked per record
+    Map<String, Set<String>> segments = manifest.getDatasets().entrySet().stream()
+        .filter(e -> filter.test(e.getKey(), e.getValue()))
+        .collect(groupingBy(e -> e.getValue().getSegment(), TreeMap::new, mapping(Map.Entry::getKey, toSet())));
+
+    log.info("Reading {} segment(s) of {}", segments.size(), dir);
+    val stream = segments.entrySet().stream();
+    return (parallel ? stream.parallel() : stream)
+        .flatMap(segment -> readSegment(new File(dir, segment.getKey()))
+            .filter(record -> segment.getValue().contains(record.path("datasetId").textValue())));
+  }
+
+  @SneakyThrows
+  private static Stream<ObjectNode> readSegment(File file) {
+    return readRecords(new GZIPInputStream(new BufferedInputStream(new FileInputStream(file))));
+  }
+
+  @SneakyThrows
+  private static Stream<ObjectNode> readRecords(InputStream inputStream) {
+    return Streams.stream(READER.<ObjectNode> readValues(inputStream)).onClose(() -> closeQuietly(inputStream));
+  }
+
+  @SneakyThrows
+  private static void closeQuietly(InputStream inputStream) {
+    inputStream.close();
+  }
+
 }
@@ -0,0 +1,262 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.ega.dump;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.icgc.dcc.common.core.json.Jackson.DEFAULT;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.BiConsumer;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Lists;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import lombok.Value;
+import lombok.val;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * External merge sort of keyed JSON records.
+ * <p>
+ * Records are buffered up to a fixed number of characters, sorted by key and spilled to a temporary run file. On
+ * {@link #merge(BiConsumer)} the runs are merged so that all records sharing a key are delivered together and in key
+ * order, while only one record per run is held in memory. Records with equal keys keep their insertion order.
+ */
+@Slf4j
+public class EGAMetadataDumpSorter implements Closeable {
+
+  /**
+   * Constants.
+   */
+  private static final long DEFAULT_BUFFER_SIZE = 32L * 1024 * 1024;
+  private static final char KEY_SEPARATOR = '\t';
+  private static final Comparator<Entry> ENTRY_ORDER = Comparator.comparing(Entry::getKey);
+
+  /**
+   * Configuration.
+   */
+  private final long bufferSize;
+
+  /**
+   * State.
+   */
+  private final List<Entry> buffer = Lists.newArrayList();
+  private final List<File> runs = Lists.newArrayList();
+  private final List<BufferedReader> readers = Lists.newArrayList();
+  private long bufferedSize;
+  private File tempDir;
+
+  public EGAMetadataDumpSorter() {
+    this(DEFAULT_BUFFER_SIZE);
+  }
+
+  public EGAMetadataDumpSorter(long bufferSize) {
+    checkArgument(bufferSize > 0, "Buffer size must be positive: %s", bufferSize);
+    this.bufferSize = bufferSize;
+  }
+
+  @SneakyThrows
+  public void add(@NonNull String key, @NonNull ObjectNode value) {
+    checkArgument(key.indexOf(KEY_SEPARATOR) < 0 && key.indexOf('\n') < 0 && key.indexOf('\r') < 0,
+        "Key contains a separator: '%s'", key);
+
+    // Serialized up front so that the buffer can be bounded by size
+    val entry = new Entry(key, DEFAULT.writeValueAsString(value));
+    buffer.add(entry);
+    bufferedSize += entry.getKey().length() + entry.getJson().length();
+
+    if (bufferedSize >= bufferSize) {
+      spill();
+    }
+  }
+
+  /**
+   * Delivers each distinct key with its records in ascending key order.
+   * 
+   * @return the number of distinct keys
+   */
+  @SneakyThrows
+  public long merge(@NonNull BiConsumer<String, List<ObjectNode>> consumer) {
+    if (!runs.isEmpty()) {
+      spill();
+    }
+
+    val entries = runs.isEmpty() ? sortBuffer().iterator() : mergeRuns();
+
+    long keys = 0;
+    String key = null;
+    List<ObjectNode> group = Lists.newArrayList();
+    while (entries.hasNext()) {
+      val entry = entries.next();
+      if (key != null && !key.equals(entry.getKey())) {
+        consumer.accept(key, group);
+        keys++;
+
+        group = Lists.newArrayList();
+      }
+
+      key = entry.getKey();
+      group.add((ObjectNode) DEFAULT.readTree(entry.getJson()));
+    }
+
+    if (key != null) {
+      consumer.accept(key, group);
+      keys++;
+    }
+
+    return keys;
+  }
+
+  @Override
+  public void close() throws IOException {
+    for (val reader : readers) {
+      reader.close();
+    }
+    readers.clear();
+
+    for (val run : runs) {
+      Files.deleteIfExists(run.toPath());
+    }
+    runs.clear();
+
+    if (tempDir != null) {
+      Files.deleteIfExists(tempDir.toPath());
+      tempDir = null;
+    }
+
+    buffer.clear();
+    bufferedSize = 0;
+  }
+
+  private List<Entry> sortBuffer() {
+    // Stable, so equal keys keep insertion order
+    buffer.sort(ENTRY_ORDER);
+    return buffer;
+  }
+
+  private void spill() throws IOException {
+    if (buffer.isEmpty()) {
+      return;
+    }
+
+    if (tempDir == null) {
+      tempDir = Files.createTempDirectory("ega-dump-sort").toFile();
+    }
+
+    val run = new File(tempDir, "run-" + runs.size() + ".tsv");
+    runs.add(run);
+    log.info("Spilling {} records to {}", buffer.size(), run);
+
+    try (BufferedWriter writer = Files.newBufferedWriter(run.toPath(), UTF_8)) {
+      for (val entry : sortBuffer()) {
+        writer.write(entry.getKey());
+        writer.write(KEY_SEPARATOR);
+        writer.write(entry.getJson());
+        writer.newLine();
+      }
+    }
+
+    buffer.clear();
+    bufferedSize = 0;
+  }
+
+  private Iterator<Entry> mergeRuns() throws IOException {
+    checkState(readers.isEmpty(), "Runs have already been merged");
+
+    // Ties are broken by run index so that equal keys keep insertion order across runs
+    val queue = new PriorityQueue<RunCursor>(runs.size(),
+        Comparator.comparing((RunCursor cursor) -> cursor.getHead().getKey()).thenComparingInt(RunCursor::getIndex));
+    for (int i = 0; i < runs.size(); i++) {
+      val reader = Files.newBufferedReader(runs.get(i).toPath(), UTF_8);
+      readers.add(reader);
+
+      val cursor = new RunCursor(i, reader);
+      if (cursor.advance()) {
+        queue.add(cursor);
+      }
+    }
+
+    return new AbstractIterator<Entry>() {
+
+      @Override
+      @SneakyThrows
+      protected Entry computeNext() {
+        val cursor = queue.poll();
+        if (cursor == null) {
+          return endOfData();
+        }
+
+        val entry = cursor.getHead();
+        if (cursor.advance()) {
+          queue.add(cursor);
+        }
+
+        return entry;
+      }
+
+    };
+  }
+
+  @Value
+  private static class Entry {
+
+    String key;
+    String json;
+
+  }
+
+  @RequiredArgsConstructor
+  private static class RunCursor {
+
+    @Getter
+    private final int index;
+    private final BufferedReader reader;
+    @Getter
+    private Entry head;
+
+    boolean advance() throws IOException {
+      val line = reader.readLine();
+      if (line == null) {
+        head = null;
+        return false;
+      }
+
+      val separator = line.indexOf(KEY_SEPARATOR);
+      head = new Entry(line.substring(0, separator), line.substring(separator + 1));
+      return true;
+    }
+
+  }
+
+}
@@ -18,19 +18,40 @@
 package org.icgc.dcc.common.ega.dump;
 
 import static com.fasterxml.jackson.core.JsonGenerator.Feature.AUTO_CLOSE_TARGET;
+import static com.fasterxml.jackson.databind.SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS;
 import static com.google.common.base.Preconditions.checkState;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.counting;
+import static java.util.stream.Collectors.groupingBy;
 import static org.icgc.dcc.common.core.json.Jackson.DEFAULT;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.io.Writer;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.icgc.dcc.common.ega.dump.EGAMetadataDumpManifest.Entry;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.hash.Hashing;
 
 import lombok.Cleanup;
+import lombok.Getter;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
@@ -38,7 +59,7 @@ import lombok.val;
 import lombok.extern.slf4j.Slf4j;
 
 /**
- * Utility for writing all EGA metadata to a JSONL file.
+ * Utility for writing all EGA metadata to a JSONL file or to an incrementally updated, segmented dump directory.
  * 
  * @see https://www.ebi.ac.uk/ega/dacs/EGAC00001000010
  */
@@ -50,6 +71,17 @@ public class EGAMetadataDumpWriter {
    * Constants.
    */
   private static final ObjectMapper MAPPER = DEFAULT.configure(AUTO_CLOSE_TARGET, false);
+  /**
+   * Map entries are ordered so that content hashes of unchanged data sets are stable across runs.
+   */
+  private static final ObjectWriter CANONICAL_WRITER = MAPPER.writer().with(ORDER_MAP_ENTRIES_BY_KEYS);
+  private static final int SEGMENT_SIZE = 100;
+  private static final String SEGMENT_PREFIX = "segment-";
+  private static final String SEGMENT_SUFFIX = ".jsonl.gz";
+  /**
+   * Previous segments with a smaller share of live records are compacted.
+   */
+  private static final double COMPACTION_THRESHOLD = 0.5;
 
   @SneakyThrows
   public void write(@NonNull File file, Stream<EGADatasetDump> datasets) {
@@ -83,16 +115,199 @@ public class EGAMetadataDumpWriter {
     checkState(errors.isEmpty(), "Error writing %s: %s", file, errors);
   }
 
+  /**
+   * Updates the segmented dump in {@code dir} with {@code datasets}.
+   * <p>
+   * Data sets whose content hash matches the previous manifest are not rewritten, changed data sets are appended to
+   * new gzipped JSONL segments and data sets no longer present are dropped. Previous segments whose share of live
+   * records falls below {@link #COMPACTION_THRESHOLD} have their live records copied to the new segments as is. The
+   * manifest is replaced last, after which segments that are no longer referenced are deleted. Data sets that fail to
+   * serialize keep their previous entry.
+   */
+  @SneakyThrows
+  public EGAMetadataDumpManifest writeIncremental(@NonNull File dir, Stream<EGADatasetDump> datasets) {
+    log.info("Updating dump directory {}", dir);
+    val watch = Stopwatch.createStarted();
+    dir.mkdirs();
+    checkState(dir.isDirectory(), "Could not create dump directory %s", dir);
+
+    val previous = EGAMetadataDumpManifest.read(dir);
+    val manifest = new EGAMetadataDumpManifest();
+    manifest.setGeneration(previous.getGeneration() + 1);
+
+    val errors = Lists.<Exception> newArrayList();
+    try (SegmentWriter segments = new SegmentWriter(dir, manifest.getGeneration())) {
+      datasets.forEach(dataset -> {
+        String datasetId = dataset.getDatasetId();
+        Entry previousEntry = previous.getDatasets().get(datasetId);
+        try {
+          byte[] json = serializeDataset(dataset);
+          String hash = Hashing.sha256().hashBytes(json).toString();
+          if (previousEntry != null && previousEntry.getHash().equals(hash)) {
+            log.info("Skipping unchanged data set: {}", datasetId);
+            manifest.getDatasets().put(datasetId, previousEntry);
+            return;
+          }
+
+          log.info("Writing data set: {}", datasetId);
+          String segment = segments.write(json);
+          manifest.getDatasets().put(datasetId, new Entry(hash, segment));
+        } catch (Exception e) {
+          log.error("Error processing data set {}: {}", datasetId, e);
+          errors.add(e);
+
+          if (previousEntry != null) {
+            manifest.getDatasets().put(datasetId, previousEntry);
+          }
+        }
+      });
+
+      compactSegments(dir, previous, manifest, segments);
+      manifest.getSegmentSizes().putAll(segments.getSizes());
+    }
+
+    manifest.write(dir);
+    deleteUnreferencedSegments(dir, manifest);
+
+    log.info("Finished updating {} data sets in {}", manifest.getDatasets().size(), watch);
+    checkState(errors.isEmpty(), "Error writing %s: %s", dir, errors);
+
+    return manifest;
+  }
+
+  /**
+   * Copies the live records of previous segments whose share of live records fell below {@link #COMPACTION_THRESHOLD}
+   * into {@code segments}, so that superseded records do not accumulate. The copied bytes are unchanged and so are the
+   * content hashes. Sizes of the previous segments that are kept are carried over to {@code manifest}.
+   */
+  private static void compactSegments(File dir, EGAMetadataDumpManifest previous, EGAMetadataDumpManifest manifest,
+      SegmentWriter segments) throws IOException {
+    Map<String, Long> liveCounts = manifest.getDatasets().values().stream()
+        .map(Entry::getSegment)
+        .filter(segment -> !segments.getSizes().containsKey(segment))
+        .collect(groupingBy(segment -> segment, TreeMap::new, counting()));
+
+    for (val liveCount : liveCounts.entrySet()) {
+      val segment = liveCount.getKey();
+      val file = new File(dir, segment);
+      int size = previous.getSegmentSizes().containsKey(segment) ?
+          previous.getSegmentSizes().get(segment) :
+          countRecords(file);
+      if (liveCount.getValue() >= COMPACTION_THRESHOLD * size) {
+        manifest.getSegmentSizes().put(segment, size);
+        continue;
+      }
+
+      log.info("Compacting segment {} with {} live record(s) of {}", segment, liveCount.getValue(), size);
+      @Cleanup
+      val reader = openSegment(file);
+      for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+        val datasetId = MAPPER.readTree(line).path("datasetId").textValue();
+        val entry = manifest.getDatasets().get(datasetId);
+        if (entry != null && entry.getSegment().equals(segment)) {
+          manifest.getDatasets().put(datasetId, new Entry(entry.getHash(), segments.write(line.getBytes(UTF_8))));
+        }
+      }
+    }
+  }
+
+  private static int countRecords(File file) throws IOException {
+    @Cleanup
+    val reader = openSegment(file);
+    int count = 0;
+    while (reader.readLine() != null) {
+      count++;
+    }
+
+    return count;
+  }
+
+  private static BufferedReader openSegment(File file) throws IOException {
+    return new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(file)), UTF_8));
+  }
+
+  private static void deleteUnreferencedSegments(File dir, EGAMetadataDumpManifest manifest) {
+    val segments = manifest.getSegments();
+    val files = dir.listFiles((d, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+    for (val file : files) {
+      if (!segments.contains(file.getName())) {
+        log.info("Deleting unreferenced segment {}", file.getName());
+        file.delete();
+      }
+    }
+  }
+
+  private byte[] serializeDataset(EGADatasetDump dataset) {
+    try {
+      return CANONICAL_WRITER.writeValueAsBytes(dataset);
+    } catch (Exception e) {
+      throw datasetError(dataset, e);
+    }
+  }
+
   @SneakyThrows
   private void writeDataset(EGADatasetDump dataset, Writer writer) {
     try {
       MAPPER.writeValue(writer, dataset);
     } catch (Exception e) {
-      throw new RuntimeException(
-          "Could not read metadata archive for data set " + dataset.getDatasetId() + " associated with project(s) "
-              + dataset.getProjectCodes() + ": " + e.getMessage(),
-          e);
+      throw datasetError(dataset, e);
+    }
+  }
+
+  private static RuntimeException datasetError(EGADatasetDump dataset, Exception e) {
+    return new RuntimeException(
+        "Could not read metadata archive for data set " + dataset.getDatasetId() + " associated with project(s) "
+            + dataset.getProjectCodes() + ": " + e.getMessage(),
+        e);
+  }
+
+  /**
+   * Rolls over to a new gzipped segment every {@link #SEGMENT_SIZE} data sets, keeping track of the size of each.
+   */
+  @RequiredArgsConstructor
+  private static class SegmentWriter implements AutoCloseable {
+
+    /**
+     * Configuration.
+     */
+    private final File dir;
+    private final int generation;
+
+    /**
+     * State.
+     */
+    @Getter
+    private final Map<String, Integer> sizes = Maps.newTreeMap();
+    private OutputStream output;
+    private String segment;
+    private int segmentCount;
+    private int count;
+
+    String write(byte[] json) throws IOException {
+      if (output == null || count == SEGMENT_SIZE) {
+        close();
+
+        segment = String.format("%s%06d-%04d%s", SEGMENT_PREFIX, generation, segmentCount++, SEGMENT_SUFFIX);
+        output = new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream(new File(dir, segment))));
+        count = 0;
+      }
+
+      output.write(json);
+      output.write('\n');
+      count++;
+      sizes.put(segment, count);
+
+      return segment;
     }
+
+    @Override
+    public void close() throws IOException {
+      if (output != null) {
+        output.close();
+        output = null;
+      }
+    }
+
   }
 
 }
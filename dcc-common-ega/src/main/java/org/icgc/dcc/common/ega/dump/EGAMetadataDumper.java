@@ -46,6 +46,11 @@ public class EGAMetadataDumper {
 
   public static void main(String[] args) {
     val dumper = new EGAMetadataDumper();
+    if (args.length > 0) {
+      // Incremental update of a segmented dump directory
+      dumper.update(new File(args[0]));
+      return;
+    }
 
     val date = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss").format(LocalDateTime.now());
     val file = new File(getHomeDir(), "icgc-ega-datasets." + date + ".jsonl");
@@ -71,6 +76,18 @@ public class EGAMetadataDumper {
     report();
   }
 
+  /**
+   * Updates the segmented dump directory {@code dir}, rewriting only data sets that changed since the last update.
+   */
+  @SneakyThrows
+  public EGAMetadataDumpManifest update(@NonNull File dir) {
+    val datasets = read();
+    val manifest = new EGAMetadataDumpWriter().writeIncremental(dir, datasets);
+
+    report();
+    return manifest;
+  }
+
   public void report() {
     banner("Error report:");
     int i = 1;
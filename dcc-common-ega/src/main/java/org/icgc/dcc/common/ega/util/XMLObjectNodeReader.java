@@ -18,42 +18,99 @@
 package org.icgc.dcc.common.ega.util;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static javax.xml.stream.XMLStreamConstants.CDATA;
+import static javax.xml.stream.XMLStreamConstants.CHARACTERS;
+import static javax.xml.stream.XMLStreamConstants.COMMENT;
+import static javax.xml.stream.XMLStreamConstants.END_ELEMENT;
+import static javax.xml.stream.XMLStreamConstants.SPACE;
+import static javax.xml.stream.XMLStreamConstants.START_ELEMENT;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamReader;
 
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.json.XML;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.BooleanNode;
+import com.fasterxml.jackson.databind.node.DoubleNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.LongNode;
+import com.fasterxml.jackson.databind.node.NullNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.fasterxml.jackson.datatype.jsonorg.JsonOrgModule;
+import com.fasterxml.jackson.databind.node.TextNode;
 import com.google.common.io.CharStreams;
 
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.val;
 
 /**
  * Utility to read an XML file into a {@link ObjectNode}, overcoming Jackson's limitations to doing so natively.
+ * <p>
+ * Streams the XML with StAX straight into Jackson nodes using the structural conventions of json.org's
+ * {@link XML#toJSONObject(String)}: attributes and child elements become fields, repeated elements become arrays, text
+ * mixed with attributes or elements goes under {@value #CONTENT}, empty elements become {@code ""} and values that
+ * look like booleans, {@code null} or numbers are converted. The input stream is not closed, so it can be read
+ * directly from an archive entry.
  */
 public class XMLObjectNodeReader {
 
   /**
    * Constants.
    */
-  private static final ObjectMapper JSON_MAPPER = new ObjectMapper().registerModule(new JsonOrgModule());
+  private static final String CONTENT = "content";
+  private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+  private static final XMLInputFactory XML_INPUT_FACTORY = createInputFactory();
 
-  @SneakyThrows
-  public ObjectNode read(InputStream inputStream) {
-    val json = readJson(inputStream);
+  /**
+   * Depth at which completed elements are handed out: the root element, or each child of the root.
+   */
+  private static final int DOCUMENT_DEPTH = 1;
+  private static final int RECORD_DEPTH = 2;
+
+  /**
+   * Reads the whole document, keyed by the root element name.
+   */
+  public ObjectNode read(@NonNull InputStream inputStream) {
+    val document = NODES.objectNode();
+    parse(inputStream, DOCUMENT_DEPTH, (name, value) -> accumulate(document, name, value));
+
+    return document;
+  }
 
-    return JSON_MAPPER.convertValue(json, ObjectNode.class);
+  /**
+   * Reads each child of the root element as a separate node, keyed by the child element name, so memory use is bounded
+   * by the largest child rather than the document. Attributes and text of the root element are ignored.
+   */
+  public void readRecords(@NonNull InputStream inputStream, @NonNull Consumer<ObjectNode> consumer) {
+    parse(inputStream, RECORD_DEPTH, (name, value) -> {
+      val record = NODES.objectNode();
+      record.set(name, value);
+      consumer.accept(record);
+    });
   }
 
+  /**
+   * Reads the document with json.org, materializing it in memory.
+   * 
+   * @deprecated use {@link #read(InputStream)} which produces the same structure directly
+   */
+  @Deprecated
   public JSONObject readJson(InputStream inputStream) throws IOException, JSONException {
-    // Can't use jackson-dataformat-xml because of lack of repeating elements support, etc.
     val reader = new InputStreamReader(inputStream, UTF_8);
     val xml = CharStreams.toString(reader);
 
@@ -61,4 +118,176 @@ public class XMLObjectNodeReader {
     return XML.toJSONObject(xml);
   }
 
+  @SneakyThrows
+  private static void parse(InputStream inputStream, int outputDepth, BiConsumer<String, JsonNode> output) {
+    val reader = XML_INPUT_FACTORY.createXMLStreamReader(inputStream);
+    try {
+      val elements = new ArrayDeque<Element>();
+      val text = new StringBuilder();
+      while (reader.hasNext()) {
+        switch (reader.next()) {
+        case START_ELEMENT:
+          flushText(elements, text);
+          elements.push(createElement(reader));
+          break;
+        case END_ELEMENT:
+          flushText(elements, text);
+          val element = elements.pop();
+          val depth = elements.size() + 1;
+          if (depth == outputDepth) {
+            output.accept(element.getName(), element.getValue());
+          } else if (depth > outputDepth) {
+            accumulate(elements.peek().getNode(), element.getName(), element.getValue());
+          }
+
+          // Anything after the root element is ignored, like json.org does
+          if (elements.isEmpty()) {
+            return;
+          }
+          break;
+        case CHARACTERS:
+        case SPACE:
+          if (!elements.isEmpty()) {
+            text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+          }
+          break;
+        case CDATA:
+          // Taken verbatim, like json.org
+          flushText(elements, text);
+          if (!elements.isEmpty() && reader.getTextLength() > 0) {
+            accumulate(elements.peek().getNode(), CONTENT, TextNode.valueOf(reader.getText()));
+          }
+          break;
+        case COMMENT:
+          flushText(elements, text);
+          break;
+        default:
+          // Prolog, processing instructions, DTD, etc.
+          break;
+        }
+      }
+    } finally {
+      // Does not close the underlying stream
+      reader.close();
+    }
+  }
+
+  private static Element createElement(XMLStreamReader reader) {
+    val element = new Element(getName(reader.getPrefix(), reader.getLocalName()));
+
+    // Namespace declarations are plain attributes to json.org
+    for (int i = 0; i < reader.getNamespaceCount(); i++) {
+      val prefix = reader.getNamespacePrefix(i);
+      val name = prefix == null || prefix.isEmpty() ? "xmlns" : "xmlns:" + prefix;
+      accumulate(element.getNode(), name, convert(reader.getNamespaceURI(i)));
+    }
+    for (int i = 0; i < reader.getAttributeCount(); i++) {
+      val name = getName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i));
+      accumulate(element.getNode(), name, convert(reader.getAttributeValue(i)));
+    }
+
+    return element;
+  }
+
+  private static void flushText(Deque<Element> elements, StringBuilder text) {
+    if (text.length() == 0) {
+      return;
+    }
+
+    val content = text.toString().trim();
+    text.setLength(0);
+    if (!content.isEmpty() && !elements.isEmpty()) {
+      accumulate(elements.peek().getNode(), CONTENT, convert(content));
+    }
+  }
+
+  /**
+   * Adds {@code value} under {@code name}, turning the field into an array if it already exists.
+   */
+  private static void accumulate(ObjectNode node, String name, JsonNode value) {
+    val existing = node.get(name);
+    if (existing == null) {
+      node.set(name, value);
+    } else if (existing.isArray()) {
+      ((ArrayNode) existing).add(value);
+    } else {
+      node.set(name, NODES.arrayNode().add(existing).add(value));
+    }
+  }
+
+  /**
+   * Same conversions as json.org: booleans and {@code null} case insensitively, and numbers only if they print back
+   * exactly as written so that identifiers like {@code 0012} stay text.
+   */
+  private static JsonNode convert(String value) {
+    if ("true".equalsIgnoreCase(value)) {
+      return BooleanNode.TRUE;
+    }
+    if ("false".equalsIgnoreCase(value)) {
+      return BooleanNode.FALSE;
+    }
+    if ("null".equalsIgnoreCase(value)) {
+      return NullNode.getInstance();
+    }
+
+    if (!value.isEmpty() && (value.charAt(0) == '-' || Character.isDigit(value.charAt(0)))) {
+      try {
+        val number = Long.parseLong(value);
+        if (Long.toString(number).equals(value)) {
+          return number == (int) number ? IntNode.valueOf((int) number) : LongNode.valueOf(number);
+        }
+      } catch (NumberFormatException e) {
+        try {
+          val number = Double.parseDouble(value);
+          if (Double.toString(number).equals(value)) {
+            return DoubleNode.valueOf(number);
+          }
+        } catch (NumberFormatException ignored) {
+          // Text
+        }
+      }
+    }
+
+    return TextNode.valueOf(value);
+  }
+
+  private static String getName(String prefix, String localName) {
+    return prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName;
+  }
+
+  private static XMLInputFactory createInputFactory() {
+    val factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+    factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+    return factory;
+  }
+
+  /**
+   * An element being read.
+   */
+  @Getter
+  @RequiredArgsConstructor
+  private static class Element {
+
+    private final String name;
+    private final ObjectNode node = NODES.objectNode();
+
+    /**
+     * Collapses to {@code ""} when empty and to the text when there is nothing else, like json.org.
+     */
+    JsonNode getValue() {
+      if (node.size() == 0) {
+        return TextNode.valueOf("");
+      }
+      if (node.size() == 1 && node.has(CONTENT)) {
+        return node.get(CONTENT);
+      }
+
+      return node;
+    }
+
+  }
+
 }
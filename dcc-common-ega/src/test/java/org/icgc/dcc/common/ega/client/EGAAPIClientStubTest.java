@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.ega.client;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Lists;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import lombok.val;
+
+public class EGAAPIClientStubTest {
+
+  /**
+   * Constants.
+   */
+  private static final int SESSION_EXPIRED = 991;
+  private static final int SERVER_ERROR = 500;
+
+  /**
+   * Local HTTP stub. Each request to {@code /datasets} consumes the next queued code, succeeding once none are left.
+   */
+  HttpServer server;
+  AtomicInteger logins = new AtomicInteger();
+  Queue<Integer> codes = new ConcurrentLinkedQueue<>();
+  volatile boolean failing;
+  List<String> sessions = Collections.synchronizedList(Lists.newArrayList());
+
+  /**
+   * Class under test.
+   */
+  EGAAPIClient client;
+  List<Long> sleeps = Collections.synchronizedList(Lists.newArrayList());
+
+  @Before
+  public void setUp() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/users/login", exchange -> {
+      send(exchange, 200, response(200, "[\"success\",\"s" + logins.incrementAndGet() + "\"]"));
+    });
+    server.createContext("/datasets", exchange -> {
+      sessions.add(exchange.getRequestURI().getQuery().replace("session=", ""));
+
+      val code = failing ? Integer.valueOf(SERVER_ERROR) : codes.poll();
+      if (code == null) {
+        send(exchange, 200, response(200, "[\"EGAD1\"]"));
+      } else if (code == SERVER_ERROR) {
+        send(exchange, SERVER_ERROR, "Internal error");
+      } else {
+        send(exchange, 200, response(code, "[]"));
+      }
+    });
+    server.start();
+
+    client = new EGAAPIClient("http://localhost:" + server.getAddress().getPort(), "user", "password", true, false);
+    client.sleeper = sleeps::add;
+  }
+
+  @After
+  public void tearDown() {
+    server.stop(0);
+  }
+
+  @Test
+  public void testSessionRefresh() {
+    codes.add(SESSION_EXPIRED);
+    client.login();
+
+    assertThat(client.getDatasetIds()).containsExactly("EGAD1");
+    assertThat(sessions).containsExactly("s1", "s2");
+    assertThat(client.getSessionId()).isEqualTo("s2");
+    assertThat(client.getReconnectCount()).isEqualTo(1);
+
+    // A lost session is not a failure, so there is no backoff
+    assertThat(sleeps).isEmpty();
+  }
+
+  @Test
+  public void testBackoff() {
+    codes.add(SERVER_ERROR);
+    codes.add(SERVER_ERROR);
+    codes.add(SERVER_ERROR);
+    client.login();
+
+    assertThat(client.getDatasetIds()).containsExactly("EGAD1");
+    assertThat(client.getErrorCount()).isEqualTo(3);
+    assertThat(sleeps).hasSize(3);
+    for (int i = 0; i < sleeps.size(); i++) {
+      // Jittered up to 100 ms * 2^attempt
+      assertThat(sleeps.get(i)).isBetween(0L, 100L << i + 1);
+    }
+  }
+
+  @Test
+  public void testRetryBudget() {
+    client.login();
+    failing = true;
+
+    // Each call retries 9 times, so the budget of 50 retries runs out during the 6th
+    for (int i = 0; i < 5; i++) {
+      assertFailure("Could not get /datasets");
+    }
+    assertFailure("Retry budget exhausted requesting /datasets");
+    assertThat(sleeps).hasSize(50);
+
+    // Every backoff is capped
+    for (val sleep : sleeps) {
+      assertThat(sleep).isBetween(0L, 10_000L);
+    }
+
+    // Exhausted: no more retries
+    assertFailure("Retry budget exhausted requesting /datasets");
+    assertThat(sleeps).hasSize(50);
+
+    // Ten successes replenish a single retry
+    failing = false;
+    for (int i = 0; i < 10; i++) {
+      client.getDatasetIds();
+    }
+    failing = true;
+    assertFailure("Retry budget exhausted requesting /datasets");
+    assertThat(sleeps).hasSize(51);
+  }
+
+  private void assertFailure(String message) {
+    try {
+      client.getDatasetIds();
+      fail("Expected failure");
+    } catch (IllegalStateException e) {
+      assertThat(e.getMessage()).isEqualTo(message);
+    }
+  }
+
+  private static String response(int code, String result) {
+    return "{\"header\":{\"code\":" + code + "},\"response\":{\"result\":" + result + "}}";
+  }
+
+  private static void send(HttpExchange exchange, int status, String body) throws IOException {
+    val bytes = body.getBytes(UTF_8);
+    exchange.sendResponseHeaders(status, bytes.length);
+    try (OutputStream output = exchange.getResponseBody()) {
+      output.write(bytes);
+    }
+  }
+
+}
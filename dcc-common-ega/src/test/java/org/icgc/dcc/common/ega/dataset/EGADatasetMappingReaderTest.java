@@ -17,11 +17,17 @@
  */
 package org.icgc.dcc.common.ega.dataset;
 
+import static com.google.common.collect.Lists.newArrayList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.icgc.dcc.common.core.json.Jackson.DEFAULT;
+
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.List;
 
 import org.junit.Test;
 
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.io.Resources;
 
 import lombok.val;
@@ -42,6 +48,28 @@ public class EGADatasetMappingReaderTest {
     }
   }
 
+  @Test
+  public void testReadAttributes() throws Exception {
+    val fileName = "Analysis_Sample.txt";
+    val mappings = reader.read(fileName, readMapping(fileName));
+
+    val attributes = mappings.get(0).get("ATTRIBUTES");
+    assertThat(attributes.get("ENA-CHECKLIST").textValue()).isEqualTo("ERC000026");
+    assertThat(DEFAULT.writeValueAsString(attributes.get("other-identifiers")))
+        .isEqualTo("[\"ICGC_MB59_tumor_medulloblastoma\",\"ICGC_MB59_macroH2A_tumor\","
+            + "\"ICGC_MB59_H3K36me3_tumor\",\"ICGC_MB59_RNA_tumor\"]");
+  }
+
+  @Test
+  public void testReadStreaming() throws Exception {
+    val fileName = "Analysis_Sample.txt";
+    List<ObjectNode> records = newArrayList();
+    reader.read(fileName, readMapping(fileName), records::add);
+
+    assertThat(records).hasSize(64);
+    assertThat(records).isEqualTo(reader.read(fileName, readMapping(fileName)));
+  }
+
   InputStream readMapping(String fileName) throws IOException {
     return Resources.getResource("fixtures/mappings/" + fileName).openStream();
   }
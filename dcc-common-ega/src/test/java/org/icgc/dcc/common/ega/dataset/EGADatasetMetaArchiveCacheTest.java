@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.ega.dataset;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.sun.net.httpserver.HttpServer;
+
+import lombok.val;
+
+public class EGADatasetMetaArchiveCacheTest {
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  /**
+   * Local HTTP stub.
+   */
+  HttpServer server;
+  String url;
+  AtomicInteger downloads = new AtomicInteger();
+  volatile String etag = "\"v1\"";
+  volatile String body = "archive-v1";
+
+  /**
+   * Class under test.
+   */
+  EGADatasetMetaArchiveCache cache;
+  Path directory;
+
+  @Before
+  public void setUp() throws Exception {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/metadata", exchange -> {
+      exchange.getResponseHeaders().set("ETag", etag);
+      if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+        exchange.sendResponseHeaders(304, -1);
+      } else {
+        downloads.incrementAndGet();
+        val bytes = body.getBytes(UTF_8);
+        exchange.sendResponseHeaders(200, bytes.length);
+        exchange.getResponseBody().write(bytes);
+      }
+      exchange.close();
+    });
+    server.start();
+
+    url = "http://localhost:" + server.getAddress().getPort() + "/metadata/";
+    directory = tmp.newFolder().toPath();
+    cache = new EGADatasetMetaArchiveCache(directory, 25);
+  }
+
+  @After
+  public void tearDown() {
+    server.stop(0);
+  }
+
+  @Test
+  public void testRevalidate() throws Exception {
+    assertThat(read("EGAD1", null)).isEqualTo("archive-v1");
+    assertThat(read("EGAD1", null)).isEqualTo("archive-v1");
+    assertThat(downloads.get()).isEqualTo(1);
+
+    etag = "\"v2\"";
+    body = "archive-v2";
+    assertThat(read("EGAD1", null)).isEqualTo("archive-v2");
+    assertThat(downloads.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void testVersion() throws Exception {
+    read("EGAD1", "1");
+    server.stop(0);
+
+    // Served without contacting the remote
+    assertThat(read("EGAD1", "1")).isEqualTo("archive-v1");
+    assertThat(downloads.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void testCorrupt() throws Exception {
+    read("EGAD1", "1");
+    Files.write(directory.resolve("EGAD1.tar.gz"), "archive-vX".getBytes(UTF_8));
+
+    assertThat(read("EGAD1", "1")).isEqualTo("archive-v1");
+    assertThat(downloads.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void testCorruptUnchangedModificationTime() throws Exception {
+    read("EGAD1", "1");
+    val file = directory.resolve("EGAD1.tar.gz");
+    val modified = Files.getLastModifiedTime(file);
+    Files.write(file, "archive-vX".getBytes(UTF_8));
+    Files.setLastModifiedTime(file, modified);
+
+    // Only detected when verifying
+    assertThat(read("EGAD1", "1")).isEqualTo("archive-vX");
+    assertThat(downloads.get()).isEqualTo(1);
+
+    cache = new EGADatasetMetaArchiveCache(directory, 25, true);
+    assertThat(read("EGAD1", "1")).isEqualTo("archive-v1");
+    assertThat(downloads.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void testEvict() throws Exception {
+    read("EGAD1", null);
+    read("EGAD2", null);
+    Thread.sleep(10);
+    read("EGAD1", null);
+
+    // Budget fits two archives, so the least recently used one goes
+    read("EGAD3", null);
+    assertThat(Files.exists(directory.resolve("EGAD1.tar.gz"))).isTrue();
+    assertThat(Files.exists(directory.resolve("EGAD2.tar.gz"))).isFalse();
+    assertThat(Files.exists(directory.resolve("EGAD3.tar.gz"))).isTrue();
+  }
+
+  private String read(String datasetId, String version) throws Exception {
+    return new String(Files.readAllBytes(cache.resolve(datasetId, new URL(url + datasetId), version)), UTF_8);
+  }
+
+}
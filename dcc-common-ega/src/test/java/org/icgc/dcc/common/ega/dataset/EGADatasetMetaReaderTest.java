@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.ega.dataset;
+
+import static java.util.stream.Collectors.toSet;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.icgc.dcc.common.core.json.Jackson.DEFAULT;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.net.URL;
+import java.util.Collections;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.icgc.dcc.common.ega.client.EGAAPIClient;
+import org.icgc.dcc.common.ega.client.EGACatalogClient;
+import org.icgc.dcc.common.ega.dump.EGADatasetDump;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import lombok.val;
+
+public class EGADatasetMetaReaderTest {
+
+  @Test
+  public void testReadDatasets() throws Exception {
+    val datasetIds = new TreeSet<String>();
+    for (int i = 0; i < 20; i++) {
+      datasetIds.add(String.format("EGAD%011d", i));
+    }
+    val failedDatasetId = datasetIds.first();
+
+    val active = new AtomicInteger();
+    val maxActive = new AtomicInteger();
+
+    val catalog = mock(EGACatalogClient.class);
+    when(catalog.getDataset(anyString())).thenReturn(DEFAULT.createObjectNode());
+    val api = mock(EGAAPIClient.class);
+    when(api.getDatasetFiles(anyString())).thenReturn(Collections.<ObjectNode> emptyList());
+    val resolver = mock(EGADatasetMetaArchiveResolver.class);
+    when(resolver.resolveDatasetIds()).thenReturn(datasetIds);
+    when(resolver.resolveArchiveUrl(anyString())).thenReturn(new URL("http://localhost/metadata"));
+    when(resolver.readArchive(anyString(), any(URL.class))).thenAnswer(invocation -> {
+      String datasetId = (String) invocation.getArguments()[0];
+      maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+      try {
+        Uninterruptibles.sleepUninterruptibly(50, TimeUnit.MILLISECONDS);
+        if (datasetId.equals(failedDatasetId)) {
+          throw new IllegalStateException("Could not read " + datasetId);
+        }
+
+        return new EGADatasetMetaArchive(datasetId);
+      } finally {
+        active.decrementAndGet();
+      }
+    });
+
+    val reader = new EGADatasetMetaReader(catalog, api, resolver, 4, 1000);
+    try (Stream<EGADatasetDump> datasets = reader.readDatasets()) {
+      val readIds = datasets.map(EGADatasetDump::getDatasetId).collect(toSet());
+
+      assertThat(readIds).hasSize(datasetIds.size() - 1).doesNotContain(failedDatasetId);
+    }
+
+    assertThat(reader.getErrors()).hasSize(1);
+    assertThat(maxActive.get()).isGreaterThan(1);
+  }
+
+}
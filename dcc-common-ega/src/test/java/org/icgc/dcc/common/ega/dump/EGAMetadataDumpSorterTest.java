@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.ega.dump;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.icgc.dcc.common.core.json.JsonNodeBuilders.object;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.Maps;
+
+import lombok.val;
+
+public class EGAMetadataDumpSorterTest {
+
+  @Test
+  public void testMergeSpilled() throws Exception {
+    val groups = Maps.<String, List<ObjectNode>> newLinkedHashMap();
+    try (EGAMetadataDumpSorter sorter = new EGAMetadataDumpSorter(10)) {
+      for (int i = 0; i < 100; i++) {
+        sorter.add("key" + i % 7, object("i", i).end());
+      }
+
+      val keys = sorter.merge(groups::put);
+      assertThat(keys).isEqualTo(7);
+    }
+
+    assertGroups(groups);
+  }
+
+  @Test
+  public void testMergeInMemory() throws Exception {
+    val groups = Maps.<String, List<ObjectNode>> newLinkedHashMap();
+    try (EGAMetadataDumpSorter sorter = new EGAMetadataDumpSorter()) {
+      for (int i = 0; i < 100; i++) {
+        sorter.add("key" + i % 7, object("i", i).end());
+      }
+
+      sorter.merge(groups::put);
+    }
+
+    assertGroups(groups);
+  }
+
+  private static void assertGroups(Map<String, List<ObjectNode>> groups) {
+    assertThat(groups.keySet()).containsExactly("key0", "key1", "key2", "key3", "key4", "key5", "key6");
+    for (val entry : groups.entrySet()) {
+      int previous = -1;
+      for (val value : entry.getValue()) {
+        val i = value.get("i").intValue();
+        assertThat("key" + i % 7).isEqualTo(entry.getKey());
+
+        // Insertion order is preserved within a key
+        assertThat(i).isGreaterThan(previous);
+        previous = i;
+      }
+    }
+  }
+
+}
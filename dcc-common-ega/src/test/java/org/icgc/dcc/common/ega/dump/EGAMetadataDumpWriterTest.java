@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.ega.dump;
+
+import static java.util.stream.Collectors.toMap;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.icgc.dcc.common.core.json.JsonNodeBuilders.object;
+
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.icgc.dcc.common.ega.dataset.EGADatasetMetaArchive;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import lombok.val;
+
+public class EGAMetadataDumpWriterTest {
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  EGAMetadataDumpWriter writer = new EGAMetadataDumpWriter();
+
+  @Test
+  public void testWriteIncremental() throws Exception {
+    val dir = tmp.newFolder("dump");
+
+    val first = writer.writeIncremental(dir, Stream.of(
+        dataset("EGAD1", "a"),
+        dataset("EGAD2", "b"),
+        dataset("EGAD3", "c"),
+        dataset("EGAD5", "e")));
+    assertThat(first.getGeneration()).isEqualTo(1);
+    assertThat(first.getDatasets()).containsOnlyKeys("EGAD1", "EGAD2", "EGAD3", "EGAD5");
+
+    // Half of the first segment stays live, so it is not compacted
+    val second = writer.writeIncremental(dir, Stream.of(
+        dataset("EGAD1", "a"),
+        dataset("EGAD2", "changed"),
+        dataset("EGAD4", "d"),
+        dataset("EGAD5", "e")));
+    assertThat(second.getGeneration()).isEqualTo(2);
+    assertThat(second.getDatasets()).containsOnlyKeys("EGAD1", "EGAD2", "EGAD4", "EGAD5");
+
+    // Unchanged data set is not rewritten
+    assertThat(second.getDatasets().get("EGAD1")).isEqualTo(first.getDatasets().get("EGAD1"));
+    assertThat(second.getDatasets().get("EGAD2").getHash()).isNotEqualTo(first.getDatasets().get("EGAD2").getHash());
+
+    // Only referenced segments are kept
+    val files = ImmutableSet.<String> builder()
+        .addAll(second.getSegments())
+        .add(EGAMetadataDumpManifest.FILE_NAME)
+        .build();
+    assertThat(dir.list()).containsOnly(files.toArray(new String[files.size()]));
+
+    val records = read(new EGAMetadataDumpReader().read(dir));
+    assertThat(records).containsOnlyKeys("EGAD1", "EGAD2", "EGAD4", "EGAD5");
+    assertThat(records.get("EGAD2").path("catalog").path("title").textValue()).isEqualTo("changed");
+    assertThat(read(new EGAMetadataDumpReader(true).read(dir))).isEqualTo(records);
+
+    val changed = read(new EGAMetadataDumpReader().readChanged(dir, first));
+    assertThat(changed).containsOnlyKeys("EGAD2", "EGAD4");
+  }
+
+  @Test
+  public void testCompaction() throws Exception {
+    val dir = tmp.newFolder("dump");
+
+    val first = writer.writeIncremental(dir, Stream.of(
+        dataset("EGAD1", "a"),
+        dataset("EGAD2", "b"),
+        dataset("EGAD3", "c"),
+        dataset("EGAD4", "d")));
+    val firstSegment = first.getDatasets().get("EGAD1").getSegment();
+    assertThat(first.getSegmentSizes()).containsEntry(firstSegment, 4);
+
+    // 3 of 4 records live: kept
+    val second = writer.writeIncremental(dir, Stream.of(
+        dataset("EGAD1", "a"),
+        dataset("EGAD2", "b"),
+        dataset("EGAD3", "c"),
+        dataset("EGAD4", "changed")));
+    assertThat(second.getDatasets().get("EGAD1")).isEqualTo(first.getDatasets().get("EGAD1"));
+    assertThat(second.getSegmentSizes()).containsEntry(firstSegment, 4);
+
+    // 1 of 4 records live: compacted
+    val third = writer.writeIncremental(dir, Stream.of(
+        dataset("EGAD1", "a"),
+        dataset("EGAD2", "changed"),
+        dataset("EGAD3", "changed"),
+        dataset("EGAD4", "changed")));
+    val entry = third.getDatasets().get("EGAD1");
+    assertThat(entry.getHash()).isEqualTo(first.getDatasets().get("EGAD1").getHash());
+    assertThat(entry.getSegment()).isNotEqualTo(firstSegment);
+    assertThat(third.getSegments()).doesNotContain(firstSegment);
+    assertThat(third.getSegmentSizes()).containsOnlyKeys(third.getSegments().toArray(new String[0]));
+    assertThat(dir.list()).doesNotContain(firstSegment);
+
+    val records = read(new EGAMetadataDumpReader().read(dir));
+    assertThat(records).containsOnlyKeys("EGAD1", "EGAD2", "EGAD3", "EGAD4");
+    assertThat(records.get("EGAD1").path("catalog").path("title").textValue()).isEqualTo("a");
+    assertThat(records.get("EGAD4").path("catalog").path("title").textValue()).isEqualTo("changed");
+
+    // Compacted records are unchanged
+    val changed = read(new EGAMetadataDumpReader().readChanged(dir, first));
+    assertThat(changed).containsOnlyKeys("EGAD2", "EGAD3", "EGAD4");
+  }
+
+  private static Map<String, ObjectNode> read(Stream<ObjectNode> records) {
+    try (Stream<ObjectNode> stream = records) {
+      return stream.collect(toMap(record -> record.get("datasetId").textValue(), record -> record));
+    }
+  }
+
+  private static EGADatasetDump dataset(String datasetId, String title) {
+    return new EGADatasetDump(
+        datasetId,
+        object("title", title).end(),
+        ImmutableSet.of("PROJ-XX"),
+        ImmutableList.of(object("fileID", "EGAF" + datasetId).end()),
+        new EGADatasetMetaArchive(datasetId));
+  }
+
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.ega.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.icgc.dcc.common.core.json.Jackson.DEFAULT;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsonorg.JsonOrgModule;
+import com.google.common.collect.Lists;
+import com.google.common.io.Resources;
+
+import lombok.val;
+
+public class XMLObjectNodeReaderTest {
+
+  XMLObjectNodeReader reader = new XMLObjectNodeReader();
+
+  @Test
+  @SuppressWarnings("deprecation")
+  public void testReadMatchesJsonOrg() throws Exception {
+    val actual = reader.read(readXml());
+    val expected = new ObjectMapper().registerModule(new JsonOrgModule()).convertValue(reader.readJson(readXml()),
+        JsonNode.class);
+
+    // Round trip to normalize number node types
+    assertThat(DEFAULT.readTree(actual.toString())).isEqualTo(DEFAULT.readTree(expected.toString()));
+    assertThat(actual.path("SAMPLE_SET").path("SAMPLE").path(0).path("IDENTIFIERS").path("SUBMITTER_ID")
+        .path("content").textValue()).isEqualTo("0059");
+  }
+
+  @Test
+  public void testReadRecords() throws Exception {
+    val records = Lists.<JsonNode> newArrayList();
+    reader.readRecords(readXml(), records::add);
+
+    assertThat(records).hasSize(2);
+    assertThat(records.get(1).path("SAMPLE").path("alias").textValue()).isEqualTo("ICGC_BL59");
+  }
+
+  InputStream readXml() throws IOException {
+    return Resources.getResource("fixtures/xmls/EGAN00001171833.sample.xml").openStream();
+  }
+
+}
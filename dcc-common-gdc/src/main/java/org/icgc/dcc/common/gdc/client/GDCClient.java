@@ -29,11 +29,10 @@ import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.SocketTimeoutException;
 import java.net.URL;
+import java.net.URLEncoder;
 import java.util.List;
 import java.util.concurrent.Callable;
 
-import javax.net.ssl.HttpsURLConnection;
-
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.base.Joiner;
@@ -119,7 +118,7 @@ public class GDCClient {
       params.put("fields", COMMA.join(query.getFields()));
     }
     if (query.getFilters() != null) {
-      params.put("filters", query.getFilters());
+      params.put("filters", encode(query.getFilters().toString()));
     }
     if (query.getExpands() != null) {
       params.put("expand", COMMA.join(query.getExpands()));
@@ -156,7 +155,7 @@ public class GDCClient {
     val request = new URL(url + path);
 
     log.debug("Request: {}", request);
-    val connection = (HttpsURLConnection) request.openConnection();
+    val connection = (HttpURLConnection) request.openConnection();
     connection.setRequestProperty(ACCEPT, APPLICATION_JSON);
     connection.setReadTimeout(READ_TIMEOUT);
     connection.setConnectTimeout(READ_TIMEOUT);
@@ -164,6 +163,11 @@ public class GDCClient {
     return connection;
   }
 
+  @SneakyThrows
+  private static String encode(String value) {
+    return URLEncoder.encode(value, UTF_8.name());
+  }
+
   private static void checkWarnings(JsonNode response) {
     val warnings = response.path("warnings");
     if (warnings.size() > 0) {
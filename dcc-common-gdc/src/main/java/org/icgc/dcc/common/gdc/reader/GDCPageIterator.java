@@ -17,8 +17,20 @@
  */
 package org.icgc.dcc.common.gdc.reader;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.function.Function;
 
 import org.icgc.dcc.common.gdc.client.GDCClient.Pagination;
@@ -26,33 +38,58 @@ import org.icgc.dcc.common.gdc.client.GDCClient.Query;
 import org.icgc.dcc.common.gdc.client.GDCClient.Result;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import lombok.val;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Iterates over the pages of a GDC query in order.
+ * <p>
+ * The first page is fetched synchronously since its pagination determines the offsets of the remaining pages. These
+ * are then prefetched concurrently, keeping at most twice {@code parallelism} pages in flight. The prefetch threads are
+ * only started once there is more than one page and time out when idle so that an abandoned iterator does not pin them.
+ */
 @Slf4j
-class GDCPageIterator implements Iterator<List<ObjectNode>> {
+class GDCPageIterator implements Iterator<List<ObjectNode>>, AutoCloseable {
+
+  /**
+   * Constants.
+   */
+  private static final long KEEP_ALIVE_SECONDS = 1;
 
   /**
    * Dependencies.
    */
-  private Function<Query, Result> call;
+  private final Function<Query, Result> call;
 
   /**
    * Configuration.
    */
   private final Query query;
+  private final int parallelism;
+  private final int maxPending;
 
   /**
    * State.
    */
+  private final Deque<CompletableFuture<Result>> pending = new ArrayDeque<>();
   private int from;
+  private int remaining;
   private Pagination pagination;
+  private ExecutorService executor;
 
   public GDCPageIterator(Query query, Function<Query, Result> call) {
+    this(query, call, 1);
+  }
+
+  public GDCPageIterator(Query query, Function<Query, Result> call, int parallelism) {
+    checkArgument(parallelism > 0, "Parallelism must be positive: %s", parallelism);
     this.call = call;
     this.query = query;
     this.from = query.getFrom();
+    this.parallelism = parallelism;
+    this.maxPending = 2 * parallelism;
   }
 
   @Override
@@ -65,19 +102,84 @@ class GDCPageIterator implements Iterator<List<ObjectNode>> {
   }
 
   private boolean hasMorePages() {
-    return pagination.getPage() < pagination.getPages();
+    return !pending.isEmpty() || remaining > 0;
   }
 
   @Override
   public List<ObjectNode> next() {
-    val page = call.apply(query.toBuilder().from(from).build());
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+
+    val page = hasNotStarted() ? call.apply(nextQuery()) : await(pending.removeFirst());
+    if (hasNotStarted()) {
+      // Pages after the current one
+      remaining = Math.max(0, page.getPagination().getPages() - page.getPagination().getPage());
+    }
 
     // Advance
     pagination = page.getPagination();
-    from += query.getSize();
+    prefetch();
 
     log.info("{}", pagination);
+    if (!hasMorePages()) {
+      close();
+    }
+
     return page.getHits();
   }
 
-}
\ No newline at end of file
+  @Override
+  public void close() {
+    pending.forEach(future -> future.cancel(true));
+    pending.clear();
+    remaining = 0;
+
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+
+  private void prefetch() {
+    while (remaining > 0 && pending.size() < maxPending) {
+      val pageQuery = nextQuery();
+      pending.add(supplyAsync(() -> call.apply(pageQuery), getExecutor()));
+      remaining--;
+    }
+  }
+
+  private ExecutorService getExecutor() {
+    if (executor == null) {
+      val pool = new ThreadPoolExecutor(parallelism, parallelism, KEEP_ALIVE_SECONDS, SECONDS,
+          new LinkedBlockingQueue<>(),
+          new ThreadFactoryBuilder().setNameFormat("gdc-reader-%d").setDaemon(true).build());
+      pool.allowCoreThreadTimeOut(true);
+      executor = pool;
+    }
+
+    return executor;
+  }
+
+  private Query nextQuery() {
+    val pageQuery = query.toBuilder().from(from).build();
+    from += query.getSize();
+
+    return pageQuery;
+  }
+
+  private Result await(CompletableFuture<Result> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      close();
+
+      val cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+
+      throw e;
+    }
+  }
+
+}
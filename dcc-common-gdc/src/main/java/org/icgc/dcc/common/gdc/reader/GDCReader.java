@@ -40,13 +40,34 @@ import lombok.val;
 @RequiredArgsConstructor
 public class GDCReader {
 
+  /**
+   * Constants.
+   */
+  private static final int DEFAULT_PARALLELISM = 4;
+
+  /**
+   * Dependencies.
+   */
   @NonNull
   private final Function<Query, Result> call;
 
+  /**
+   * Configuration.
+   */
+  private final int parallelism;
+
+  public GDCReader(@NonNull Function<Query, Result> call) {
+    this(call, DEFAULT_PARALLELISM);
+  }
+
+  /**
+   * Reads all records of {@code query} in page order while up to {@code parallelism} pages are fetched
+   * concurrently.
+   */
   public Stream<ObjectNode> read(Query query) {
-    val pages = new GDCPageIterator(query, call);
+    val pages = new GDCPageIterator(query, call, parallelism);
 
-    return stream(pages).flatMap(List::stream);
+    return stream(pages).flatMap(List::stream).onClose(pages::close);
   }
 
 }
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.gdc.reader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.icgc.dcc.common.core.json.JsonNodeBuilders.object;
+import static org.icgc.dcc.common.gdc.client.GDCClient.Query.query;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.icgc.dcc.common.gdc.client.GDCClient.Pagination;
+import org.icgc.dcc.common.gdc.client.GDCClient.Query;
+import org.icgc.dcc.common.gdc.client.GDCClient.Result;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableList;
+
+import lombok.SneakyThrows;
+import lombok.val;
+
+public class GDCPageIteratorTest {
+
+  /**
+   * Constants.
+   */
+  private static final int TOTAL = 1234;
+  private static final int SIZE = 100;
+
+  /**
+   * State.
+   */
+  AtomicInteger active = new AtomicInteger();
+  AtomicInteger maxActive = new AtomicInteger();
+  AtomicInteger calls = new AtomicInteger();
+
+  @Test
+  public void testReadPrefetched() {
+    val reader = new GDCReader(this::call, 4);
+
+    List<Integer> ids;
+    try (Stream<ObjectNode> records = reader.read(query().size(SIZE).build())) {
+      ids = records.map(record -> record.get("id").intValue()).collect(Collectors.toList());
+    }
+
+    assertThat(ids).hasSize(TOTAL);
+    for (int i = 0; i < TOTAL; i++) {
+      assertThat(ids.get(i)).isEqualTo(i + 1);
+    }
+
+    assertThat(calls.get()).isEqualTo(13);
+    assertThat(maxActive.get()).isGreaterThan(1).isLessThanOrEqualTo(4);
+  }
+
+  @Test
+  public void testSinglePage() {
+    val threads = getReaderThreads();
+    val pages = new GDCPageIterator(query().size(SIZE).from(TOTAL - 9).build(), this::call, 4);
+
+    assertThat(pages.hasNext()).isTrue();
+    assertThat(pages.next()).hasSize(10);
+    assertThat(pages.hasNext()).isFalse();
+
+    // No prefetch threads without further pages
+    val created = getReaderThreads();
+    created.removeAll(threads);
+    assertThat(created).isEmpty();
+  }
+
+  @Test
+  public void testAbandoned() throws InterruptedException {
+    val threads = getReaderThreads();
+    val pages = new GDCPageIterator(query().size(SIZE).build(), this::call, 4);
+    assertThat(pages.next()).hasSize(SIZE);
+
+    // Prefetch threads of an iterator that is neither exhausted nor closed time out once idle
+    val created = getReaderThreads();
+    created.removeAll(threads);
+    assertThat(created).isNotEmpty();
+    for (int i = 0; i < 50 && created.stream().anyMatch(Thread::isAlive); i++) {
+      Thread.sleep(100);
+    }
+
+    assertThat(created.stream().anyMatch(Thread::isAlive)).isFalse();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testError() {
+    Function<Query, Result> failing = query -> {
+      if (query.getFrom() > SIZE) {
+        throw new IllegalStateException("Page failed");
+      }
+
+      return call(query);
+    };
+
+    val pages = new GDCPageIterator(query().size(SIZE).build(), failing, 4);
+    while (pages.hasNext()) {
+      pages.next();
+    }
+  }
+
+  private static Set<Thread> getReaderThreads() {
+    return Thread.getAllStackTraces().keySet().stream()
+        .filter(thread -> thread.getName().startsWith("gdc-reader-"))
+        .collect(Collectors.toSet());
+  }
+
+  /**
+   * Simulates the 1-based {@code from} paging of the GDC API with some latency.
+   */
+  @SneakyThrows
+  private Result call(Query query) {
+    calls.incrementAndGet();
+    maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+    try {
+      Thread.sleep(20);
+
+      val from = query.getFrom();
+      val size = query.getSize();
+      val hits = ImmutableList.<ObjectNode> builder();
+      for (int id = from; id < from + size && id <= TOTAL; id++) {
+        hits.add(object().with("id", id).end());
+      }
+
+      val pagination = new Pagination();
+      pagination.setFrom(from);
+      pagination.setSize(size);
+      pagination.setTotal(TOTAL);
+      pagination.setPage((from - 1) / size + 1);
+      pagination.setPages((TOTAL + size - 1) / size);
+
+      return new Result(pagination, hits.build());
+    } finally {
+      active.decrementAndGet();
+    }
+  }
+
+}
@@ -17,22 +17,31 @@
  */
 package org.icgc.dcc.common.tcga.client;
 
+import static org.icgc.dcc.common.core.json.JsonNodeBuilders.object;
 import static org.icgc.dcc.common.core.util.Formats.formatCount;
 import static org.icgc.dcc.common.gdc.client.GDCClient.Query.query;
 
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Stream;
 
 import org.icgc.dcc.common.gdc.client.GDCClient;
 import org.icgc.dcc.common.gdc.reader.GDCReader;
+import org.icgc.dcc.common.tcga.core.TCGAMappingSnapshot;
 import org.icgc.dcc.common.tcga.core.TCGAMappings;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.base.Stopwatch;
-import com.google.common.collect.BiMap;
-import com.google.common.collect.HashBiMap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 
+import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.val;
 import lombok.extern.slf4j.Slf4j;
@@ -50,64 +59,206 @@ public class TCGAClient {
   private static final String LEGACY_API_URL = "https://gdc-api.nci.nih.gov/legacy";
 
   private static final int PAGE_SIZE = 1000;
+  private static final String UPDATED_FIELD_NAME = "updated_datetime";
   private static final List<String> FIELD_NAMES =
       ImmutableList.of(
           "case_id",
           "submitter_id",
+          UPDATED_FIELD_NAME,
           "samples.sample_id",
           "samples.submitter_id",
           "samples.portions.analytes.aliquots.aliquot_id",
           "samples.portions.analytes.aliquots.submitter_id");
 
   /**
-   * State.
+   * Configuration.
    */
+  @NonNull
+  private final String currentApiUrl;
+  @NonNull
+  private final String legacyApiUrl;
+
+  public TCGAClient() {
+    this(CURRENT_API_URL, LEGACY_API_URL);
+  }
+
   public TCGAMappings getMappings() {
+    return getSnapshot().getMappings();
+  }
+
+  /**
+   * Crawls all current and legacy cases.
+   */
+  public TCGAMappingSnapshot getSnapshot() {
     log.info("Creating UUID <-> barcode mapping...");
     val watch = Stopwatch.createStarted();
-    val cases = readCases();
 
     // Allow for lookup by barcode or UUID value
-    log.info("Adding mappings...");
-    val mapping = HashBiMap.<String, String> create();
-    cases.forEach((caze) -> addMappings(mapping, caze));
+    val mapping = Maps.<String, String> newHashMap();
+    val cases = Maps.<String, Set<String>> newHashMap();
+    val watermark = readMappings(null, mapping, cases);
+
+    // Compacted into a sorted store which also rejects barcodes mapped from more than one UUID
+    val mappings = new TCGAMappings(mapping);
+    log.info("Finished creating {} mappings as of {} in {}", formatCount(mapping), watermark, watch);
+
+    return new TCGAMappingSnapshot(mappings, watermark, cases);
+  }
+
+  /**
+   * Fetches only the cases updated since the {@code previous} snapshot's watermark and merges them into its mappings.
+   * Falls back to a full crawl if {@code previous} has no watermark or no case UUIDs.
+   */
+  public TCGAMappingSnapshot refresh(@NonNull TCGAMappingSnapshot previous) {
+    val since = previous.getWatermark();
+    if (since == null) {
+      log.warn("No watermark in previous snapshot, falling back to full crawl");
+      return getSnapshot();
+    }
+    if (previous.getCases().isEmpty()) {
+      log.warn("No case UUIDs in previous snapshot, falling back to full crawl");
+      return getSnapshot();
+    }
+
+    log.info("Refreshing UUID <-> barcode mapping updated since {}...", since);
+    val watch = Stopwatch.createStarted();
+
+    val delta = Maps.<String, String> newHashMap();
+    val deltaCases = Maps.<String, Set<String>> newHashMap();
+    val watermark = later(since, readMappings(since, delta, deltaCases));
+
+    log.info("Merging {} updated mappings into {} previous mappings...",
+        formatCount(delta), formatCount(previous.getMappings().size()));
+    val mapping = merge(previous.getMappings(), previous.getCases(), delta, deltaCases);
+
+    val cases = Maps.newHashMap(previous.getCases());
+    cases.putAll(deltaCases);
 
-    log.info("Finished creating {} mappings in {}", formatCount(mapping), watch);
-    return new TCGAMappings(mapping);
+    val mappings = new TCGAMappings(mapping);
+    log.info("Finished refreshing {} mappings as of {} in {}", formatCount(mapping), watermark, watch);
+
+    return new TCGAMappingSnapshot(mappings, watermark, cases);
   }
 
-  private void addMappings(BiMap<String, String> mapping, ObjectNode caze) {
+  /**
+   * @return the latest {@code updated_datetime} read
+   */
+  private String readMappings(String since, Map<String, String> mapping, Map<String, Set<String>> cases) {
+    val watermark = new AtomicReference<String>();
+    try (Stream<ObjectNode> stream = readCases(since)) {
+      stream.forEach((caze) -> {
+        addMappings(mapping, cases, caze);
+        watermark.accumulateAndGet(caze.path(UPDATED_FIELD_NAME).textValue(), TCGAClient::later);
+      });
+    }
+
+    return watermark.get();
+  }
+
+  private void addMappings(Map<String, String> mapping, Map<String, Set<String>> cases, ObjectNode caze) {
+    // Record the UUIDs of the case so that those it no longer lists can be dropped on refresh
+    val caseId = caze.get("case_id").textValue();
+    val uuids = Sets.<String> newHashSet();
+    cases.put(caseId, uuids);
+
     // Add donor id mapping
-    mapping.put(caze.get("case_id").textValue(), caze.get("submitter_id").textValue());
+    put(mapping, uuids, caseId, caze.get("submitter_id").textValue());
     for (val sample : caze.path("samples")) {
       // Add specimen id mapping
-      mapping.put(sample.get("sample_id").textValue(), sample.get("submitter_id").textValue());
+      put(mapping, uuids, sample.get("sample_id").textValue(), sample.get("submitter_id").textValue());
 
       for (val portion : sample.path("portions")) {
         for (val analyte : portion.path("analytes")) {
           for (val aliquot : analyte.path("aliquots")) {
             // Add sample id mapping
-            mapping.put(aliquot.get("aliquot_id").textValue(), aliquot.get("submitter_id").textValue());
+            put(mapping, uuids, aliquot.get("aliquot_id").textValue(), aliquot.get("submitter_id").textValue());
           }
         }
       }
     }
   }
 
-  private Stream<ObjectNode> readCases() {
+  private static void put(Map<String, String> mapping, Set<String> uuids, String uuid, String barcode) {
+    mapping.put(uuid, barcode);
+    uuids.add(uuid);
+  }
+
+  private Stream<ObjectNode> readCases(String since) {
     log.info("Reading current cases...");
-    val currentFiles = readCases(CURRENT_API_URL);
+    val currentFiles = readCases(currentApiUrl, since);
     log.info("Reading legacy cases...");
-    val legacyFiles = readCases(LEGACY_API_URL);
+    val legacyFiles = readCases(legacyApiUrl, since);
 
     return Stream.concat(legacyFiles, currentFiles);
   }
 
-  private Stream<ObjectNode> readCases(String apiUrl) {
+  private Stream<ObjectNode> readCases(String apiUrl, String since) {
     val reader = new GDCReader(new GDCClient(apiUrl)::getCases);
-    val query = query().fields(FIELD_NAMES).size(PAGE_SIZE).build();
+    val query = query().fields(FIELD_NAMES).size(PAGE_SIZE);
+    if (since != null) {
+      query.filters(updatedSince(since));
+    }
+
+    return reader.read(query.build());
+  }
 
-    return reader.read(query);
+  private static ObjectNode updatedSince(String since) {
+    // Inclusive since cases updated at the watermark instant may not all have been read. Re-reading them is harmless
+    return object()
+        .with("op", ">=")
+        .with("content", object()
+            .with("field", UPDATED_FIELD_NAME)
+            .with("value", since))
+        .end();
+  }
+
+  private static Map<String, String> merge(TCGAMappings previous, Map<String, Set<String>> previousCases,
+      Map<String, String> delta, Map<String, Set<String>> deltaCases) {
+    // UUIDs updated cases no longer list. Those listed by another updated case are restored from the delta below
+    val removed = Sets.<String> newHashSet();
+    for (val caze : deltaCases.entrySet()) {
+      val uuids = previousCases.get(caze.getKey());
+      if (uuids != null) {
+        removed.addAll(Sets.difference(uuids, caze.getValue()));
+      }
+    }
+
+    // Updated cases win, including barcodes that moved to a different UUID
+    val barcodes = ImmutableSet.copyOf(delta.values());
+    val mapping = Maps.<String, String> newHashMapWithExpectedSize(previous.size() + delta.size());
+    for (val entry : previous) {
+      val uuid = entry.getKey();
+      if (!removed.contains(uuid) && !delta.containsKey(uuid) && !barcodes.contains(entry.getValue())) {
+        mapping.put(entry.getKey(), entry.getValue());
+      }
+    }
+
+    mapping.putAll(delta);
+
+    return mapping;
+  }
+
+  private static String later(String a, String b) {
+    val bTime = parse(b);
+    if (bTime == null) {
+      return a;
+    }
+
+    val aTime = parse(a);
+    return aTime == null || bTime.isAfter(aTime) ? b : a;
+  }
+
+  private static OffsetDateTime parse(String value) {
+    if (value == null) {
+      return null;
+    }
+
+    try {
+      return OffsetDateTime.parse(value);
+    } catch (DateTimeParseException e) {
+      log.warn("Ignoring unparsable {} value: {}", UPDATED_FIELD_NAME, e.getMessage());
+      return null;
+    }
   }
 
 }
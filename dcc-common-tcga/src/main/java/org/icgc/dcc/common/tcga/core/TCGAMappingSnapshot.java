@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.tcga.core;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static org.icgc.dcc.common.core.json.Jackson.DEFAULT;
+
+import java.io.File;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.google.common.collect.ImmutableMap;
+
+import lombok.NonNull;
+import lombok.SneakyThrows;
+import lombok.Value;
+import lombok.val;
+
+/**
+ * Persisted {@link TCGAMappings} together with the watermark they are current as of.
+ * <p>
+ * The mappings are kept in a {@link TCGAMappingStore} file. The state only needed to refresh them, the UUIDs of each
+ * case in a {@code .cases.json} file and the watermark in a {@code .properties} file, is kept in a separate state
+ * directory so that the store can be packaged on its own. The watermark is the latest GDC {@code updated_datetime} of
+ * the cases the mappings were built from so that a refresh only has to fetch cases updated since.
+ */
+@Value
+public class TCGAMappingSnapshot {
+
+  /**
+   * Constants.
+   */
+  private static final String CASES_SUFFIX = ".cases.json";
+  private static final String PROPERTIES_SUFFIX = ".properties";
+  private static final String WATERMARK_PROPERTY = "watermark";
+
+  @NonNull
+  TCGAMappings mappings;
+
+  /**
+   * Latest {@code updated_datetime} included or {@code null} if unknown, in which case a full refresh is required.
+   */
+  String watermark;
+
+  /**
+   * Case, sample and aliquot UUIDs by case UUID or empty if unknown, in which case a full refresh is required.
+   */
+  @NonNull
+  Map<String, Set<String>> cases;
+
+  public TCGAMappingSnapshot(@NonNull TCGAMappings mappings, String watermark,
+      @NonNull Map<String, Set<String>> cases) {
+    this.mappings = mappings;
+    this.watermark = watermark;
+    this.cases = cases;
+  }
+
+  public TCGAMappingSnapshot(@NonNull TCGAMappings mappings, String watermark) {
+    this(mappings, watermark, ImmutableMap.of());
+  }
+
+  public static boolean exists(@NonNull File file) {
+    return file.isFile();
+  }
+
+  @SneakyThrows
+  public static TCGAMappingSnapshot read(@NonNull File file, @NonNull File stateDir) {
+    val mappings = new TCGAMappings(TCGAMappingStore.open(file));
+
+    val casesFile = getCasesFile(file, stateDir);
+    val cases = casesFile.isFile() ?
+        DEFAULT.<Map<String, Set<String>>> readValue(casesFile, new TypeReference<Map<String, Set<String>>>() {}) :
+        ImmutableMap.<String, Set<String>> of();
+
+    val propertiesFile = getPropertiesFile(file, stateDir);
+    if (!propertiesFile.isFile()) {
+      return new TCGAMappingSnapshot(mappings, null, cases);
+    }
+
+    val properties = new Properties();
+    try (Reader reader = Files.newBufferedReader(propertiesFile.toPath(), UTF_8)) {
+      properties.load(reader);
+    }
+
+    return new TCGAMappingSnapshot(mappings, properties.getProperty(WATERMARK_PROPERTY), cases);
+  }
+
+  @SneakyThrows
+  public void write(@NonNull File file, @NonNull File stateDir) {
+    // Watermark last so that a failure in between leaves an older watermark which only widens the next refresh
+    val storeTemp = createTempFile(file);
+    try {
+      mappings.write(storeTemp.toFile());
+      Files.move(storeTemp, file.toPath(), ATOMIC_MOVE, REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(storeTemp);
+    }
+
+    Files.createDirectories(stateDir.toPath());
+    val casesFile = getCasesFile(file, stateDir);
+    val casesTemp = createTempFile(casesFile);
+    try {
+      DEFAULT.writeValue(casesTemp.toFile(), cases);
+      Files.move(casesTemp, casesFile.toPath(), ATOMIC_MOVE, REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(casesTemp);
+    }
+
+    val propertiesFile = getPropertiesFile(file, stateDir);
+    if (watermark == null) {
+      Files.deleteIfExists(propertiesFile.toPath());
+      return;
+    }
+
+    val properties = new Properties();
+    properties.setProperty(WATERMARK_PROPERTY, watermark);
+
+    val propertiesTemp = createTempFile(propertiesFile);
+    try {
+      try (Writer writer = Files.newBufferedWriter(propertiesTemp, UTF_8)) {
+        properties.store(writer, "TCGA mapping snapshot");
+      }
+      Files.move(propertiesTemp, propertiesFile.toPath(), ATOMIC_MOVE, REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(propertiesTemp);
+    }
+  }
+
+  @SneakyThrows
+  private static Path createTempFile(File file) {
+    return Files.createTempFile(file.getAbsoluteFile().getParentFile().toPath(), file.getName(), ".tmp");
+  }
+
+  private static File getCasesFile(File file, File stateDir) {
+    return new File(stateDir, file.getName() + CASES_SUFFIX);
+  }
+
+  private static File getPropertiesFile(File file, File stateDir) {
+    return new File(stateDir, file.getName() + PROPERTIES_SUFFIX);
+  }
+
+}
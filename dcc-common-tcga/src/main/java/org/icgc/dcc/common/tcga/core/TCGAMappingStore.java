@@ -0,0 +1,498 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.tcga.core;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.Maps.immutableEntry;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NoSuchElementException;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.primitives.UnsignedBytes;
+
+import lombok.Cleanup;
+import lombok.NonNull;
+import lombok.SneakyThrows;
+import lombok.val;
+
+/**
+ * Compact, read-only UUID <-> barcode mapping store.
+ * <p>
+ * Both directions are kept as sorted, front-coded key arrays: keys are grouped into blocks where the first key is
+ * stored in full and every following key as the length of the prefix it shares with its predecessor plus the remaining
+ * suffix. Each key position also records the position of its counterpart in the other direction. A lookup binary
+ * searches the block heads, scans a single block and then decodes the counterpart from its block.
+ * <p>
+ * The format is read with absolute {@link ByteBuffer} access only, so a store can be memory mapped without parsing
+ * and is safe for concurrent readers:
+ * 
+ * <pre>
+ * header:  int magic, int version, int size, int blockSize, section uuids, section barcodes
+ * section: int blockCount, int maxKeyLength, int dataLength, int[blockCount] blockOffsets, byte[dataLength] keys,
+ *          int[size] counterparts
+ * key:     head = varint length, bytes | varint prefixLength, varint suffixLength, suffix bytes
+ * </pre>
+ */
+public final class TCGAMappingStore implements Iterable<Entry<String, String>> {
+
+  /**
+   * Constants.
+   */
+  private static final int MAGIC = 0x5443474D; // "TCGM"
+  private static final int VERSION = 1;
+  private static final int HEADER_SIZE = 16;
+  private static final int BLOCK_SIZE = 16;
+  private static final Comparator<byte[]> KEY_ORDER = UnsignedBytes.lexicographicalComparator();
+
+  /**
+   * State.
+   */
+  private final ByteBuffer buffer;
+  private final int size;
+  private final Section uuids;
+  private final Section barcodes;
+
+  private TCGAMappingStore(ByteBuffer buffer) {
+    checkState(buffer.limit() >= HEADER_SIZE && buffer.getInt(0) == MAGIC, "Not a TCGA mapping store");
+    checkState(buffer.getInt(4) == VERSION, "Unsupported TCGA mapping store version %s", buffer.getInt(4));
+    this.buffer = buffer;
+    this.size = buffer.getInt(8);
+
+    val blockSize = buffer.getInt(12);
+    this.uuids = new Section(buffer, HEADER_SIZE, size, blockSize);
+    this.barcodes = new Section(buffer, uuids.end, size, blockSize);
+    checkState(barcodes.end == buffer.limit(), "Truncated TCGA mapping store");
+  }
+
+  /**
+   * Memory maps the store in {@code file}.
+   */
+  @SneakyThrows
+  public static TCGAMappingStore open(@NonNull File file) {
+    try (FileChannel channel = FileChannel.open(file.toPath(), READ)) {
+      // The mapping stays valid after the channel is closed
+      return new TCGAMappingStore(channel.map(MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
+  /**
+   * Reads the store in {@code inputStream} onto the heap, e.g. when packaged in a jar.
+   */
+  @SneakyThrows
+  public static TCGAMappingStore read(@NonNull InputStream inputStream) {
+    return new TCGAMappingStore(ByteBuffer.wrap(ByteStreams.toByteArray(inputStream)));
+  }
+
+  /**
+   * Creates a heap store from UUID -> barcode {@code mappings}.
+   */
+  @SneakyThrows
+  public static TCGAMappingStore create(@NonNull Map<String, String> mappings) {
+    val output = new ByteArrayOutputStream();
+    write(mappings, output);
+
+    return new TCGAMappingStore(ByteBuffer.wrap(output.toByteArray()));
+  }
+
+  /**
+   * Writes UUID -> barcode {@code mappings} to {@code file}.
+   */
+  @SneakyThrows
+  public static void write(@NonNull Map<String, String> mappings, @NonNull File file) {
+    @Cleanup
+    val output = new BufferedOutputStream(new FileOutputStream(file));
+    write(mappings, output);
+  }
+
+  /**
+   * Writes UUID -> barcode {@code mappings} to {@code outputStream}. Both UUIDs and barcodes must be unique.
+   */
+  public static void write(@NonNull Map<String, String> mappings, @NonNull OutputStream outputStream)
+      throws IOException {
+    val size = mappings.size();
+    val uuidKeys = new byte[size][];
+    val barcodeKeys = new byte[size][];
+
+    int i = 0;
+    for (val mapping : mappings.entrySet()) {
+      uuidKeys[i] = mapping.getKey().getBytes(UTF_8);
+      barcodeKeys[i] = mapping.getValue().getBytes(UTF_8);
+      i++;
+    }
+
+    val uuidOrder = sort(uuidKeys, "UUID");
+    val barcodeOrder = sort(barcodeKeys, "barcode");
+
+    val output = new DataOutputStream(outputStream);
+    output.writeInt(MAGIC);
+    output.writeInt(VERSION);
+    output.writeInt(size);
+    output.writeInt(BLOCK_SIZE);
+    writeSection(output, uuidKeys, uuidOrder, rank(barcodeOrder));
+    writeSection(output, barcodeKeys, barcodeOrder, rank(uuidOrder));
+    output.flush();
+  }
+
+  /**
+   * Writes this store as is to {@code file}.
+   */
+  @SneakyThrows
+  public void write(@NonNull File file) {
+    try (FileChannel channel = FileChannel.open(file.toPath(), CREATE, WRITE, TRUNCATE_EXISTING)) {
+      val data = buffer.duplicate();
+      data.clear();
+      while (data.hasRemaining()) {
+        channel.write(data);
+      }
+    }
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return the barcode of {@code uuid} or {@code null} if not mapped
+   */
+  public String getBarcode(@NonNull String uuid) {
+    return lookup(uuids, barcodes, uuid);
+  }
+
+  /**
+   * @return the UUID of {@code barcode} or {@code null} if not mapped
+   */
+  public String getUUID(@NonNull String barcode) {
+    return lookup(barcodes, uuids, barcode);
+  }
+
+  /**
+   * Iterates UUID -> barcode mappings in UUID order.
+   */
+  @Override
+  public Iterator<Entry<String, String>> iterator() {
+    return new Iterator<Entry<String, String>>() {
+
+      private final Cursor cursor = uuids.cursor();
+      private int index;
+
+      @Override
+      public boolean hasNext() {
+        return index < size;
+      }
+
+      @Override
+      public Entry<String, String> next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+
+        // Sequential decoding avoids rescanning the block for every key
+        if (index % uuids.blockSize == 0) {
+          uuids.readHead(cursor, index / uuids.blockSize);
+        } else {
+          uuids.readNext(cursor);
+        }
+
+        val uuid = cursor.toString();
+        val barcode = barcodes.get(uuids.counterpart(index));
+        index++;
+
+        return immutableEntry(uuid, barcode);
+      }
+
+    };
+  }
+
+  private static String lookup(Section from, Section to, String key) {
+    val index = from.find(key.getBytes(UTF_8));
+    return index < 0 ? null : to.get(from.counterpart(index));
+  }
+
+  private static int[] sort(byte[][] keys, String name) {
+    val order = new Integer[keys.length];
+    for (int i = 0; i < order.length; i++) {
+      order[i] = i;
+    }
+
+    Arrays.sort(order, (a, b) -> KEY_ORDER.compare(keys[a], keys[b]));
+    for (int i = 1; i < order.length; i++) {
+      checkArgument(KEY_ORDER.compare(keys[order[i - 1]], keys[order[i]]) != 0,
+          "Duplicate %s '%s'", name, new String(keys[order[i]], UTF_8));
+    }
+
+    return Arrays.stream(order).mapToInt(Integer::intValue).toArray();
+  }
+
+  private static int[] rank(int[] order) {
+    val ranks = new int[order.length];
+    for (int i = 0; i < order.length; i++) {
+      ranks[order[i]] = i;
+    }
+
+    return ranks;
+  }
+
+  private static void writeSection(DataOutputStream output, byte[][] keys, int[] order, int[] counterpartRanks)
+      throws IOException {
+    val blockCount = (order.length + BLOCK_SIZE - 1) / BLOCK_SIZE;
+    val blockOffsets = new int[blockCount];
+    val data = new ByteArrayOutputStream();
+
+    int maxKeyLength = 0;
+    byte[] previous = null;
+    for (int i = 0; i < order.length; i++) {
+      val key = keys[order[i]];
+      maxKeyLength = Math.max(maxKeyLength, key.length);
+
+      if (i % BLOCK_SIZE == 0) {
+        // Heads are stored in full so they can be compared without decoding their predecessors
+        blockOffsets[i / BLOCK_SIZE] = data.size();
+        writeVarInt(data, key.length);
+        data.write(key, 0, key.length);
+      } else {
+        val prefix = sharedPrefixLength(previous, key);
+        writeVarInt(data, prefix);
+        writeVarInt(data, key.length - prefix);
+        data.write(key, prefix, key.length - prefix);
+      }
+
+      previous = key;
+    }
+
+    output.writeInt(blockCount);
+    output.writeInt(maxKeyLength);
+    output.writeInt(data.size());
+    for (val blockOffset : blockOffsets) {
+      output.writeInt(blockOffset);
+    }
+    data.writeTo(output);
+    for (val index : order) {
+      output.writeInt(counterpartRanks[index]);
+    }
+  }
+
+  private static int sharedPrefixLength(byte[] a, byte[] b) {
+    val max = Math.min(a.length, b.length);
+    int i = 0;
+    while (i < max && a[i] == b[i]) {
+      i++;
+    }
+
+    return i;
+  }
+
+  private static void writeVarInt(ByteArrayOutputStream output, int value) {
+    while ((value & ~0x7F) != 0) {
+      output.write((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    output.write(value);
+  }
+
+  /**
+   * One direction of the mapping.
+   */
+  private static final class Section {
+
+    /**
+     * Configuration.
+     */
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int blockSize;
+    private final int blockCount;
+    private final int maxKeyLength;
+    private final int blockOffsetsPosition;
+    private final int keysPosition;
+    private final int counterpartsPosition;
+    private final int end;
+
+    private Section(ByteBuffer buffer, int position, int size, int blockSize) {
+      this.buffer = buffer;
+      this.size = size;
+      this.blockSize = blockSize;
+      this.blockCount = buffer.getInt(position);
+      this.maxKeyLength = buffer.getInt(position + 4);
+      this.blockOffsetsPosition = position + 12;
+      this.keysPosition = blockOffsetsPosition + 4 * blockCount;
+      this.counterpartsPosition = keysPosition + buffer.getInt(position + 8);
+      this.end = counterpartsPosition + 4 * size;
+    }
+
+    Cursor cursor() {
+      return new Cursor(maxKeyLength);
+    }
+
+    int counterpart(int index) {
+      return buffer.getInt(counterpartsPosition + 4 * index);
+    }
+
+    /**
+     * @return the index of {@code key} or {@code -1} if absent
+     */
+    int find(byte[] key) {
+      if (size == 0) {
+        return -1;
+      }
+
+      // Last block whose head is <= key
+      int low = 0;
+      int high = blockCount - 1;
+      while (low < high) {
+        val middle = (low + high + 1) >>> 1;
+        if (compareHead(middle, key) <= 0) {
+          low = middle;
+        } else {
+          high = middle - 1;
+        }
+      }
+
+      val cursor = cursor();
+      val last = Math.min(size, (low + 1) * blockSize);
+      for (int index = low * blockSize; index < last; index++) {
+        if (index == low * blockSize) {
+          readHead(cursor, low);
+        } else {
+          readNext(cursor);
+        }
+
+        val comparison = cursor.compareTo(key);
+        if (comparison == 0) {
+          return index;
+        } else if (comparison > 0) {
+          break;
+        }
+      }
+
+      return -1;
+    }
+
+    String get(int index) {
+      val cursor = cursor();
+      readHead(cursor, index / blockSize);
+      for (int i = index % blockSize; i > 0; i--) {
+        readNext(cursor);
+      }
+
+      return cursor.toString();
+    }
+
+    void readHead(Cursor cursor, int block) {
+      cursor.position = keysPosition + buffer.getInt(blockOffsetsPosition + 4 * block);
+      cursor.length = readBytes(cursor, 0, readVarInt(cursor));
+    }
+
+    void readNext(Cursor cursor) {
+      val prefixLength = readVarInt(cursor);
+      cursor.length = readBytes(cursor, prefixLength, readVarInt(cursor));
+    }
+
+    private int compareHead(int block, byte[] key) {
+      val cursor = new Cursor(0);
+      cursor.position = keysPosition + buffer.getInt(blockOffsetsPosition + 4 * block);
+      val length = readVarInt(cursor);
+
+      val max = Math.min(length, key.length);
+      for (int i = 0; i < max; i++) {
+        val comparison = UnsignedBytes.compare(buffer.get(cursor.position + i), key[i]);
+        if (comparison != 0) {
+          return comparison;
+        }
+      }
+
+      return length - key.length;
+    }
+
+    private int readBytes(Cursor cursor, int offset, int length) {
+      for (int i = 0; i < length; i++) {
+        cursor.key[offset + i] = buffer.get(cursor.position++);
+      }
+
+      return offset + length;
+    }
+
+    private int readVarInt(Cursor cursor) {
+      int value = 0;
+      int shift = 0;
+      byte b;
+      do {
+        b = buffer.get(cursor.position++);
+        value |= (b & 0x7F) << shift;
+        shift += 7;
+      } while ((b & 0x80) != 0);
+
+      return value;
+    }
+
+  }
+
+  /**
+   * Decoding position within a section and the key decoded at it.
+   */
+  private static final class Cursor {
+
+    private final byte[] key;
+    private int length;
+    private int position;
+
+    private Cursor(int maxKeyLength) {
+      this.key = new byte[maxKeyLength];
+    }
+
+    private int compareTo(byte[] other) {
+      val max = Math.min(length, other.length);
+      for (int i = 0; i < max; i++) {
+        val comparison = UnsignedBytes.compare(key[i], other[i]);
+        if (comparison != 0) {
+          return comparison;
+        }
+      }
+
+      return length - other.length;
+    }
+
+    @Override
+    public String toString() {
+      return new String(key, 0, length, UTF_8);
+    }
+
+  }
+
+}
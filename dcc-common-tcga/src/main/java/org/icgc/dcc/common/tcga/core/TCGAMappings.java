@@ -17,35 +17,47 @@
  */
 package org.icgc.dcc.common.tcga.core;
 
+import java.io.File;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Set;
 
-import com.google.common.collect.BiMap;
-import com.google.common.collect.HashBiMap;
 import com.google.common.collect.ImmutableMap;
 
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.val;
 
+/**
+ * UUID <-> barcode mappings backed by a compact {@link TCGAMappingStore}.
+ */
 @RequiredArgsConstructor
 public class TCGAMappings implements Iterable<Entry<String, String>> {
 
   @NonNull
-  private final BiMap<String, String> mapping;
+  private final TCGAMappingStore mapping;
+
+  /**
+   * @param mapping UUID -> barcode mappings
+   */
+  public TCGAMappings(@NonNull Map<String, String> mapping) {
+    this(TCGAMappingStore.create(mapping));
+  }
 
   @SuppressWarnings("unchecked")
-  public TCGAMappings(Properties mapping) {
-    this.mapping = HashBiMap.<String, String> create();
-    this.mapping.putAll((Map<String, String>) (Object) mapping);
+  public TCGAMappings(@NonNull Properties mapping) {
+    this((Map<String, String>) (Object) mapping);
+  }
+
+  public int size() {
+    return mapping.size();
   }
 
   @NonNull
   public String getUUID(String barcode) {
-    return mapping.inverse().get(barcode);
+    return mapping.getUUID(barcode);
   }
 
   @NonNull
@@ -62,7 +74,7 @@ public class TCGAMappings implements Iterable<Entry<String, String>> {
 
   @NonNull
   public String getBarcode(String uuid) {
-    return mapping.get(uuid);
+    return mapping.getBarcode(uuid);
   }
 
   @NonNull
@@ -77,9 +89,16 @@ public class TCGAMappings implements Iterable<Entry<String, String>> {
     return barcodes.build();
   }
 
+  /**
+   * Writes the backing store to {@code file}.
+   */
+  public void write(@NonNull File file) {
+    mapping.write(file);
+  }
+
   @Override
   public Iterator<Entry<String, String>> iterator() {
-    return mapping.entrySet().iterator();
+    return mapping.iterator();
   }
 
 }
@@ -19,23 +19,49 @@ package org.icgc.dcc.common.tcga.reader;
 
 import static com.google.common.io.Resources.getResource;
 
+import java.io.File;
 import java.util.Properties;
 
+import org.icgc.dcc.common.tcga.core.TCGAMappingStore;
 import org.icgc.dcc.common.tcga.core.TCGAMappings;
 
+import lombok.Cleanup;
+import lombok.NonNull;
 import lombok.SneakyThrows;
 import lombok.val;
 
 public class TCGAMappingsReader {
 
   public static final String MAPPING_FILE_NAME = "tcga-uuid-barcode-mapping.properties";
+  public static final String MAPPING_STORE_FILE_NAME = "tcga-uuid-barcode-mapping.bin";
 
+  /**
+   * Reads the packaged mappings, preferring the binary store over the legacy properties file.
+   */
   @SneakyThrows
   public TCGAMappings readMappings() {
+    val store = TCGAMappingsReader.class.getClassLoader().getResource(MAPPING_STORE_FILE_NAME);
+    if (store != null) {
+      if ("file".equals(store.getProtocol())) {
+        return readMappings(new File(store.toURI()));
+      }
+
+      @Cleanup
+      val inputStream = store.openStream();
+      return new TCGAMappings(TCGAMappingStore.read(inputStream));
+    }
+
     val mappings = new Properties();
     mappings.load(getResource(MAPPING_FILE_NAME).openStream());
 
     return new TCGAMappings(mappings);
   }
 
+  /**
+   * Memory maps the binary store in {@code file}.
+   */
+  public TCGAMappings readMappings(@NonNull File file) {
+    return new TCGAMappings(TCGAMappingStore.open(file));
+  }
+
 }
@@ -17,39 +17,55 @@
  */
 package org.icgc.dcc.common.tcga.util;
 
-import static org.icgc.dcc.common.tcga.reader.TCGAMappingsReader.MAPPING_FILE_NAME;
+import static org.icgc.dcc.common.tcga.reader.TCGAMappingsReader.MAPPING_STORE_FILE_NAME;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.util.Properties;
 
 import org.icgc.dcc.common.tcga.client.TCGAClient;
+import org.icgc.dcc.common.tcga.core.TCGAMappingSnapshot;
 import org.icgc.dcc.common.tcga.core.TCGAMappings;
 
 import lombok.val;
 
+/**
+ * Regenerates the packaged mappings. Refreshes incrementally from the existing snapshot when one is present, unless
+ * {@code --full} is given.
+ * <p>
+ * Usage: {@code TCGAMappingsGenerator [--full] [stateDir]}. The refresh state is kept in {@code stateDir}, by default
+ * {@code ~/.dcc/tcga-mappings}, outside of the packaged resources.
+ */
 public class TCGAMappingsGenerator {
 
-  private static final File MAPPINGS_FILE = new File("src/main/resources/" + MAPPING_FILE_NAME);
+  private static final File MAPPINGS_FILE = new File("src/main/resources/" + MAPPING_STORE_FILE_NAME);
+  private static final File DEFAULT_STATE_DIR = new File(System.getProperty("user.home"), ".dcc/tcga-mappings");
 
   public static void main(String[] args) throws IOException {
-    val mappings = readMappings();
-    writeMappings(mappings);
+    val full = args.length > 0 && args[0].equals("--full");
+    val stateArg = full ? 1 : 0;
+    val stateDir = args.length > stateArg ? new File(args[stateArg]) : DEFAULT_STATE_DIR;
+
+    val snapshot = full || !TCGAMappingSnapshot.exists(MAPPINGS_FILE) ?
+        readSnapshot() :
+        refreshSnapshot(TCGAMappingSnapshot.read(MAPPINGS_FILE, stateDir));
+
+    snapshot.write(MAPPINGS_FILE, stateDir);
   }
 
   public static TCGAMappings readMappings() {
     return new TCGAClient().getMappings();
   }
 
-  public static void writeMappings(TCGAMappings mappings) throws IOException {
-    val properties = new Properties();
-    for (val mapping : mappings) {
-      properties.put(mapping.getKey(), mapping.getValue());
-    }
+  public static TCGAMappingSnapshot readSnapshot() {
+    return new TCGAClient().getSnapshot();
+  }
+
+  public static TCGAMappingSnapshot refreshSnapshot(TCGAMappingSnapshot previous) {
+    return new TCGAClient().refresh(previous);
+  }
 
-    val writer = new FileWriter(MAPPINGS_FILE);
-    properties.store(writer, "TCGC UUID <-> Barcode mappings");
+  public static void writeMappings(TCGAMappings mappings) throws IOException {
+    mappings.write(MAPPINGS_FILE);
   }
 
 }
@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.                             
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.tcga.client;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.icgc.dcc.common.core.json.JsonNodeBuilders.array;
+import static org.icgc.dcc.common.core.json.JsonNodeBuilders.object;
+import static org.icgc.dcc.common.core.json.Jackson.DEFAULT;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.util.List;
+import java.util.Map;
+
+import org.icgc.dcc.common.tcga.core.TCGAMappingSnapshot;
+import org.icgc.dcc.common.tcga.core.TCGAMappings;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import lombok.SneakyThrows;
+import lombok.val;
+
+public class TCGAClientTest {
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  /**
+   * Cases served by the stub per API.
+   */
+  final List<ObjectNode> legacyCases = Lists.newArrayList();
+  final List<ObjectNode> currentCases = Lists.newArrayList();
+
+  /**
+   * Filters received by the stub.
+   */
+  final List<JsonNode> filters = Lists.newCopyOnWriteArrayList();
+
+  HttpServer server;
+  TCGAClient client;
+
+  @Before
+  public void setUp() throws Exception {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/legacy/cases", exchange -> respond(exchange, legacyCases));
+    server.createContext("/current/cases", exchange -> respond(exchange, currentCases));
+    server.start();
+
+    val url = "http://localhost:" + server.getAddress().getPort();
+    client = new TCGAClient(url + "/current", url + "/legacy");
+
+    legacyCases.add(caze("L1", "2016-01-01T00:00:00-05:00", "L1-A1"));
+    currentCases.add(caze("C1", "2017-01-01T00:00:00.000000-06:00", "C1-A1"));
+    currentCases.add(caze("C2", "2017-02-01T00:00:00.000000-06:00", "C2-A1", "C2-A2"));
+  }
+
+  @After
+  public void tearDown() {
+    server.stop(0);
+  }
+
+  @Test
+  public void testGetSnapshot() throws Exception {
+    val snapshot = client.getSnapshot();
+
+    assertThat(filters).isEmpty();
+    assertThat(snapshot.getWatermark()).isEqualTo("2017-02-01T00:00:00.000000-06:00");
+    assertThat(toMap(snapshot.getMappings())).isEqualTo(ImmutableMap.builder()
+        .put("L1", "TCGA-L1").put("L1-S", "TCGA-L1-01A").put("L1-A1", "TCGA-L1-A1")
+        .put("C1", "TCGA-C1").put("C1-S", "TCGA-C1-01A").put("C1-A1", "TCGA-C1-A1")
+        .put("C2", "TCGA-C2").put("C2-S", "TCGA-C2-01A").put("C2-A1", "TCGA-C2-A1").put("C2-A2", "TCGA-C2-A2")
+        .build());
+
+    val file = new File(tmp.newFolder("resources"), "mappings.bin");
+    val stateDir = new File(tmp.getRoot(), "state");
+    snapshot.write(file, stateDir);
+    val read = TCGAMappingSnapshot.read(file, stateDir);
+
+    // Only the store is written next to the file so that the refresh state is not packaged
+    assertThat(file.getParentFile().list()).containsOnly("mappings.bin");
+
+    assertThat(read.getWatermark()).isEqualTo(snapshot.getWatermark());
+    assertThat(toMap(read.getMappings())).isEqualTo(toMap(snapshot.getMappings()));
+    assertThat(read.getCases()).isEqualTo(ImmutableMap.of(
+        "L1", ImmutableSet.of("L1", "L1-S", "L1-A1"),
+        "C1", ImmutableSet.of("C1", "C1-S", "C1-A1"),
+        "C2", ImmutableSet.of("C2", "C2-S", "C2-A1", "C2-A2")));
+  }
+
+  @Test
+  public void testGetSnapshotWithUnparsableUpdated() {
+    legacyCases.set(0, caze("L1", "yesterday", "L1-A1"));
+
+    val snapshot = client.getSnapshot();
+
+    assertThat(snapshot.getWatermark()).isEqualTo("2017-02-01T00:00:00.000000-06:00");
+    assertThat(snapshot.getMappings().size()).isEqualTo(10);
+  }
+
+  @Test
+  public void testRefresh() throws Exception {
+    val file = tmp.newFile("mappings.bin");
+    val stateDir = tmp.newFolder("state");
+    client.getSnapshot().write(file, stateDir);
+    val previous = TCGAMappingSnapshot.read(file, stateDir);
+
+    // Aliquot C2-A2 is replaced by C2-A3 which takes over its barcode and C3 is added
+    currentCases.set(1, caze("C2", "2017-03-01T00:00:00.000000-06:00",
+        ImmutableMap.of("C2-A1", "TCGA-C2-A1", "C2-A3", "TCGA-C2-A2")));
+    currentCases.add(caze("C3", "2017-03-02T00:00:00.000000-06:00", "C3-A1"));
+
+    val snapshot = client.refresh(previous);
+    snapshot.write(file, stateDir);
+
+    assertThat(filters).hasSize(2);
+    for (val filter : filters) {
+      assertThat(filter.path("op").textValue()).isEqualTo(">=");
+      assertThat(filter.path("content").path("field").textValue()).isEqualTo("updated_datetime");
+      assertThat(filter.path("content").path("value").textValue()).isEqualTo("2017-02-01T00:00:00.000000-06:00");
+    }
+
+    assertThat(snapshot.getWatermark()).isEqualTo("2017-03-02T00:00:00.000000-06:00");
+    assertThat(toMap(TCGAMappingSnapshot.read(file, stateDir).getMappings())).isEqualTo(ImmutableMap.builder()
+        .put("L1", "TCGA-L1").put("L1-S", "TCGA-L1-01A").put("L1-A1", "TCGA-L1-A1")
+        .put("C1", "TCGA-C1").put("C1-S", "TCGA-C1-01A").put("C1-A1", "TCGA-C1-A1")
+        .put("C2", "TCGA-C2").put("C2-S", "TCGA-C2-01A").put("C2-A1", "TCGA-C2-A1").put("C2-A3", "TCGA-C2-A2")
+        .put("C3", "TCGA-C3").put("C3-S", "TCGA-C3-01A").put("C3-A1", "TCGA-C3-A1")
+        .build());
+  }
+
+  @Test
+  public void testRefreshRemovesUnlisted() throws Exception {
+    val file = tmp.newFile("mappings.bin");
+    val stateDir = tmp.newFolder("state");
+    client.getSnapshot().write(file, stateDir);
+    val previous = TCGAMappingSnapshot.read(file, stateDir);
+
+    // Aliquot C2-A2 is removed from C2 and C1-A1 moves from C1 to C2
+    currentCases.set(1, caze("C2", "2017-03-01T00:00:00.000000-06:00", "C2-A1", "C1-A1"));
+    currentCases.set(0, caze("C1", "2017-03-01T00:00:00.000000-06:00"));
+
+    val snapshot = client.refresh(previous);
+
+    assertThat(toMap(snapshot.getMappings())).isEqualTo(ImmutableMap.builder()
+        .put("L1", "TCGA-L1").put("L1-S", "TCGA-L1-01A").put("L1-A1", "TCGA-L1-A1")
+        .put("C1", "TCGA-C1").put("C1-S", "TCGA-C1-01A")
+        .put("C2", "TCGA-C2").put("C2-S", "TCGA-C2-01A").put("C2-A1", "TCGA-C2-A1").put("C1-A1", "TCGA-C1-A1")
+        .build());
+    assertThat(snapshot.getCases().get("C2")).isEqualTo(ImmutableSet.of("C2", "C2-S", "C2-A1", "C1-A1"));
+  }
+
+  @Test
+  public void testRefreshWithoutCases() {
+    val previous = new TCGAMappingSnapshot(new TCGAMappings(ImmutableMap.of("X1", "TCGA-X1")),
+        "2017-02-01T00:00:00.000000-06:00");
+
+    val snapshot = client.refresh(previous);
+
+    assertThat(filters).isEmpty();
+    assertThat(snapshot.getMappings().size()).isEqualTo(10);
+    assertThat(snapshot.getCases().keySet()).containsOnly("L1", "C1", "C2");
+  }
+
+  @Test
+  public void testRefreshWithoutWatermark() {
+    val previous = new TCGAMappingSnapshot(new TCGAMappings(ImmutableMap.of("X1", "TCGA-X1")), null);
+
+    val snapshot = client.refresh(previous);
+
+    assertThat(filters).isEmpty();
+    assertThat(snapshot.getMappings().size()).isEqualTo(10);
+    assertThat(snapshot.getMappings().getUUID("TCGA-X1")).isNull();
+  }
+
+  @SneakyThrows
+  private void respond(HttpExchange exchange, List<ObjectNode> cases) {
+    val params = Maps.<String, String> newHashMap();
+    for (val param : Splitter.on('&').withKeyValueSeparator('=').split(exchange.getRequestURI().getRawQuery())
+        .entrySet()) {
+      params.put(param.getKey(), URLDecoder.decode(param.getValue(), UTF_8.name()));
+    }
+
+    // Only the updated_datetime range filter used by the client is supported
+    String since = null;
+    if (params.containsKey("filters")) {
+      val filter = DEFAULT.readTree(params.get("filters"));
+      filters.add(filter);
+      since = filter.path("content").path("value").textValue();
+    }
+
+    val hits = array().end();
+    for (val caze : cases) {
+      if (since == null || caze.get("updated_datetime").textValue().compareTo(since) >= 0) {
+        hits.add(caze);
+      }
+    }
+
+    val size = Integer.parseInt(params.get("size"));
+    val response = object()
+        .with("data", object()
+            .with("hits", hits)
+            .with("pagination", object()
+                .with("count", hits.size())
+                .with("from", Integer.parseInt(params.get("from")))
+                .with("page", 1)
+                .with("pages", 1)
+                .with("total", hits.size())
+                .with("size", size)))
+        .with("warnings", object())
+        .end();
+
+    val body = DEFAULT.writeValueAsBytes(response);
+    exchange.getResponseHeaders().set("Content-Type", "application/json");
+    exchange.sendResponseHeaders(200, body.length);
+    try (OutputStream output = exchange.getResponseBody()) {
+      output.write(body);
+    }
+  }
+
+  private static ObjectNode caze(String caseId, String updated, String... aliquotIds) {
+    val barcodes = Maps.<String, String> newLinkedHashMap();
+    for (val aliquotId : aliquotIds) {
+      barcodes.put(aliquotId, "TCGA-" + aliquotId);
+    }
+
+    return caze(caseId, updated, barcodes);
+  }
+
+  private static ObjectNode caze(String caseId, String updated, Map<String, String> barcodes) {
+    val aliquots = array();
+    for (val barcode : barcodes.entrySet()) {
+      aliquots.with(object().with("aliquot_id", barcode.getKey()).with("submitter_id", barcode.getValue()));
+    }
+
+    return object()
+        .with("case_id", caseId)
+        .with("submitter_id", "TCGA-" + caseId)
+        .with("updated_datetime", updated)
+        .with("samples", array().with(object()
+            .with("sample_id", caseId + "-S")
+            .with("submitter_id", "TCGA-" + caseId + "-01A")
+            .with("portions", array().with(object()
+                .with("analytes", array().with(object()
+                    .with("aliquots", aliquots)))))))
+        .end();
+  }
+
+  private static Map<Object, Object> toMap(TCGAMappings mappings) {
+    val map = Maps.newHashMap();
+    for (val mapping : mappings) {
+      map.put(mapping.getKey(), mapping.getValue());
+    }
+
+    return map;
+  }
+
+}
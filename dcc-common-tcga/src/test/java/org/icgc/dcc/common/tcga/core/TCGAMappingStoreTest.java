@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2016 The Ontario Institute for Cancer Research. All rights reserved.
+ *                                                                                                               
+ * This program and the accompanying materials are made available under the terms of the GNU Public License v3.0.
+ * You should have received a copy of the GNU General Public License along with                                  
+ * this program. If not, see <http://www.gnu.org/licenses/>.                                                     
+ *                                                                                                               
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY                           
+ * EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES                          
+ * OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT                           
+ * SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT,                                
+ * INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED                          
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS;                               
+ * OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER                              
+ * IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN                         
+ * ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.icgc.dcc.common.tcga.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+
+import lombok.val;
+
+public class TCGAMappingStoreTest {
+
+  @Rule
+  public TemporaryFolder tmp = new TemporaryFolder();
+
+  @Test
+  public void testLookups() throws Exception {
+    val mappings = createMappings(5000);
+    val file = tmp.newFile("mappings.bin");
+    TCGAMappingStore.write(mappings, file);
+
+    for (val store : new TCGAMappingStore[] { TCGAMappingStore.create(mappings), TCGAMappingStore.open(file) }) {
+      assertThat(store.size()).isEqualTo(mappings.size());
+      for (val mapping : mappings.entrySet()) {
+        assertThat(store.getBarcode(mapping.getKey())).isEqualTo(mapping.getValue());
+        assertThat(store.getUUID(mapping.getValue())).isEqualTo(mapping.getKey());
+      }
+
+      assertThat(store.getBarcode("00000000-0000-0000-0000-000000000000")).isNull();
+      assertThat(store.getUUID("TCGA-ZZ-ZZZZ")).isNull();
+      assertThat(store.getUUID("")).isNull();
+    }
+  }
+
+  @Test
+  public void testIterator() {
+    val mappings = createMappings(1000);
+    val store = TCGAMappingStore.create(mappings);
+
+    val iterated = Maps.<String, String> newLinkedHashMap();
+    String previous = "";
+    for (val mapping : store) {
+      assertThat(mapping.getKey()).isGreaterThan(previous);
+      iterated.put(mapping.getKey(), mapping.getValue());
+      previous = mapping.getKey();
+    }
+
+    assertThat(iterated).isEqualTo(mappings);
+  }
+
+  @Test
+  public void testEmpty() {
+    val store = TCGAMappingStore.create(ImmutableMap.of());
+
+    assertThat(store.size()).isZero();
+    assertThat(store.getUUID("TCGA-EB-A85I")).isNull();
+    assertThat(store.iterator().hasNext()).isFalse();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testDuplicateBarcode() {
+    TCGAMappingStore.create(ImmutableMap.of(
+        "50dc9c63-c491-4afc-ab12-74b40eba58b6", "TCGA-EB-A85I",
+        "8477135d-aaf2-45c5-ab1d-f642fa93d03f", "TCGA-EB-A85I"));
+  }
+
+  private static Map<String, String> createMappings(int count) {
+    val random = new Random(1);
+    val mappings = Maps.<String, String> newHashMap();
+    while (mappings.size() < count) {
+      val uuid = new UUID(random.nextLong(), random.nextLong()).toString();
+      val barcode = String.format("TCGA-%02d-%04X-%02dA-%02dD", random.nextInt(100), mappings.size(),
+          random.nextInt(20), random.nextInt(10));
+      mappings.put(uuid, barcode);
+    }
+
+    return mappings;
+  }
+
+}